@@ -0,0 +1,93 @@
+package ru.nsu.pivkin;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Стратегии просеивания HeapSort в наносекундах на элемент.
+ * За один вызов сортируется TOTAL элементов: TOTAL / size массивов длины size,
+ * поэтому результат сразу нормирован на элемент при любом размере.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class HeapSortStrategyBenchmark {
+    private static final int TOTAL = 1 << 24;
+
+    @Param({"1024", "65536", "4194304", "16777216"})
+    int size;
+
+    @Param({"CLASSIC", "BOTTOM_UP", "QUATERNARY"})
+    HeapSort.Strategy strategy;
+
+    @Param({"RANDOM", "SORTED", "REVERSED", "DUPLICATES"})
+    String input;
+
+    int[] source;
+    int[] array;
+
+    /**
+     * Готовит TOTAL / size исходных массивов, записанных подряд.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+        source = new int[TOTAL];
+
+        for (int from = 0; from < TOTAL; from += size) {
+            for (int i = 0; i < size; i++) {
+                source[from + i] = switch (input) {
+                    case "SORTED" -> i;
+                    case "REVERSED" -> size - i;
+                    case "DUPLICATES" -> random.nextInt(16);
+                    default -> random.nextInt();
+                };
+            }
+        }
+
+        array = new int[TOTAL];
+    }
+
+    /**
+     * Восстанавливает исходные данные перед каждым замером.
+     */
+    @Setup(Level.Invocation)
+    public void reset() {
+        System.arraycopy(source, 0, array, 0, TOTAL);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TOTAL)
+    public int[] heapSort() {
+        for (int from = 0; from < TOTAL; from += size) {
+            HeapSort.heapSort(array, from, from + size, strategy);
+        }
+        return array;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TOTAL)
+    public int[] arraysSort() {
+        for (int from = 0; from < TOTAL; from += size) {
+            Arrays.sort(array, from, from + size);
+        }
+        return array;
+    }
+}
@@ -0,0 +1,87 @@
+package ru.nsu.pivkin;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Сравнение ParallelHeapSort с последовательной HeapSort.heapSort и Arrays.parallelSort
+ * для разных размеров массива и числа потоков пула.
+ * Arrays.parallelSort запускается внутри того же пула, поэтому его подзадачи
+ * выполняются на threads потоках.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ParallelSortBenchmark {
+    @Param({"1000000", "10000000", "100000000"})
+    int size;
+
+    @Param({"1", "2", "4", "8", "16"})
+    int threads;
+
+    int[] source;
+    int[] array;
+    ForkJoinPool pool;
+
+    /**
+     * Готовит случайный массив и пул потоков.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        source = new Random(42).ints(size).toArray();
+        array = new int[size];
+        pool = new ForkJoinPool(threads);
+    }
+
+    /**
+     * Восстанавливает неотсортированный массив перед каждым замером.
+     */
+    @Setup(Level.Invocation)
+    public void reset() {
+        System.arraycopy(source, 0, array, 0, size);
+    }
+
+    /**
+     * Останавливает пул.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public int[] heapSort() {
+        HeapSort.heapSort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] parallelHeapSort() {
+        ParallelHeapSort.sort(array, ParallelHeapSort.DEFAULT_THRESHOLD, pool);
+        return array;
+    }
+
+    @Benchmark
+    public int[] arraysParallelSort() {
+        pool.submit(() -> Arrays.parallelSort(array)).join();
+        return array;
+    }
+}
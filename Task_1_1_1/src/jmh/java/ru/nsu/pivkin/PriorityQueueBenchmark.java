@@ -0,0 +1,103 @@
+package ru.nsu.pivkin;
+
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * IntPriorityQueue против PriorityQueue&lt;Integer&gt;.
+ * fill* добавляют size случайных чисел и извлекают их все; hold* - модель планировщика:
+ * в очереди постоянно size событий, и каждая операция извлекает ближайшее и добавляет
+ * новое чуть позже него. Значения берутся из заранее заполненного массива, чтобы
+ * генератор не входил в замер; профилировщик gc показывает упаковку в Integer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class PriorityQueueBenchmark {
+    private static final int OPERATIONS = 1 << 16;
+
+    @Param({"1000", "100000", "1000000"})
+    int size;
+
+    int[] values;
+    int[] delays;
+    IntPriorityQueue primitiveQueue;
+    PriorityQueue<Integer> boxedQueue;
+
+    /**
+     * Готовит случайные значения и заполненные очереди для hold*.
+     */
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        values = random.ints(size, 0, Integer.MAX_VALUE / 2).toArray();
+        delays = random.ints(OPERATIONS, 0, 1000).toArray();
+        primitiveQueue = new IntPriorityQueue(HeapOrder.MIN, size);
+        boxedQueue = new PriorityQueue<>(size);
+        for (int value : values) {
+            primitiveQueue.offer(value);
+            boxedQueue.add(value);
+        }
+    }
+
+    @Benchmark
+    public int fillPrimitive() {
+        IntPriorityQueue queue = new IntPriorityQueue(HeapOrder.MIN, size);
+        for (int value : values) {
+            queue.offer(value);
+        }
+        int sum = 0;
+        while (!queue.isEmpty()) {
+            sum += queue.poll();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int fillBoxed() {
+        PriorityQueue<Integer> queue = new PriorityQueue<>(size);
+        for (int value : values) {
+            queue.add(value);
+        }
+        int sum = 0;
+        while (!queue.isEmpty()) {
+            sum += queue.poll();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int holdPrimitive() {
+        int last = 0;
+        for (int delay : delays) {
+            last = primitiveQueue.poll();
+            primitiveQueue.offer(last + delay);
+        }
+        return last;
+    }
+
+    @Benchmark
+    public int holdBoxed() {
+        int last = 0;
+        for (int delay : delays) {
+            last = boxedQueue.poll();
+            boxedQueue.add(last + delay);
+        }
+        return last;
+    }
+}
@@ -0,0 +1,187 @@
+package ru.nsu.pivkin;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Основной замер сортировок int[]: алгоритм x распределение входа x размер (1e3..1e8).
+ * Режим Throughput; вспомогательный счётчик elements даёт пропускную способность
+ * в элементах в секунду, профилировщик gc (см. build.gradle) - темп выделения памяти,
+ * результаты пишутся в JSON (build/results/jmh/results.json) для отслеживания регрессий.
+ * Исходный массив копируется внутри замеряемого метода: подготовка перед каждым вызовом
+ * (Level.Invocation) при размере 1e3 сама сравнима с сортировкой и искажает замер.
+ * Время копирования даёт алгоритм COPY; его время операции (1 / Throughput) вычитается
+ * из времени остальных алгоритмов с теми же size и distribution.
+ * Число сравнений измеряет {@link SortComparisonBenchmark}.
+ * Запуск: {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+public class SortBenchmark {
+    /**
+     * Распределение входных данных.
+     */
+    public enum Distribution {
+        /**
+         * Равномерно случайные числа.
+         */
+        RANDOM,
+        /**
+         * Уже отсортированный массив.
+         */
+        SORTED,
+        /**
+         * Массив, отсортированный по убыванию.
+         */
+        REVERSED,
+        /**
+         * Пила: возрастающие отрезки длины sqrt(n).
+         */
+        SAWTOOTH,
+        /**
+         * Случайные числа из 16 различных значений.
+         */
+        FEW_UNIQUE;
+
+        /**
+         * Строит массив с этим распределением; одинаковые аргументы дают одинаковый массив.
+         *
+         * @param size длина массива
+         * @param seed зерно генератора
+         * @return новый массив
+         */
+        public int[] generate(int size, long seed) {
+            SplittableRandom random = new SplittableRandom(seed);
+            int[] res = new int[size];
+            int tooth = Math.max(1, (int) Math.sqrt(size));
+
+            for (int i = 0; i < size; i++) {
+                res[i] = switch (this) {
+                    case RANDOM -> random.nextInt();
+                    case SORTED -> i;
+                    case REVERSED -> size - i;
+                    case SAWTOOTH -> i % tooth;
+                    case FEW_UNIQUE -> random.nextInt(16);
+                };
+            }
+            return res;
+        }
+    }
+
+    /**
+     * Сравниваемый алгоритм.
+     */
+    public enum Algorithm {
+        /**
+         * HeapSort, двоичная куча.
+         */
+        HEAP_CLASSIC,
+        /**
+         * HeapSort, просеивание снизу вверх.
+         */
+        HEAP_BOTTOM_UP,
+        /**
+         * HeapSort, четверичная куча.
+         */
+        HEAP_QUATERNARY,
+        /**
+         * ParallelHeapSort на общем пуле.
+         */
+        PARALLEL_HEAP,
+        /**
+         * IntroSort: быстрая сортировка с откатом на HeapSort.
+         */
+        INTRO,
+        /**
+         * Arrays.sort (dual-pivot quicksort) для сравнения.
+         */
+        JDK,
+        /**
+         * Без сортировки: базовая линия - только копирование исходного массива.
+         */
+        COPY;
+
+        /**
+         * Сортирует массив этим алгоритмом.
+         *
+         * @param array массив
+         */
+        public void sort(int[] array) {
+            switch (this) {
+                case HEAP_CLASSIC -> HeapSort.heapSort(array, HeapSort.Strategy.CLASSIC);
+                case HEAP_BOTTOM_UP -> HeapSort.heapSort(array, HeapSort.Strategy.BOTTOM_UP);
+                case HEAP_QUATERNARY -> HeapSort.heapSort(array, HeapSort.Strategy.QUATERNARY);
+                case PARALLEL_HEAP -> ParallelHeapSort.sort(array);
+                case INTRO -> IntroSort.sort(array);
+                case JDK -> Arrays.sort(array);
+                case COPY -> {
+                }
+            }
+        }
+    }
+
+    /**
+     * Счётчик отсортированных элементов; JMH выводит его в элементах в секунду.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Elements {
+        public long elements;
+
+        /**
+         * Обнуляет счётчик перед итерацией.
+         */
+        @Setup(Level.Iteration)
+        public void clean() {
+            elements = 0;
+        }
+    }
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000", "100000000"})
+    int size;
+
+    @Param({"RANDOM", "SORTED", "REVERSED", "SAWTOOTH", "FEW_UNIQUE"})
+    Distribution distribution;
+
+    @Param({"HEAP_CLASSIC", "HEAP_BOTTOM_UP", "HEAP_QUATERNARY", "PARALLEL_HEAP", "INTRO", "JDK",
+        "COPY"})
+    Algorithm algorithm;
+
+    int[] source;
+    int[] array;
+
+    /**
+     * Готовит исходный массив.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        source = distribution.generate(size, 42);
+        array = new int[size];
+    }
+
+    @Benchmark
+    public int[] sort(Elements counter) {
+        System.arraycopy(source, 0, array, 0, size);
+        algorithm.sort(array);
+        counter.elements += size;
+        return array;
+    }
+}
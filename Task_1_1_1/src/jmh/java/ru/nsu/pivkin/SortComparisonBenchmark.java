@@ -0,0 +1,140 @@
+package ru.nsu.pivkin;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Число сравнений при сортировке: массив Integer сортируется через компаратор,
+ * считающий свои вызовы. Сортировки примитивов не принимают компаратор, поэтому
+ * считаются их варианты с компаратором, выполняющие те же сравнения: HeapSort
+ * со стратегиями CLASSIC, BOTTOM_UP и QUATERNARY и IntroSort; для сравнения -
+ * TimSort из Arrays.sort. Счётчик comparisons в результатах - сравнений за одну
+ * сортировку; размеры ограничены 1e7, так как упакованный массив из 1e8 элементов
+ * не помещается в кучу.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+public class SortComparisonBenchmark {
+    /**
+     * Сортировка с компаратором.
+     */
+    public enum Algorithm {
+        /**
+         * HeapSort, двоичная куча.
+         */
+        HEAP_CLASSIC,
+        /**
+         * HeapSort, просеивание снизу вверх.
+         */
+        HEAP_BOTTOM_UP,
+        /**
+         * HeapSort, четверичная куча.
+         */
+        HEAP_QUATERNARY,
+        /**
+         * IntroSort.
+         */
+        INTRO,
+        /**
+         * TimSort из Arrays.sort для сравнения.
+         */
+        TIM;
+
+        /**
+         * Сортирует массив этим алгоритмом.
+         *
+         * @param array массив
+         * @param comparator порядок элементов
+         * @param <T> тип элементов
+         */
+        public <T> void sort(T[] array, Comparator<? super T> comparator) {
+            switch (this) {
+                case HEAP_CLASSIC ->
+                    HeapSort.heapSort(array, comparator, HeapSort.Strategy.CLASSIC);
+                case HEAP_BOTTOM_UP ->
+                    HeapSort.heapSort(array, comparator, HeapSort.Strategy.BOTTOM_UP);
+                case HEAP_QUATERNARY ->
+                    HeapSort.heapSort(array, comparator, HeapSort.Strategy.QUATERNARY);
+                case INTRO -> IntroSort.sort(array, comparator);
+                case TIM -> Arrays.sort(array, comparator);
+            }
+        }
+    }
+
+    /**
+     * Счётчик сравнений за итерацию (одна итерация - одна сортировка).
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Comparisons {
+        public long comparisons;
+
+        /**
+         * Обнуляет счётчик перед итерацией.
+         */
+        @Setup(Level.Iteration)
+        public void clean() {
+            comparisons = 0;
+        }
+    }
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    int size;
+
+    @Param({"RANDOM", "SORTED", "REVERSED", "SAWTOOTH", "FEW_UNIQUE"})
+    SortBenchmark.Distribution distribution;
+
+    @Param({"HEAP_CLASSIC", "HEAP_BOTTOM_UP", "HEAP_QUATERNARY", "INTRO", "TIM"})
+    Algorithm algorithm;
+
+    Integer[] source;
+    Integer[] array;
+
+    /**
+     * Готовит исходный массив.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        source = Arrays.stream(distribution.generate(size, 42)).boxed().toArray(Integer[]::new);
+        array = new Integer[size];
+    }
+
+    /**
+     * Восстанавливает исходный массив перед каждым вызовом.
+     */
+    @Setup(Level.Invocation)
+    public void reset() {
+        System.arraycopy(source, 0, array, 0, size);
+    }
+
+    private static Comparator<Integer> counting(Comparisons counter) {
+        return (a, b) -> {
+            counter.comparisons++;
+            return Integer.compare(a, b);
+        };
+    }
+
+    @Benchmark
+    public Integer[] sort(Comparisons counter) {
+        algorithm.sort(array, counting(counter));
+        return array;
+    }
+}
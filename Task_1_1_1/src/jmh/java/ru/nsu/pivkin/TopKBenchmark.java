@@ -0,0 +1,84 @@
+package ru.nsu.pivkin;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Выбор k наибольших (TopK.topK, потоковый вариант и partialSort) против полной сортировки.
+ * Потоковый вариант читает size случайных чисел из генератора, не создавая массив.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class TopKBenchmark {
+    @Param({"10000000"})
+    int size;
+
+    @Param({"10", "1000", "1000000"})
+    int k;
+
+    int[] source;
+    int[] array;
+
+    /**
+     * Готовит случайный массив.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        source = new Random(42).ints(size).toArray();
+        array = new int[size];
+    }
+
+    /**
+     * Восстанавливает исходный массив перед каждым замером.
+     */
+    @Setup(Level.Invocation)
+    public void reset() {
+        System.arraycopy(source, 0, array, 0, size);
+    }
+
+    @Benchmark
+    public int[] topK() {
+        return TopK.topK(array, k);
+    }
+
+    @Benchmark
+    public int[] topKStream() {
+        return TopK.topK(new SplittableRandom(42).ints(size), k);
+    }
+
+    @Benchmark
+    public int[] partialSort() {
+        TopK.partialSort(array, k);
+        return array;
+    }
+
+    @Benchmark
+    public int[] fullHeapSort() {
+        HeapSort.heapSort(array);
+        return array;
+    }
+
+    @Benchmark
+    public int[] fullArraysSort() {
+        Arrays.sort(array);
+        return array;
+    }
+}
@@ -0,0 +1,377 @@
+package ru.nsu.pivkin;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Внешняя сортировка двоичных файлов из 4-байтовых целых чисел, не помещающихся в память.
+ * Этапы:
+ * 1. Файл читается через NIO кусками, укладывающимися в бюджет памяти; каждый кусок
+ *    сортируется пирамидальной сортировкой ({@link HeapSort}) и сбрасывается
+ *    во временный файл (отсортированный отрезок);
+ * 2. Отрезки сливаются k-путевым слиянием: текущие головы отрезков лежат в куче,
+ *    и на каждом шаге выводится минимальная. Если отрезков больше, чем позволяет
+ *    бюджет памяти на буферы чтения, слияние выполняется в несколько проходов.
+ * Временные файлы создаются в заданном каталоге и удаляются по окончании.
+ */
+public final class ExternalSort {
+    /**
+     * Минимальный бюджет памяти.
+     */
+    public static final long MIN_MEMORY = 64 * 1024;
+
+    private static final int MAX_IO_BUFFER = 1 << 20;
+    private static final int MIN_RUN_BUFFER = 64 * 1024;
+
+    /**
+     * Итоги сортировки.
+     *
+     * @param elements количество отсортированных чисел
+     * @param runs количество отрезков после первого этапа
+     * @param mergePasses количество проходов слияния
+     * @param bytesRead всего байт прочитано с диска (включая временные файлы)
+     * @param bytesWritten всего байт записано на диск (включая временные файлы)
+     * @param nanos время работы в наносекундах
+     */
+    public record Report(long elements, int runs, int mergePasses,
+                         long bytesRead, long bytesWritten, long nanos) {
+        /**
+         * Пропускная способность по размеру входного файла.
+         *
+         * @return мегабайт входных данных в секунду
+         */
+        public double megabytesPerSecond() {
+            double seconds = nanos / 1e9;
+            return seconds == 0 ? 0 : elements * (double) Integer.BYTES / (1 << 20) / seconds;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d ints, %d runs, %d merge passes, %.1f MB/s, "
+                    + "read %d bytes, written %d bytes",
+                elements, runs, mergePasses, megabytesPerSecond(), bytesRead, bytesWritten);
+        }
+    }
+
+    /**
+     * Запуск из командной строки:
+     * {@code ExternalSort <вход> <выход> [память, МБ] [каталог для временных файлов]}.
+     *
+     * @param args аргументы командной строки
+     * @throws IOException при ошибке ввода-вывода
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: ExternalSort <input> <output> [memoryMb] [tempDir]");
+            return;
+        }
+
+        long memory = args.length > 2 ? Long.parseLong(args[2]) << 20 : 256L << 20;
+        Path tempDir = args.length > 3 ? Path.of(args[3]) : Path.of(args[1]).toAbsolutePath()
+            .getParent();
+
+        System.out.println(sort(Path.of(args[0]), Path.of(args[1]), memory, tempDir));
+    }
+
+    /**
+     * Сортирует файл чисел в порядке байтов big-endian.
+     *
+     * @param input исходный файл
+     * @param output файл результата (перезаписывается)
+     * @param memory бюджет памяти в байтах
+     * @param tempDir каталог для временных файлов
+     * @return итоги сортировки
+     * @throws IOException при ошибке ввода-вывода или если длина файла не кратна 4
+     * @throws IllegalArgumentException если бюджет меньше {@link #MIN_MEMORY}
+     */
+    public static Report sort(Path input, Path output, long memory, Path tempDir)
+            throws IOException {
+        return sort(input, output, memory, tempDir, ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Сортирует файл чисел в заданном порядке байтов.
+     *
+     * @param input исходный файл
+     * @param output файл результата (перезаписывается)
+     * @param memory бюджет памяти в байтах
+     * @param tempDir каталог для временных файлов
+     * @param order порядок байтов чисел во входном и выходном файлах
+     * @return итоги сортировки
+     * @throws IOException при ошибке ввода-вывода или если длина файла не кратна 4
+     * @throws IllegalArgumentException если бюджет меньше {@link #MIN_MEMORY}
+     */
+    public static Report sort(Path input, Path output, long memory, Path tempDir,
+                              ByteOrder order) throws IOException {
+        if (memory < MIN_MEMORY) {
+            throw new IllegalArgumentException("Memory budget is too small: " + memory);
+        }
+
+        long start = System.nanoTime();
+        Counters counters = new Counters();
+        // Все когда-либо созданные отрезки: при ошибке посреди прохода удаляются
+        // и уже слитые в этом проходе, и ещё не слитые.
+        List<Path> created = new ArrayList<>();
+
+        try {
+            long elements = createRuns(input, output, memory, tempDir, order, created, counters);
+            List<Path> runs = new ArrayList<>(created);
+            int initialRuns = Math.max(1, runs.size());
+            int passes = 0;
+            int fanIn = (int) Math.max(2, Math.min(1 << 16, memory / MIN_RUN_BUFFER - 1));
+
+            while (runs.size() > fanIn) {
+                List<Path> merged = new ArrayList<>();
+                for (int i = 0; i < runs.size(); i += fanIn) {
+                    List<Path> group = runs.subList(i, Math.min(i + fanIn, runs.size()));
+                    Path run = Files.createTempFile(tempDir, "run", ".bin");
+                    created.add(run);
+                    merged.add(run);
+                    merge(group, run, memory, order, counters);
+                    for (Path old : group) {
+                        Files.delete(old);
+                    }
+                }
+                runs = merged;
+                passes++;
+            }
+
+            if (!runs.isEmpty()) {
+                merge(runs, output, memory, order, counters);
+                passes++;
+            }
+
+            return new Report(elements, initialRuns, passes, counters.read, counters.written,
+                System.nanoTime() - start);
+        } finally {
+            for (Path run : created) {
+                Files.deleteIfExists(run);
+            }
+        }
+    }
+
+    /**
+     * Первый этап: режет вход на отсортированные отрезки. Если вход уместился в один
+     * кусок, результат сразу пишется в выходной файл и отрезков не остаётся.
+     *
+     * @return количество чисел во входном файле
+     */
+    private static long createRuns(Path input, Path output, long memory, Path tempDir,
+                                   ByteOrder order, List<Path> runs, Counters counters)
+            throws IOException {
+        int ioBuffer = (int) Math.min(MAX_IO_BUFFER, memory / 8) & ~(Integer.BYTES - 1);
+        int chunkInts = (int) Math.min(Integer.MAX_VALUE - 8, (memory - ioBuffer) / Integer.BYTES);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(ioBuffer).order(order);
+
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+            long size = in.size();
+            if (size % Integer.BYTES != 0) {
+                throw new IOException("File size is not a multiple of 4: " + size);
+            }
+
+            long elements = size / Integer.BYTES;
+            int[] chunk = new int[(int) Math.min(chunkInts, elements)];
+
+            for (long done = 0; done < elements; ) {
+                int n = (int) Math.min(chunk.length, elements - done);
+                readInts(in, buffer, chunk, n, counters);
+                HeapSort.heapSort(chunk, 0, n);
+                done += n;
+
+                Path run = output;
+                if (done < elements || !runs.isEmpty()) {
+                    run = Files.createTempFile(tempDir, "run", ".bin");
+                    runs.add(run);
+                }
+                writeInts(run, buffer, chunk, n, counters);
+            }
+
+            if (elements == 0) {
+                writeInts(output, buffer, chunk, 0, counters);
+            }
+            return elements;
+        }
+    }
+
+    /**
+     * Сливает отсортированные отрезки в один файл. Куча хранит пары (голова, номер
+     * отрезка), упакованные в long и инвертированные, чтобы max-heap из {@link HeapSort}
+     * выдавала минимальную голову.
+     */
+    private static void merge(List<Path> runs, Path target, long memory, ByteOrder order,
+                              Counters counters) throws IOException {
+        int bufferSize = (int) Math.max(4096, Math.min(MAX_IO_BUFFER, memory / (runs.size() + 1)))
+            & ~(Integer.BYTES - 1);
+        RunReader[] readers = new RunReader[runs.size()];
+        long[] heap = new long[runs.size()];
+        int size = 0;
+
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (int i = 0; i < readers.length; i++) {
+                readers[i] = new RunReader(runs.get(i), bufferSize, order, counters);
+                if (readers[i].hasNext()) {
+                    heap[size++] = ~pack(readers[i].next(), i);
+                }
+            }
+            for (int i = size / 2 - 1; i >= 0; i--) {
+                HeapSort.siftDown(heap, 0, size, i, heap[i]);
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize).order(order);
+            while (size > 0) {
+                long top = ~heap[0];
+                int run = (int) top;
+
+                if (!buffer.hasRemaining()) {
+                    flush(out, buffer, counters);
+                }
+                buffer.putInt((int) (top >> 32));
+
+                if (readers[run].hasNext()) {
+                    HeapSort.siftDown(heap, 0, size, 0, ~pack(readers[run].next(), run));
+                } else {
+                    size--;
+                    HeapSort.siftDown(heap, 0, size, 0, heap[size]);
+                }
+            }
+            flush(out, buffer, counters);
+        } finally {
+            for (RunReader reader : readers) {
+                if (reader != null) {
+                    reader.close();
+                }
+            }
+        }
+    }
+
+    private static long pack(int value, int run) {
+        return ((long) value << 32) | run;
+    }
+
+    /**
+     * Читает ровно n чисел из канала в начало массива.
+     */
+    private static void readInts(FileChannel in, ByteBuffer buffer, int[] dst, int n,
+                                 Counters counters) throws IOException {
+        int done = 0;
+
+        while (done < n) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), (long) (n - done) * Integer.BYTES));
+            while (buffer.hasRemaining()) {
+                int read = in.read(buffer);
+                if (read < 0) {
+                    throw new IOException("Unexpected end of file");
+                }
+                counters.read += read;
+            }
+
+            buffer.flip();
+            int count = buffer.remaining() / Integer.BYTES;
+            buffer.asIntBuffer().get(dst, done, count);
+            done += count;
+        }
+    }
+
+    /**
+     * Записывает первые n чисел массива в файл (перезаписывая его).
+     */
+    private static void writeInts(Path target, ByteBuffer buffer, int[] src, int n,
+                                  Counters counters) throws IOException {
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            int done = 0;
+
+            while (done < n) {
+                buffer.clear();
+                int count = Math.min(n - done, buffer.capacity() / Integer.BYTES);
+                buffer.asIntBuffer().put(src, done, count);
+                buffer.position(count * Integer.BYTES);
+                flush(out, buffer, counters);
+                done += count;
+            }
+        }
+    }
+
+    /**
+     * Дописывает содержимое буфера в канал и очищает буфер.
+     */
+    private static void flush(FileChannel out, ByteBuffer buffer, Counters counters)
+            throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            counters.written += out.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Счётчики прочитанных и записанных байт.
+     */
+    private static final class Counters {
+        long read;
+        long written;
+    }
+
+    /**
+     * Буферизованное чтение чисел из отрезка.
+     */
+    private static final class RunReader {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private final Counters counters;
+        private boolean eof;
+
+        RunReader(Path run, int bufferSize, ByteOrder order, Counters counters)
+                throws IOException {
+            this.channel = FileChannel.open(run, StandardOpenOption.READ);
+            this.buffer = ByteBuffer.allocateDirect(bufferSize).order(order);
+            this.counters = counters;
+            buffer.limit(0);
+        }
+
+        boolean hasNext() throws IOException {
+            if (buffer.remaining() >= Integer.BYTES) {
+                return true;
+            }
+            if (eof) {
+                return false;
+            }
+
+            buffer.compact();
+            while (buffer.position() < Integer.BYTES || buffer.hasRemaining()) {
+                int read = channel.read(buffer);
+                if (read < 0) {
+                    eof = true;
+                    break;
+                }
+                counters.read += read;
+            }
+            buffer.flip();
+            return buffer.remaining() >= Integer.BYTES;
+        }
+
+        int next() {
+            return buffer.getInt();
+        }
+
+        void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * Приватный конструктор для предотвращения создания экземпляров класса.
+     */
+    private ExternalSort() {
+        // Запрещено создавать новый экземпляр.
+    }
+}
@@ -0,0 +1,15 @@
+package ru.nsu.pivkin;
+
+/**
+ * Порядок извлечения элементов из очереди с приоритетом.
+ */
+public enum HeapOrder {
+    /**
+     * Первым извлекается наименьший элемент.
+     */
+    MIN,
+    /**
+     * Первым извлекается наибольший элемент.
+     */
+    MAX
+}
@@ -1,63 +1,672 @@
 package ru.nsu.pivkin;
 
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.function.IntToLongFunction;
+
 /**
  * Класс для сортировки массива методом пирамидальной сортировки (Heap Sort).
  * Работает в худшем, среднем и лучшем случае за O(n log n).
+ * Просеивание вниз выполняется одной из стратегий {@link Strategy};
+ * все стратегии итеративны и переносят элементы «дыркой», а не обменами.
+ * Кроме int[] поддерживаются long[], double[], массивы объектов с компаратором
+ * и сортировка массива индексов по ключу; сортировки примитивов не выделяют память.
+ * Для массивов объектов доступны те же стратегии и выполняются те же сравнения,
+ * что и для int[], поэтому считающий компаратор даёт число сравнений стратегии.
  */
 final public class HeapSort {
+    /**
+     * Способ просеивания элемента вниз по куче.
+     */
+    public enum Strategy {
+        /**
+         * Двоичная куча: на каждом уровне сравниваются оба потомка и сам элемент,
+         * спуск останавливается, как только элемент встал на место.
+         */
+        CLASSIC,
+        /**
+         * Двоичная куча, просеивание «снизу вверх» (Floyd): сначала спуск до листа
+         * по большему потомку (одно сравнение на уровень), затем подъём до места
+         * элемента. Извлекаемый с конца элемент почти всегда возвращается к листьям,
+         * поэтому сравнений примерно вдвое меньше, чем у CLASSIC.
+         */
+        BOTTOM_UP,
+        /**
+         * Четверичная куча: потомки узла лежат рядом в одной кэш-линии,
+         * а высота кучи вдвое меньше, поэтому промахов кэша меньше.
+         */
+        QUATERNARY
+    }
+
     /**
      * Сортировка массива методом пирамидальной сортировки.
      * Этапы:
      * 1. Построение двоичной кучи max-heap из исходного массива;
      * 2. Последовательное извлечение максимальных элементов
      *    с восстановлением свойств на меньшей куче.
+     * Используется стратегия {@link Strategy#CLASSIC}.
      *
      * @param input массив для сортировки (результат сохраняется тут же)
      */
     public static void heapSort(int[] input) {
-        int n = input.length;
+        heapSort(input, Strategy.CLASSIC);
+    }
+
+    /**
+     * Сортировка массива пирамидальной сортировкой с заданной стратегией просеивания.
+     *
+     * @param input массив для сортировки (результат сохраняется тут же)
+     * @param strategy стратегия просеивания
+     */
+    public static void heapSort(int[] input, Strategy strategy) {
+        heapSort(input, 0, input.length, strategy);
+    }
+
+    /**
+     * Сортировка части массива [from, to) пирамидальной сортировкой.
+     * Куча строится прямо на подмассиве, поэтому дополнительная память не нужна.
+     *
+     * @param input массив, часть которого сортируется
+     * @param from начало диапазона (включительно)
+     * @param to конец диапазона (не включительно)
+     * @throws IndexOutOfBoundsException если диапазон выходит за границы массива
+     */
+    public static void heapSort(int[] input, int from, int to) {
+        heapSort(input, from, to, Strategy.CLASSIC);
+    }
+
+    /**
+     * Сортировка части массива [from, to) с заданной стратегией просеивания.
+     *
+     * @param input массив, часть которого сортируется
+     * @param from начало диапазона (включительно)
+     * @param to конец диапазона (не включительно)
+     * @param strategy стратегия просеивания
+     * @throws IndexOutOfBoundsException если диапазон выходит за границы массива
+     */
+    public static void heapSort(int[] input, int from, int to, Strategy strategy) {
+        Objects.checkFromToIndex(from, to, input.length);
+        int n = to - from;
+        if (n < 2) {
+            return;
+        }
+
+        int arity = strategy == Strategy.QUATERNARY ? 4 : 2;
+
+        for (int i = (n - 2) / arity; i >= 0; i--) {
+            siftDown(input, from, n, i, input[from + i], strategy);
+        }
+
+        for (int i = n - 1; i > 0; i--) {
+            int last = input[from + i];
+            input[from + i] = input[from];
+            siftDown(input, from, i, 0, last, strategy);
+        }
+    }
+
+    /**
+     * Сортировка массива long[] пирамидальной сортировкой.
+     *
+     * @param input массив для сортировки (результат сохраняется тут же)
+     */
+    public static void heapSort(long[] input) {
+        heapSort(input, 0, input.length);
+    }
+
+    /**
+     * Сортировка части массива long[] [from, to) пирамидальной сортировкой.
+     *
+     * @param input массив, часть которого сортируется
+     * @param from начало диапазона (включительно)
+     * @param to конец диапазона (не включительно)
+     * @throws IndexOutOfBoundsException если диапазон выходит за границы массива
+     */
+    public static void heapSort(long[] input, int from, int to) {
+        Objects.checkFromToIndex(from, to, input.length);
+        int n = to - from;
 
         for (int i = n / 2 - 1; i >= 0; i--) {
-            heapify(input, n, i);
+            siftDown(input, from, n, i, input[from + i]);
+        }
+
+        for (int i = n - 1; i > 0; i--) {
+            long last = input[from + i];
+            input[from + i] = input[from];
+            siftDown(input, from, i, 0, last);
+        }
+    }
+
+    /**
+     * Сортировка массива double[] пирамидальной сортировкой.
+     * Порядок тот же, что у {@link Double#compare}: -0.0 раньше 0.0, NaN в конце.
+     *
+     * @param input массив для сортировки (результат сохраняется тут же)
+     */
+    public static void heapSort(double[] input) {
+        heapSort(input, 0, input.length);
+    }
+
+    /**
+     * Сортировка части массива double[] [from, to) пирамидальной сортировкой.
+     * Порядок тот же, что у {@link Double#compare}: -0.0 раньше 0.0, NaN в конце.
+     *
+     * @param input массив, часть которого сортируется
+     * @param from начало диапазона (включительно)
+     * @param to конец диапазона (не включительно)
+     * @throws IndexOutOfBoundsException если диапазон выходит за границы массива
+     */
+    public static void heapSort(double[] input, int from, int to) {
+        Objects.checkFromToIndex(from, to, input.length);
+        int n = to - from;
+
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            siftDown(input, from, n, i, input[from + i]);
+        }
+
+        for (int i = n - 1; i > 0; i--) {
+            double last = input[from + i];
+            input[from + i] = input[from];
+            siftDown(input, from, i, 0, last);
+        }
+    }
+
+    /**
+     * Сортировка массива сравнимых объектов в естественном порядке.
+     *
+     * @param input массив для сортировки (результат сохраняется тут же)
+     * @param <T> тип элементов
+     */
+    public static <T extends Comparable<? super T>> void heapSort(T[] input) {
+        heapSort(input, 0, input.length, Comparator.naturalOrder());
+    }
+
+    /**
+     * Сортировка массива объектов в порядке компаратора.
+     *
+     * @param input массив для сортировки (результат сохраняется тут же)
+     * @param comparator порядок элементов
+     * @param <T> тип элементов
+     */
+    public static <T> void heapSort(T[] input, Comparator<? super T> comparator) {
+        heapSort(input, 0, input.length, comparator);
+    }
+
+    /**
+     * Сортировка части массива объектов [from, to) в порядке компаратора.
+     *
+     * @param input массив, часть которого сортируется
+     * @param from начало диапазона (включительно)
+     * @param to конец диапазона (не включительно)
+     * @param comparator порядок элементов
+     * @param <T> тип элементов
+     * @throws IndexOutOfBoundsException если диапазон выходит за границы массива
+     */
+    public static <T> void heapSort(T[] input, int from, int to,
+                                    Comparator<? super T> comparator) {
+        heapSort(input, from, to, comparator, Strategy.CLASSIC);
+    }
+
+    /**
+     * Сортировка массива объектов в порядке компаратора с заданной стратегией просеивания.
+     *
+     * @param input массив для сортировки (результат сохраняется тут же)
+     * @param comparator порядок элементов
+     * @param strategy стратегия просеивания
+     * @param <T> тип элементов
+     */
+    public static <T> void heapSort(T[] input, Comparator<? super T> comparator,
+                                    Strategy strategy) {
+        heapSort(input, 0, input.length, comparator, strategy);
+    }
+
+    /**
+     * Сортировка части массива объектов [from, to) в порядке компаратора
+     * с заданной стратегией просеивания.
+     *
+     * @param input массив, часть которого сортируется
+     * @param from начало диапазона (включительно)
+     * @param to конец диапазона (не включительно)
+     * @param comparator порядок элементов
+     * @param strategy стратегия просеивания
+     * @param <T> тип элементов
+     * @throws IndexOutOfBoundsException если диапазон выходит за границы массива
+     */
+    public static <T> void heapSort(T[] input, int from, int to,
+                                    Comparator<? super T> comparator, Strategy strategy) {
+        Objects.checkFromToIndex(from, to, input.length);
+        int n = to - from;
+        if (n < 2) {
+            return;
+        }
+
+        int arity = strategy == Strategy.QUATERNARY ? 4 : 2;
+
+        for (int i = (n - 2) / arity; i >= 0; i--) {
+            siftDown(input, from, n, i, input[from + i], comparator, strategy);
+        }
+
+        for (int i = n - 1; i > 0; i--) {
+            T last = input[from + i];
+            input[from + i] = input[from];
+            siftDown(input, from, i, 0, last, comparator, strategy);
+        }
+    }
+
+    /**
+     * Сортировка массива индексов по ключам, которые вычисляются по индексу.
+     * Так сортируются «параллельные» массивы: например, индексы записей по полю
+     * price из массива prices - {@code heapSortIndices(idx, i -> prices[i])}.
+     * Ключи не упаковываются и не копируются; функция вызывается при каждом сравнении.
+     *
+     * @param indices массив индексов для сортировки (результат сохраняется тут же)
+     * @param key ключ элемента по его индексу
+     */
+    public static void heapSortIndices(int[] indices, IntToLongFunction key) {
+        int n = indices.length;
+
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            siftDown(indices, n, i, indices[i], key);
+        }
+
+        for (int i = n - 1; i > 0; i--) {
+            int last = indices[i];
+            indices[i] = indices[0];
+            siftDown(indices, i, 0, last, key);
+        }
+    }
+
+    /**
+     * Возвращает индексы 0..n-1, упорядоченные по возрастанию ключа.
+     *
+     * @param n количество элементов
+     * @param key ключ элемента по его индексу
+     * @return массив индексов
+     */
+    public static int[] sortedIndices(int n, IntToLongFunction key) {
+        int[] indices = new int[n];
+        for (int i = 0; i < n; i++) {
+            indices[i] = i;
+        }
+
+        heapSortIndices(indices, key);
+        return indices;
+    }
+
+    /**
+     * Просеивание в двоичной куче max-heap над int[] (стратегия CLASSIC);
+     * общий примитив для сортировки и выбора k наибольших.
+     *
+     * @param input массив, содержащий кучу
+     * @param base индекс начала кучи в массиве
+     * @param n размер кучи
+     * @param i индекс свободной ячейки относительно base
+     * @param x размещаемый элемент
+     */
+    static void siftDown(int[] input, int base, int n, int i, int x) {
+        siftDownClassic(input, base, n, i, x);
+    }
+
+    /**
+     * Ставит элемент x в поддерево кучи с корнем i; ячейка i считается свободной.
+     *
+     * @param input массив, содержащий кучу
+     * @param base индекс начала кучи в массиве
+     * @param n размер кучи
+     * @param i индекс корня поддерева относительно base
+     * @param x размещаемый элемент
+     * @param strategy стратегия просеивания
+     */
+    private static void siftDown(int[] input, int base, int n, int i, int x,
+                                 Strategy strategy) {
+        switch (strategy) {
+            case CLASSIC -> siftDownClassic(input, base, n, i, x);
+            case BOTTOM_UP -> siftDownBottomUp(input, base, n, i, x);
+            default -> siftDownQuaternary(input, base, n, i, x);
         }
+    }
+
+    /**
+     * Классическое просеивание в двоичной куче max-heap.
+     *
+     * @param input массив, содержащий кучу
+     * @param base индекс начала кучи в массиве
+     * @param n размер кучи
+     * @param i индекс свободной ячейки относительно base
+     * @param x размещаемый элемент
+     */
+    private static void siftDownClassic(int[] input, int base, int n, int i, int x) {
+        int half = n / 2;
+
+        while (i < half) {
+            int largest = 2 * i + 1;
+            int right = largest + 1;
 
-        for (int i = n - 1; i >= 0; i--) {
-            int buffer = input[0];
-            input[0] = input[i];
-            input[i] = buffer;
+            if (right < n && input[base + right] > input[base + largest]) {
+                largest = right;
+            }
+            if (x >= input[base + largest]) {
+                break;
+            }
 
-            heapify(input, i, 0);
+            input[base + i] = input[base + largest];
+            i = largest;
         }
+
+        input[base + i] = x;
     }
 
     /**
-     * Функция преобразования в двоичную кучу max-heap поддерева с корнем в заданном индексе.
+     * Просеивание «снизу вверх» в двоичной куче max-heap.
      *
-     * @param input массив, представляющий кучу
+     * @param input массив, содержащий кучу
+     * @param base индекс начала кучи в массиве
      * @param n размер кучи
-     * @param i индекс корня поддерева
+     * @param i индекс свободной ячейки относительно base
+     * @param x размещаемый элемент
      */
-    private static void heapify(int[] input, int n, int i) {
-        int largest = i;
+    private static void siftDownBottomUp(int[] input, int base, int n, int i, int x) {
+        int root = i;
+        int bothChildren = (n - 1) / 2;
 
-        int left = 2 * i + 1;
-        int right = 2 * i + 2;
+        while (i < bothChildren) {
+            int left = 2 * i + 1;
+            i = input[base + left] >= input[base + left + 1] ? left : left + 1;
+        }
+        if ((n & 1) == 0 && i == n / 2 - 1) {
+            i = n - 1;
+        }
 
-        if (left < n && input[left] > input[largest]) {
-            largest = left;
+        while (i > root && input[base + i] < x) {
+            i = (i - 1) / 2;
         }
-        if (right < n && input[right] > input[largest]) {
-            largest = right;
+
+        while (i > root) {
+            int moved = input[base + i];
+            input[base + i] = x;
+            x = moved;
+            i = (i - 1) / 2;
         }
 
-        if (largest != i) {
-            //swap
-            int buffer = input[i];
-            input[i] = input[largest];
-            input[largest] = buffer;
+        input[base + root] = x;
+    }
+
+    /**
+     * Просеивание в четверичной куче max-heap.
+     *
+     * @param input массив, содержащий кучу
+     * @param base индекс начала кучи в массиве
+     * @param n размер кучи
+     * @param i индекс свободной ячейки относительно base
+     * @param x размещаемый элемент
+     */
+    private static void siftDownQuaternary(int[] input, int base, int n, int i, int x) {
+        int lastParent = Math.floorDiv(n - 2, 4);
+        int lastFull = Math.floorDiv(n - 5, 4);
 
-            heapify(input, n, largest);
+        while (i <= lastParent) {
+            int first = base + 4 * i + 1;
+            int largest;
+
+            if (i <= lastFull) {
+                int left = input[first] >= input[first + 1] ? first : first + 1;
+                int right = input[first + 2] >= input[first + 3] ? first + 2 : first + 3;
+                largest = input[left] >= input[right] ? left : right;
+            } else {
+                largest = first;
+                for (int c = first + 1; c < base + n; c++) {
+                    if (input[c] > input[largest]) {
+                        largest = c;
+                    }
+                }
+            }
+
+            if (x >= input[largest]) {
+                break;
+            }
+
+            input[base + i] = input[largest];
+            i = largest - base;
+        }
+
+        input[base + i] = x;
+    }
+
+    /**
+     * Классическое просеивание в куче max-heap над long[].
+     *
+     * @param input массив, содержащий кучу
+     * @param base индекс начала кучи в массиве
+     * @param n размер кучи
+     * @param i индекс свободной ячейки относительно base
+     * @param x размещаемый элемент
+     */
+    static void siftDown(long[] input, int base, int n, int i, long x) {
+        int half = n / 2;
+
+        while (i < half) {
+            int largest = 2 * i + 1;
+            int right = largest + 1;
+
+            if (right < n && input[base + right] > input[base + largest]) {
+                largest = right;
+            }
+            if (x >= input[base + largest]) {
+                break;
+            }
+
+            input[base + i] = input[base + largest];
+            i = largest;
         }
+
+        input[base + i] = x;
+    }
+
+    /**
+     * Классическое просеивание в куче max-heap над double[].
+     *
+     * @param input массив, содержащий кучу
+     * @param base индекс начала кучи в массиве
+     * @param n размер кучи
+     * @param i индекс свободной ячейки относительно base
+     * @param x размещаемый элемент
+     */
+    private static void siftDown(double[] input, int base, int n, int i, double x) {
+        int half = n / 2;
+
+        while (i < half) {
+            int largest = 2 * i + 1;
+            int right = largest + 1;
+
+            if (right < n && Double.compare(input[base + right], input[base + largest]) > 0) {
+                largest = right;
+            }
+            if (Double.compare(x, input[base + largest]) >= 0) {
+                break;
+            }
+
+            input[base + i] = input[base + largest];
+            i = largest;
+        }
+
+        input[base + i] = x;
+    }
+
+    /**
+     * Ставит элемент x в поддерево кучи объектов с корнем i; ячейка i считается свободной.
+     *
+     * @param input массив, содержащий кучу
+     * @param base индекс начала кучи в массиве
+     * @param n размер кучи
+     * @param i индекс корня поддерева относительно base
+     * @param x размещаемый элемент
+     * @param comparator порядок элементов
+     * @param strategy стратегия просеивания
+     * @param <T> тип элементов
+     */
+    private static <T> void siftDown(T[] input, int base, int n, int i, T x,
+                                     Comparator<? super T> comparator, Strategy strategy) {
+        switch (strategy) {
+            case CLASSIC -> siftDownClassic(input, base, n, i, x, comparator);
+            case BOTTOM_UP -> siftDownBottomUp(input, base, n, i, x, comparator);
+            default -> siftDownQuaternary(input, base, n, i, x, comparator);
+        }
+    }
+
+    /**
+     * Классическое просеивание в куче max-heap над массивом объектов.
+     *
+     * @param input массив, содержащий кучу
+     * @param base индекс начала кучи в массиве
+     * @param n размер кучи
+     * @param i индекс свободной ячейки относительно base
+     * @param x размещаемый элемент
+     * @param comparator порядок элементов
+     * @param <T> тип элементов
+     */
+    private static <T> void siftDownClassic(T[] input, int base, int n, int i, T x,
+                                            Comparator<? super T> comparator) {
+        int half = n / 2;
+
+        while (i < half) {
+            int largest = 2 * i + 1;
+            int right = largest + 1;
+
+            if (right < n && comparator.compare(input[base + right], input[base + largest]) > 0) {
+                largest = right;
+            }
+            if (comparator.compare(x, input[base + largest]) >= 0) {
+                break;
+            }
+
+            input[base + i] = input[base + largest];
+            i = largest;
+        }
+
+        input[base + i] = x;
+    }
+
+    /**
+     * Просеивание «снизу вверх» в двоичной куче max-heap над массивом объектов.
+     *
+     * @param input массив, содержащий кучу
+     * @param base индекс начала кучи в массиве
+     * @param n размер кучи
+     * @param i индекс свободной ячейки относительно base
+     * @param x размещаемый элемент
+     * @param comparator порядок элементов
+     * @param <T> тип элементов
+     */
+    private static <T> void siftDownBottomUp(T[] input, int base, int n, int i, T x,
+                                             Comparator<? super T> comparator) {
+        int root = i;
+        int bothChildren = (n - 1) / 2;
+
+        while (i < bothChildren) {
+            int left = 2 * i + 1;
+            i = comparator.compare(input[base + left], input[base + left + 1]) >= 0
+                ? left
+                : left + 1;
+        }
+        if ((n & 1) == 0 && i == n / 2 - 1) {
+            i = n - 1;
+        }
+
+        while (i > root && comparator.compare(input[base + i], x) < 0) {
+            i = (i - 1) / 2;
+        }
+
+        while (i > root) {
+            T moved = input[base + i];
+            input[base + i] = x;
+            x = moved;
+            i = (i - 1) / 2;
+        }
+
+        input[base + root] = x;
+    }
+
+    /**
+     * Просеивание в четверичной куче max-heap над массивом объектов.
+     *
+     * @param input массив, содержащий кучу
+     * @param base индекс начала кучи в массиве
+     * @param n размер кучи
+     * @param i индекс свободной ячейки относительно base
+     * @param x размещаемый элемент
+     * @param comparator порядок элементов
+     * @param <T> тип элементов
+     */
+    private static <T> void siftDownQuaternary(T[] input, int base, int n, int i, T x,
+                                               Comparator<? super T> comparator) {
+        int lastParent = Math.floorDiv(n - 2, 4);
+        int lastFull = Math.floorDiv(n - 5, 4);
+
+        while (i <= lastParent) {
+            int first = base + 4 * i + 1;
+            int largest;
+
+            if (i <= lastFull) {
+                int left = comparator.compare(input[first], input[first + 1]) >= 0
+                    ? first
+                    : first + 1;
+                int right = comparator.compare(input[first + 2], input[first + 3]) >= 0
+                    ? first + 2
+                    : first + 3;
+                largest = comparator.compare(input[left], input[right]) >= 0 ? left : right;
+            } else {
+                largest = first;
+                for (int c = first + 1; c < base + n; c++) {
+                    if (comparator.compare(input[c], input[largest]) > 0) {
+                        largest = c;
+                    }
+                }
+            }
+
+            if (comparator.compare(x, input[largest]) >= 0) {
+                break;
+            }
+
+            input[base + i] = input[largest];
+            i = largest - base;
+        }
+
+        input[base + i] = x;
+    }
+
+    /**
+     * Классическое просеивание в куче индексов, упорядоченной по ключу.
+     *
+     * @param indices массив индексов, содержащий кучу
+     * @param n размер кучи
+     * @param i индекс свободной ячейки
+     * @param x размещаемый индекс
+     * @param key ключ элемента по его индексу
+     */
+    private static void siftDown(int[] indices, int n, int i, int x, IntToLongFunction key) {
+        int half = n / 2;
+        long keyX = key.applyAsLong(x);
+
+        while (i < half) {
+            int largest = 2 * i + 1;
+            int right = largest + 1;
+            long keyLargest = key.applyAsLong(indices[largest]);
+
+            if (right < n) {
+                long keyRight = key.applyAsLong(indices[right]);
+                if (keyRight > keyLargest) {
+                    largest = right;
+                    keyLargest = keyRight;
+                }
+            }
+            if (keyX >= keyLargest) {
+                break;
+            }
+
+            indices[i] = indices[largest];
+            i = largest;
+        }
+
+        indices[i] = x;
     }
 
     /**
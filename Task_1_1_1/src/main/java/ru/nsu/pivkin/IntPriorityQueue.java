@@ -0,0 +1,286 @@
+package ru.nsu.pivkin;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Очередь с приоритетом для int без упаковки в Integer.
+ * Устроена как куча из {@link HeapSort}: двоичная max-heap на массиве, элементы
+ * просеиваются «дыркой». Для порядка MIN в куче хранятся инверсии ~x, поэтому
+ * оба порядка обслуживает один и тот же код.
+ * Каждый добавленный элемент получает дескриптор (handle) - небольшое целое число,
+ * по которому можно узнать, изменить (decrease-key/increase-key) или удалить элемент.
+ * Дескриптор действителен, пока элемент в очереди; после извлечения он может быть
+ * выдан новому элементу. Свободные дескрипторы хранятся в хвосте массива кучи,
+ * так что offer, poll и update не выделяют память, пока не требуется расширение.
+ * Операции offer, poll, update и remove работают за O(log n), peek и get - за O(1).
+ */
+public final class IntPriorityQueue {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final boolean min;
+    private int[] keys;
+    private int[] handles;
+    private int[] positions;
+    private int allocated;
+    private int size;
+
+    /**
+     * Создаёт пустую очередь.
+     *
+     * @param order порядок извлечения
+     */
+    public IntPriorityQueue(HeapOrder order) {
+        this(order, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Создаёт пустую очередь, вмещающую capacity элементов без расширения.
+     *
+     * @param order порядок извлечения
+     * @param capacity начальная ёмкость
+     * @throws IllegalArgumentException если ёмкость отрицательна
+     */
+    public IntPriorityQueue(HeapOrder order, int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Negative capacity: " + capacity);
+        }
+
+        this.min = order == HeapOrder.MIN;
+        this.keys = new int[capacity];
+        this.handles = new int[capacity];
+        this.positions = new int[capacity];
+    }
+
+    /**
+     * Добавляет элемент.
+     *
+     * @param value значение
+     * @return дескриптор элемента
+     */
+    public int offer(int value) {
+        if (size == allocated) {
+            if (allocated == keys.length) {
+                grow();
+            }
+            handles[allocated] = allocated;
+            positions[allocated] = allocated;
+            allocated++;
+        }
+
+        int handle = handles[size];
+        siftUp(size++, encode(value), handle);
+        return handle;
+    }
+
+    /**
+     * Возвращает первый элемент, не извлекая его.
+     *
+     * @return первый элемент
+     * @throws NoSuchElementException если очередь пуста
+     */
+    public int peek() {
+        checkNotEmpty();
+        return encode(keys[0]);
+    }
+
+    /**
+     * Возвращает дескриптор первого элемента.
+     *
+     * @return дескриптор первого элемента
+     * @throws NoSuchElementException если очередь пуста
+     */
+    public int peekHandle() {
+        checkNotEmpty();
+        return handles[0];
+    }
+
+    /**
+     * Извлекает первый элемент.
+     *
+     * @return первый элемент
+     * @throws NoSuchElementException если очередь пуста
+     */
+    public int poll() {
+        checkNotEmpty();
+        int top = keys[0];
+        removeAt(0);
+        return encode(top);
+    }
+
+    /**
+     * Проверяет, находится ли элемент с дескриптором в очереди.
+     *
+     * @param handle дескриптор
+     * @return true, если элемент в очереди
+     */
+    public boolean contains(int handle) {
+        return handle >= 0 && handle < allocated && positions[handle] < size;
+    }
+
+    /**
+     * Возвращает значение элемента по дескриптору.
+     *
+     * @param handle дескриптор
+     * @return значение
+     * @throws NoSuchElementException если элемента нет в очереди
+     */
+    public int get(int handle) {
+        return encode(keys[position(handle)]);
+    }
+
+    /**
+     * Меняет значение элемента и восстанавливает кучу; покрывает и decrease-key,
+     * и increase-key.
+     *
+     * @param handle дескриптор
+     * @param value новое значение
+     * @throws NoSuchElementException если элемента нет в очереди
+     */
+    public void update(int handle, int value) {
+        int pos = position(handle);
+        int key = encode(value);
+
+        if (key > keys[pos]) {
+            siftUp(pos, key, handle);
+        } else {
+            siftDown(pos, key, handle);
+        }
+    }
+
+    /**
+     * Удаляет элемент по дескриптору.
+     *
+     * @param handle дескриптор
+     * @return значение удалённого элемента
+     * @throws NoSuchElementException если элемента нет в очереди
+     */
+    public int remove(int handle) {
+        int pos = position(handle);
+        int key = keys[pos];
+        removeAt(pos);
+        return encode(key);
+    }
+
+    /**
+     * Возвращает количество элементов.
+     *
+     * @return количество элементов
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Проверяет, пуста ли очередь.
+     *
+     * @return true, если очередь пуста
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Удаляет все элементы, сохраняя выделенную память. Все дескрипторы освобождаются.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Переводит значение в ключ кучи и обратно (преобразование инволютивно).
+     */
+    private int encode(int value) {
+        return min ? ~value : value;
+    }
+
+    private void checkNotEmpty() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+    }
+
+    private int position(int handle) {
+        if (!contains(handle)) {
+            throw new NoSuchElementException("No element with handle " + handle);
+        }
+        return positions[handle];
+    }
+
+    /**
+     * Удаляет элемент с позиции pos: на его место просеивается последний элемент кучи,
+     * а освободившийся дескриптор переносится в хвост массива.
+     */
+    private void removeAt(int pos) {
+        int handle = handles[pos];
+        size--;
+        int lastKey = keys[size];
+        int lastHandle = handles[size];
+        handles[size] = handle;
+        positions[handle] = size;
+
+        if (pos == size) {
+            return;
+        }
+
+        if (pos > 0 && lastKey > keys[(pos - 1) / 2]) {
+            siftUp(pos, lastKey, lastHandle);
+        } else {
+            siftDown(pos, lastKey, lastHandle);
+        }
+    }
+
+    /**
+     * Поднимает элемент (key, handle) от позиции pos к вершине.
+     */
+    private void siftUp(int pos, int key, int handle) {
+        while (pos > 0) {
+            int parent = (pos - 1) / 2;
+            if (keys[parent] >= key) {
+                break;
+            }
+            move(parent, pos);
+            pos = parent;
+        }
+        place(pos, key, handle);
+    }
+
+    /**
+     * Опускает элемент (key, handle) от позиции pos к листьям.
+     */
+    private void siftDown(int pos, int key, int handle) {
+        int half = size / 2;
+
+        while (pos < half) {
+            int child = 2 * pos + 1;
+            if (child + 1 < size && keys[child + 1] > keys[child]) {
+                child++;
+            }
+            if (key >= keys[child]) {
+                break;
+            }
+            move(child, pos);
+            pos = child;
+        }
+        place(pos, key, handle);
+    }
+
+    private void move(int from, int to) {
+        keys[to] = keys[from];
+        handles[to] = handles[from];
+        positions[handles[to]] = to;
+    }
+
+    private void place(int pos, int key, int handle) {
+        keys[pos] = key;
+        handles[pos] = handle;
+        positions[handle] = pos;
+    }
+
+    private void grow() {
+        int capacity = Math.max(DEFAULT_CAPACITY, keys.length + (keys.length >> 1));
+        keys = Arrays.copyOf(keys, capacity);
+        handles = Arrays.copyOf(handles, capacity);
+        positions = Arrays.copyOf(positions, capacity);
+    }
+}
@@ -0,0 +1,334 @@
+package ru.nsu.pivkin;
+
+import java.util.Comparator;
+import java.util.Objects;
+
+/**
+ * Гибридная сортировка (introsort) на основе быстрой сортировки и {@link HeapSort}.
+ * Шаги:
+ * 1. Если массив уже упорядочен по возрастанию, работа заканчивается за один проход;
+ *    упорядоченный по убыванию массив разворачивается;
+ * 2. Иначе массив разбивается быстрой сортировкой (схема Хоара, опорный элемент -
+ *    медиана трёх). Отрезок, который уже упорядочен, дальше не разбивается;
+ * 3. Отрезки не длиннее INSERTION_THRESHOLD досортировываются вставками;
+ * 4. Если глубина разбиения превысила 2·log n (неудачные опорные элементы),
+ *    отрезок досортировывается пирамидальной сортировкой, что гарантирует O(n log n).
+ * Сортировка на месте: рекурсия идёт только в меньшую часть, поэтому стек - O(log n).
+ * Массивы объектов сортируются с компаратором теми же шагами и теми же сравнениями,
+ * что и int[], поэтому считающий компаратор даёт число сравнений алгоритма.
+ */
+public final class IntroSort {
+    /**
+     * Отрезки не длиннее порога сортируются вставками.
+     */
+    static final int INSERTION_THRESHOLD = 24;
+
+    /**
+     * Сортировка массива.
+     *
+     * @param input массив для сортировки (результат сохраняется тут же)
+     */
+    public static void sort(int[] input) {
+        sort(input, 0, input.length);
+    }
+
+    /**
+     * Сортировка подмассива [from, to).
+     *
+     * @param input массив
+     * @param from начало подмассива (включительно)
+     * @param to конец подмассива (не включительно)
+     * @throws IndexOutOfBoundsException если границы выходят за массив
+     */
+    public static void sort(int[] input, int from, int to) {
+        Objects.checkFromToIndex(from, to, input.length);
+        int n = to - from;
+        if (n < 2) {
+            return;
+        }
+
+        if (input[from] > input[to - 1] && isDescending(input, from, to)) {
+            reverse(input, from, to);
+            return;
+        }
+
+        sort(input, from, to, 2 * (31 - Integer.numberOfLeadingZeros(n)));
+    }
+
+    /**
+     * Сортировка массива объектов в порядке компаратора.
+     *
+     * @param input массив для сортировки (результат сохраняется тут же)
+     * @param comparator порядок элементов
+     * @param <T> тип элементов
+     */
+    public static <T> void sort(T[] input, Comparator<? super T> comparator) {
+        sort(input, 0, input.length, comparator);
+    }
+
+    /**
+     * Сортировка подмассива объектов [from, to) в порядке компаратора.
+     *
+     * @param input массив
+     * @param from начало подмассива (включительно)
+     * @param to конец подмассива (не включительно)
+     * @param comparator порядок элементов
+     * @param <T> тип элементов
+     * @throws IndexOutOfBoundsException если границы выходят за массив
+     */
+    public static <T> void sort(T[] input, int from, int to, Comparator<? super T> comparator) {
+        Objects.checkFromToIndex(from, to, input.length);
+        int n = to - from;
+        if (n < 2) {
+            return;
+        }
+
+        if (comparator.compare(input[from], input[to - 1]) > 0
+                && isDescending(input, from, to, comparator)) {
+            reverse(input, from, to);
+            return;
+        }
+
+        sort(input, from, to, 2 * (31 - Integer.numberOfLeadingZeros(n)), comparator);
+    }
+
+    /**
+     * Быстрая сортировка [from, to) с ограничением глубины разбиения.
+     *
+     * @param input массив
+     * @param from начало отрезка
+     * @param to конец отрезка
+     * @param depthLimit сколько ещё уровней разбиения разрешено
+     */
+    static void sort(int[] input, int from, int to, int depthLimit) {
+        while (to - from > INSERTION_THRESHOLD) {
+            if (isAscending(input, from, to)) {
+                return;
+            }
+
+            if (depthLimit-- == 0) {
+                HeapSort.heapSort(input, from, to);
+                return;
+            }
+
+            int split = partition(input, from, to);
+            if (split - from < to - split) {
+                sort(input, from, split, depthLimit);
+                from = split;
+            } else {
+                sort(input, split, to, depthLimit);
+                to = split;
+            }
+        }
+
+        insertionSort(input, from, to);
+    }
+
+    /**
+     * Разбиение Хоара вокруг медианы первого, среднего и последнего элементов.
+     *
+     * @return граница: в [from, split) элементы не больше опорного, в [split, to) - не меньше;
+     *     обе части непусты
+     */
+    private static int partition(int[] input, int from, int to) {
+        int mid = (from + to) >>> 1;
+        sort3(input, from, mid, to - 1);
+        int pivot = input[mid];
+        int i = from - 1;
+        int j = to;
+
+        while (true) {
+            do {
+                i++;
+            } while (input[i] < pivot);
+
+            do {
+                j--;
+            } while (input[j] > pivot);
+
+            if (i >= j) {
+                return j + 1;
+            }
+
+            swap(input, i, j);
+        }
+    }
+
+    /**
+     * Упорядочивает три элемента по индексам a, b, c.
+     */
+    private static void sort3(int[] input, int a, int b, int c) {
+        if (input[b] < input[a]) {
+            swap(input, a, b);
+        }
+        if (input[c] < input[b]) {
+            swap(input, b, c);
+            if (input[b] < input[a]) {
+                swap(input, a, b);
+            }
+        }
+    }
+
+    /**
+     * Сортировка вставками с переносом «дыркой».
+     */
+    private static void insertionSort(int[] input, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            int x = input[i];
+            int j = i;
+            while (j > from && input[j - 1] > x) {
+                input[j] = input[j - 1];
+                j--;
+            }
+            input[j] = x;
+        }
+    }
+
+    private static boolean isAscending(int[] input, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            if (input[i - 1] > input[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDescending(int[] input, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            if (input[i - 1] < input[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void reverse(int[] input, int from, int to) {
+        for (int i = from, j = to - 1; i < j; i++, j--) {
+            swap(input, i, j);
+        }
+    }
+
+    private static void swap(int[] input, int i, int j) {
+        int tmp = input[i];
+        input[i] = input[j];
+        input[j] = tmp;
+    }
+
+    /**
+     * Быстрая сортировка отрезка массива объектов с ограничением глубины разбиения.
+     */
+    private static <T> void sort(T[] input, int from, int to, int depthLimit,
+                                 Comparator<? super T> comparator) {
+        while (to - from > INSERTION_THRESHOLD) {
+            if (isAscending(input, from, to, comparator)) {
+                return;
+            }
+
+            if (depthLimit-- == 0) {
+                HeapSort.heapSort(input, from, to, comparator);
+                return;
+            }
+
+            int split = partition(input, from, to, comparator);
+            if (split - from < to - split) {
+                sort(input, from, split, depthLimit, comparator);
+                from = split;
+            } else {
+                sort(input, split, to, depthLimit, comparator);
+                to = split;
+            }
+        }
+
+        insertionSort(input, from, to, comparator);
+    }
+
+    private static <T> int partition(T[] input, int from, int to,
+                                     Comparator<? super T> comparator) {
+        int mid = (from + to) >>> 1;
+        sort3(input, from, mid, to - 1, comparator);
+        T pivot = input[mid];
+        int i = from - 1;
+        int j = to;
+
+        while (true) {
+            do {
+                i++;
+            } while (comparator.compare(input[i], pivot) < 0);
+
+            do {
+                j--;
+            } while (comparator.compare(input[j], pivot) > 0);
+
+            if (i >= j) {
+                return j + 1;
+            }
+
+            swap(input, i, j);
+        }
+    }
+
+    private static <T> void sort3(T[] input, int a, int b, int c,
+                                  Comparator<? super T> comparator) {
+        if (comparator.compare(input[b], input[a]) < 0) {
+            swap(input, a, b);
+        }
+        if (comparator.compare(input[c], input[b]) < 0) {
+            swap(input, b, c);
+            if (comparator.compare(input[b], input[a]) < 0) {
+                swap(input, a, b);
+            }
+        }
+    }
+
+    private static <T> void insertionSort(T[] input, int from, int to,
+                                          Comparator<? super T> comparator) {
+        for (int i = from + 1; i < to; i++) {
+            T x = input[i];
+            int j = i;
+            while (j > from && comparator.compare(input[j - 1], x) > 0) {
+                input[j] = input[j - 1];
+                j--;
+            }
+            input[j] = x;
+        }
+    }
+
+    private static <T> boolean isAscending(T[] input, int from, int to,
+                                           Comparator<? super T> comparator) {
+        for (int i = from + 1; i < to; i++) {
+            if (comparator.compare(input[i - 1], input[i]) > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static <T> boolean isDescending(T[] input, int from, int to,
+                                            Comparator<? super T> comparator) {
+        for (int i = from + 1; i < to; i++) {
+            if (comparator.compare(input[i - 1], input[i]) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static <T> void reverse(T[] input, int from, int to) {
+        for (int i = from, j = to - 1; i < j; i++, j--) {
+            swap(input, i, j);
+        }
+    }
+
+    private static <T> void swap(T[] input, int i, int j) {
+        T tmp = input[i];
+        input[i] = input[j];
+        input[j] = tmp;
+    }
+
+    /**
+     * Приватный конструктор для предотвращения создания экземпляров класса.
+     */
+    private IntroSort() {
+        // Запрещено создавать новый экземпляр.
+    }
+}
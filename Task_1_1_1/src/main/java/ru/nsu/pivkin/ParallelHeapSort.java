@@ -0,0 +1,198 @@
+package ru.nsu.pivkin;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Параллельная сортировка массива на {@link ForkJoinPool}.
+ * Массив рекурсивно делится пополам до частей не больше порога, части сортируются
+ * пирамидальной сортировкой ({@link HeapSort}) одновременно, а затем сливаются.
+ * Большие слияния тоже делятся: середина большей половины находится двоичным поиском
+ * в меньшей, и две независимые части сливаются параллельно.
+ * Чтобы не копировать данные обратно после каждого слияния, уровни рекурсии
+ * поочерёдно пишут то в исходный массив, то во вспомогательный буфер того же размера.
+ * Работает за O(n log n) и требует O(n) дополнительной памяти.
+ */
+public final class ParallelHeapSort {
+    /**
+     * Порог по умолчанию: части не длиннее него сортируются и сливаются последовательно.
+     */
+    public static final int DEFAULT_THRESHOLD = 1 << 13;
+
+    /**
+     * Сортировка массива на общем пуле с порогом по умолчанию.
+     *
+     * @param input массив для сортировки (результат сохраняется тут же)
+     */
+    public static void sort(int[] input) {
+        sort(input, DEFAULT_THRESHOLD, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Сортировка массива на общем пуле.
+     *
+     * @param input массив для сортировки (результат сохраняется тут же)
+     * @param threshold размер части, начиная с которого работа не делится
+     * @throws IllegalArgumentException если порог не положителен
+     */
+    public static void sort(int[] input, int threshold) {
+        sort(input, threshold, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Сортировка массива на заданном пуле.
+     * Массивы не длиннее порога и однопоточный пул сортируются без разбиения.
+     *
+     * @param input массив для сортировки (результат сохраняется тут же)
+     * @param threshold размер части, начиная с которого работа не делится
+     * @param pool пул потоков
+     * @throws IllegalArgumentException если порог не положителен
+     */
+    public static void sort(int[] input, int threshold, ForkJoinPool pool) {
+        if (threshold <= 0) {
+            throw new IllegalArgumentException("Threshold must be positive: " + threshold);
+        }
+
+        if (input.length <= threshold || pool.getParallelism() == 1) {
+            HeapSort.heapSort(input, 0, input.length);
+            return;
+        }
+
+        int[] buffer = new int[input.length];
+        pool.invoke(new SortTask(input, buffer, 0, input.length, false, threshold));
+    }
+
+    /**
+     * Сортировка подмассива [from, to). Результат кладётся в buffer, если toBuffer,
+     * иначе остаётся в input; второй массив используется как рабочий.
+     */
+    private static final class SortTask extends RecursiveAction {
+        private final int[] input;
+        private final int[] buffer;
+        private final int from;
+        private final int to;
+        private final boolean toBuffer;
+        private final int threshold;
+
+        SortTask(int[] input, int[] buffer, int from, int to, boolean toBuffer, int threshold) {
+            this.input = input;
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+            this.toBuffer = toBuffer;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                HeapSort.heapSort(input, from, to);
+                if (toBuffer) {
+                    System.arraycopy(input, from, buffer, from, to - from);
+                }
+                return;
+            }
+
+            int mid = (from + to) >>> 1;
+            invokeAll(new SortTask(input, buffer, from, mid, !toBuffer, threshold),
+                new SortTask(input, buffer, mid, to, !toBuffer, threshold));
+
+            int[] src = toBuffer ? input : buffer;
+            int[] dst = toBuffer ? buffer : input;
+            new MergeTask(src, dst, from, mid, mid, to, from, threshold).compute();
+        }
+    }
+
+    /**
+     * Слияние отсортированных src[lo1, hi1) и src[lo2, hi2) в dst начиная с индекса out.
+     */
+    private static final class MergeTask extends RecursiveAction {
+        private final int[] src;
+        private final int[] dst;
+        private final int lo1;
+        private final int hi1;
+        private final int lo2;
+        private final int hi2;
+        private final int out;
+        private final int threshold;
+
+        MergeTask(int[] src, int[] dst, int lo1, int hi1, int lo2, int hi2, int out,
+                  int threshold) {
+            this.src = src;
+            this.dst = dst;
+            this.lo1 = lo1;
+            this.hi1 = hi1;
+            this.lo2 = lo2;
+            this.hi2 = hi2;
+            this.out = out;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            boolean swap = hi1 - lo1 < hi2 - lo2;
+            int bigLo = swap ? lo2 : lo1;
+            int bigHi = swap ? hi2 : hi1;
+            int smallLo = swap ? lo1 : lo2;
+            int smallHi = swap ? hi1 : hi2;
+
+            // Большую часть из одного элемента уже не разделить: одна из подзадач
+            // совпала бы с исходной, поэтому такие части сливаются последовательно.
+            if ((hi1 - lo1) + (hi2 - lo2) <= threshold || bigHi - bigLo < 2) {
+                merge();
+                return;
+            }
+
+            int bigMid = (bigLo + bigHi) >>> 1;
+            int smallMid = lowerBound(src, smallLo, smallHi, src[bigMid]);
+            int split = out + (bigMid - bigLo) + (smallMid - smallLo);
+
+            invokeAll(new MergeTask(src, dst, bigLo, bigMid, smallLo, smallMid, out, threshold),
+                new MergeTask(src, dst, bigMid, bigHi, smallMid, smallHi, split, threshold));
+        }
+
+        /**
+         * Последовательное слияние двух отсортированных частей.
+         */
+        private void merge() {
+            int i = lo1;
+            int j = lo2;
+            int k = out;
+
+            while (i < hi1 && j < hi2) {
+                dst[k++] = src[j] < src[i] ? src[j++] : src[i++];
+            }
+
+            System.arraycopy(src, i, dst, k, hi1 - i);
+            System.arraycopy(src, j, dst, k + hi1 - i, hi2 - j);
+        }
+
+        /**
+         * Первый индекс в отсортированном src[lo, hi), где значение не меньше key.
+         *
+         * @param src массив
+         * @param lo начало диапазона
+         * @param hi конец диапазона
+         * @param key искомое значение
+         * @return индекс вставки
+         */
+        private static int lowerBound(int[] src, int lo, int hi, int key) {
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (src[mid] < key) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+    }
+
+    /**
+     * Приватный конструктор для предотвращения создания экземпляров класса.
+     */
+    private ParallelHeapSort() {
+        // Запрещено создавать новый экземпляр.
+    }
+}
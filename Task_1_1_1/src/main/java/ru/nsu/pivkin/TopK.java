@@ -0,0 +1,170 @@
+package ru.nsu.pivkin;
+
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+import java.util.stream.IntStream;
+
+/**
+ * Выбор k наибольших или наименьших элементов с помощью ограниченной кучи размера k
+ * на тех же примитивах, что и {@link HeapSort}. Работает за O(n log k) и хранит
+ * только k элементов, поэтому подходит для очень больших массивов и потоков.
+ * Для k наибольших используется max-heap над побитовыми инверсиями значений:
+ * ~a &gt; ~b тогда и только тогда, когда a &lt; b, и в отличие от смены знака
+ * инверсия не переполняется на Integer.MIN_VALUE.
+ */
+public final class TopK {
+    /**
+     * Возвращает k наибольших элементов массива в порядке убывания.
+     *
+     * @param input исходный массив (не изменяется)
+     * @param k количество элементов; если больше длины массива, возвращаются все
+     * @return k наибольших элементов по убыванию
+     * @throws IllegalArgumentException если k отрицательно
+     */
+    public static int[] topK(int[] input, int k) {
+        checkK(k);
+        int size = Math.min(k, input.length);
+        int[] heap = new int[size];
+
+        for (int i = 0; i < size; i++) {
+            heap[i] = ~input[i];
+        }
+        buildHeap(heap, size);
+
+        for (int i = size; i < input.length; i++) {
+            offer(heap, size, ~input[i]);
+        }
+
+        return drain(heap, size);
+    }
+
+    /**
+     * Возвращает k наибольших элементов потока в порядке убывания,
+     * не сохраняя остальные элементы.
+     *
+     * @param stream исходный поток
+     * @param k количество элементов
+     * @return k наибольших элементов по убыванию
+     * @throws IllegalArgumentException если k отрицательно
+     */
+    public static int[] topK(IntStream stream, int k) {
+        return topK(stream.iterator(), k);
+    }
+
+    /**
+     * Возвращает k наибольших элементов итератора в порядке убывания,
+     * не сохраняя остальные элементы. Буфер растёт по мере чтения и не превышает k.
+     *
+     * @param iterator источник элементов
+     * @param k количество элементов
+     * @return k наибольших элементов по убыванию
+     * @throws IllegalArgumentException если k отрицательно
+     */
+    public static int[] topK(PrimitiveIterator.OfInt iterator, int k) {
+        checkK(k);
+        int[] heap = new int[Math.min(k, 16)];
+        int size = 0;
+
+        while (size < k && iterator.hasNext()) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, (int) Math.min(k, 2L * size));
+            }
+            heap[size++] = ~iterator.nextInt();
+        }
+        buildHeap(heap, size);
+
+        while (iterator.hasNext()) {
+            offer(heap, size, ~iterator.nextInt());
+        }
+
+        return drain(heap, size);
+    }
+
+    /**
+     * Частичная сортировка: k наименьших элементов встают в начало массива
+     * по возрастанию, остальные остаются после них в произвольном порядке.
+     * Дополнительная память не нужна.
+     *
+     * @param input массив (результат сохраняется тут же)
+     * @param k количество упорядочиваемых элементов; если больше длины - сортируется всё
+     * @throws IllegalArgumentException если k отрицательно
+     */
+    public static void partialSort(int[] input, int k) {
+        checkK(k);
+        int size = Math.min(k, input.length);
+        buildHeap(input, size);
+
+        for (int i = size; i < input.length; i++) {
+            if (input[i] < input[0]) {
+                int x = input[i];
+                input[i] = input[0];
+                HeapSort.siftDown(input, 0, size, 0, x);
+            }
+        }
+
+        for (int i = size - 1; i > 0; i--) {
+            int last = input[i];
+            input[i] = input[0];
+            HeapSort.siftDown(input, 0, i, 0, last);
+        }
+    }
+
+    /**
+     * Строит кучу max-heap на первых size элементах массива.
+     *
+     * @param heap массив
+     * @param size размер кучи
+     */
+    private static void buildHeap(int[] heap, int size) {
+        for (int i = size / 2 - 1; i >= 0; i--) {
+            HeapSort.siftDown(heap, 0, size, i, heap[i]);
+        }
+    }
+
+    /**
+     * Заменяет вершину полной кучи на x, если x меньше вершины.
+     *
+     * @param heap куча
+     * @param size размер кучи
+     * @param x претендент
+     */
+    private static void offer(int[] heap, int size, int x) {
+        if (size > 0 && x < heap[0]) {
+            HeapSort.siftDown(heap, 0, size, 0, x);
+        }
+    }
+
+    /**
+     * Сортирует кучу инверсий и восстанавливает значения: получается убывающий порядок.
+     *
+     * @param heap куча инверсий
+     * @param size размер кучи
+     * @return массив из size элементов по убыванию
+     */
+    private static int[] drain(int[] heap, int size) {
+        for (int i = size - 1; i > 0; i--) {
+            int last = heap[i];
+            heap[i] = heap[0];
+            HeapSort.siftDown(heap, 0, i, 0, last);
+        }
+
+        int[] res = heap.length == size ? heap : Arrays.copyOf(heap, size);
+        for (int i = 0; i < size; i++) {
+            res[i] = ~res[i];
+        }
+        return res;
+    }
+
+    private static void checkK(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k can't be negative: " + k);
+        }
+    }
+
+    /**
+     * Приватный конструктор для предотвращения создания экземпляров класса.
+     */
+    private TopK() {
+        // Запрещено создавать новый экземпляр.
+    }
+}
@@ -0,0 +1,105 @@
+package ru.nsu.pivkin;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExternalSortTest {
+
+    @TempDir
+    Path dir;
+
+    private static void writeInts(Path file, int[] values, ByteOrder order) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * Integer.BYTES).order(order);
+        buffer.asIntBuffer().put(values);
+        Files.write(file, buffer.array());
+    }
+
+    private static int[] readInts(Path file, ByteOrder order) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file)).order(order);
+        int[] res = new int[buffer.remaining() / Integer.BYTES];
+        buffer.asIntBuffer().get(res);
+        return res;
+    }
+
+    private long tempFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.getFileName().toString().startsWith("run")).count();
+        }
+    }
+
+    @Test
+    void testMultiPassMerge() throws IOException {
+        int[] input = new Random(15).ints(100_000).toArray();
+        input[3] = Integer.MIN_VALUE;
+        input[4] = Integer.MAX_VALUE;
+        Path in = dir.resolve("in.bin");
+        Path out = dir.resolve("out.bin");
+        writeInts(in, input, ByteOrder.BIG_ENDIAN);
+
+        ExternalSort.Report report = ExternalSort.sort(in, out, ExternalSort.MIN_MEMORY, dir);
+
+        Arrays.sort(input);
+        assertArrayEquals(input, readInts(out, ByteOrder.BIG_ENDIAN));
+        assertEquals(100_000, report.elements());
+        assertTrue(report.runs() > 2);
+        assertTrue(report.mergePasses() > 1);
+        assertTrue(report.bytesRead() > 400_000);
+        assertTrue(report.bytesWritten() > 400_000);
+        assertEquals(0, tempFiles());
+    }
+
+    @Test
+    void testRunsDeletedOnFailure() throws IOException {
+        Path in = dir.resolve("in.bin");
+        writeInts(in, new Random(17).ints(100_000).toArray(), ByteOrder.BIG_ENDIAN);
+        Path out = Files.createDirectory(dir.resolve("out"));
+
+        // Выходной файл не открывается, и последнее слияние падает после нескольких проходов.
+        assertThrows(IOException.class,
+            () -> ExternalSort.sort(in, out, ExternalSort.MIN_MEMORY, dir));
+        assertEquals(0, tempFiles());
+    }
+
+    @Test
+    void testSingleRunAndByteOrder() throws IOException {
+        int[] input = new Random(16).ints(1000, -50, 50).toArray();
+        Path in = dir.resolve("in.bin");
+        Path out = dir.resolve("out.bin");
+        writeInts(in, input, ByteOrder.LITTLE_ENDIAN);
+
+        ExternalSort.Report report = ExternalSort.sort(in, out, 1 << 20, dir,
+            ByteOrder.LITTLE_ENDIAN);
+
+        Arrays.sort(input);
+        assertArrayEquals(input, readInts(out, ByteOrder.LITTLE_ENDIAN));
+        assertEquals(1, report.runs());
+        assertEquals(0, report.mergePasses());
+        assertEquals(4000, report.bytesRead());
+        assertEquals(4000, report.bytesWritten());
+        assertEquals(0, tempFiles());
+    }
+
+    @Test
+    void testEmptyAndInvalidFiles() throws IOException {
+        Path in = dir.resolve("in.bin");
+        Path out = dir.resolve("out.bin");
+        Files.write(in, new byte[0]);
+
+        assertEquals(0, ExternalSort.sort(in, out, 1 << 20, dir).elements());
+        assertEquals(0, Files.size(out));
+
+        Files.write(in, new byte[] {1, 2, 3, 4, 5});
+        assertThrows(IOException.class, () -> ExternalSort.sort(in, out, 1 << 20, dir));
+        assertThrows(IllegalArgumentException.class, () -> ExternalSort.sort(in, out, 1024, dir));
+    }
+}
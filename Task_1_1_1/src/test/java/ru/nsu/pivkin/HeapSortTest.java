@@ -1,5 +1,8 @@
 package ru.nsu.pivkin;
 
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -66,6 +69,91 @@ class HeapSortTest {
         assertArrayEquals(expected, input);
     }
 
+    @Test
+    void testAllStrategies() {
+        Random random = new Random(3);
+        int[][] inputs = {
+            random.ints(1001).toArray(),
+            random.ints(1000, 0, 4).toArray(),
+            {2, 1},
+            {1, 2, 3},
+            {4, 3, 2, 1},
+        };
+
+        for (HeapSort.Strategy strategy : HeapSort.Strategy.values()) {
+            for (int[] source : inputs) {
+                for (int n = 0; n <= source.length; n = n < 20 ? n + 1 : n * 2) {
+                    int[] input = Arrays.copyOf(source, n);
+                    int[] expected = input.clone();
+                    Arrays.sort(expected);
+                    Integer[] boxed = Arrays.stream(input).boxed().toArray(Integer[]::new);
+
+                    HeapSort.heapSort(input, strategy);
+                    HeapSort.heapSort(boxed, Comparator.naturalOrder(), strategy);
+
+                    assertArrayEquals(expected, input);
+                    assertArrayEquals(Arrays.stream(expected).boxed().toArray(), boxed);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testSortLongAndDoubleArrays() {
+        long[] longs = new Random(4).longs(500).toArray();
+        long[] expectedLongs = longs.clone();
+        Arrays.sort(expectedLongs);
+        HeapSort.heapSort(longs);
+        assertArrayEquals(expectedLongs, longs);
+
+        double[] doubles = {3.5, Double.NaN, -0.0, 0.0, -1e300, Double.NEGATIVE_INFINITY, 2};
+        double[] expectedDoubles = doubles.clone();
+        Arrays.sort(expectedDoubles);
+        HeapSort.heapSort(doubles);
+        assertArrayEquals(expectedDoubles, doubles);
+    }
+
+    @Test
+    void testSortObjects() {
+        String[] words = {"pear", "apple", "fig", "banana", "kiwi"};
+
+        HeapSort.heapSort(words);
+        assertArrayEquals(new String[] {"apple", "banana", "fig", "kiwi", "pear"}, words);
+
+        HeapSort.heapSort(words, Comparator.comparingInt(String::length).reversed()
+            .thenComparing(Comparator.naturalOrder()));
+        assertArrayEquals(new String[] {"banana", "apple", "kiwi", "pear", "fig"}, words);
+    }
+
+    @Test
+    void testSortRange() {
+        int[] input = {9, 8, 7, 6, 5, 4, 3};
+        HeapSort.heapSort(input, 2, 5);
+        assertArrayEquals(new int[] {9, 8, 5, 6, 7, 4, 3}, input);
+
+        long[] longs = {5, 4, 3, 2, 1};
+        HeapSort.heapSort(longs, 1, 4);
+        assertArrayEquals(new long[] {5, 2, 3, 4, 1}, longs);
+
+        assertThrows(IndexOutOfBoundsException.class, () -> HeapSort.heapSort(input, 3, 2));
+        assertThrows(IndexOutOfBoundsException.class, () -> HeapSort.heapSort(input, 0, 8));
+    }
+
+    @Test
+    void testSortIndicesByKey() {
+        long[] prices = {30, 10, 50, 20, 40};
+        String[] names = {"c", "a", "e", "b", "d"};
+
+        int[] order = HeapSort.sortedIndices(prices.length, i -> prices[i]);
+
+        assertArrayEquals(new int[] {1, 3, 0, 4, 2}, order);
+        StringBuilder sb = new StringBuilder();
+        for (int i : order) {
+            sb.append(names[i]);
+        }
+        assertEquals("abcde", sb.toString());
+    }
+
     @Test
     void checkMain() {
         Program.main(new String[] {});
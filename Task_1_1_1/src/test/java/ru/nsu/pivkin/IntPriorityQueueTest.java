@@ -0,0 +1,143 @@
+package ru.nsu.pivkin;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntPriorityQueueTest {
+
+    @Test
+    void testOfferPoll() {
+        IntPriorityQueue minQueue = new IntPriorityQueue(HeapOrder.MIN, 0);
+        IntPriorityQueue maxQueue = new IntPriorityQueue(HeapOrder.MAX);
+        PriorityQueue<Integer> expectedMin = new PriorityQueue<>();
+        PriorityQueue<Integer> expectedMax = new PriorityQueue<>(Comparator.reverseOrder());
+        Random random = new Random(16);
+
+        for (int i = 0; i < 20000; i++) {
+            if (random.nextInt(3) > 0 || expectedMin.isEmpty()) {
+                int value = i % 100 == 0 ? Integer.MIN_VALUE : random.nextInt();
+                minQueue.offer(value);
+                maxQueue.offer(value);
+                expectedMin.add(value);
+                expectedMax.add(value);
+            } else {
+                assertEquals(expectedMin.peek(), minQueue.peek());
+                assertEquals(expectedMin.poll(), minQueue.poll());
+                assertEquals(expectedMax.poll(), maxQueue.poll());
+            }
+            assertEquals(expectedMin.size(), minQueue.size());
+        }
+
+        while (!expectedMax.isEmpty()) {
+            assertEquals(expectedMax.poll(), maxQueue.poll());
+        }
+        assertTrue(maxQueue.isEmpty());
+        assertThrows(NoSuchElementException.class, maxQueue::poll);
+        assertThrows(NoSuchElementException.class, maxQueue::peek);
+        assertThrows(IllegalArgumentException.class,
+            () -> new IntPriorityQueue(HeapOrder.MIN, -1));
+    }
+
+    @Test
+    void testHandles() {
+        IntPriorityQueue queue = new IntPriorityQueue(HeapOrder.MIN);
+        int a = queue.offer(5);
+        int b = queue.offer(3);
+        int c = queue.offer(8);
+
+        assertEquals(b, queue.peekHandle());
+        assertEquals(8, queue.get(c));
+
+        queue.update(c, 1);
+        assertEquals(c, queue.peekHandle());
+        queue.update(c, 10);
+        assertEquals(b, queue.peekHandle());
+
+        assertEquals(3, queue.remove(b));
+        assertFalse(queue.contains(b));
+        assertThrows(NoSuchElementException.class, () -> queue.get(b));
+        assertThrows(NoSuchElementException.class, () -> queue.update(b, 0));
+        assertFalse(queue.contains(-1));
+        assertFalse(queue.contains(100));
+
+        int d = queue.offer(7);
+        assertEquals(b, d);
+        assertEquals(5, queue.poll());
+        assertEquals(7, queue.poll());
+        assertEquals(10, queue.poll());
+        assertFalse(queue.contains(a));
+
+        queue.offer(1);
+        queue.clear();
+        assertTrue(queue.isEmpty());
+        queue.offer(4);
+        assertEquals(4, queue.poll());
+    }
+
+    @Test
+    void testDijkstra() {
+        int n = 2000;
+        Random random = new Random(17);
+        List<List<int[]>> graph = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            graph.add(new ArrayList<>());
+        }
+        for (int i = 0; i < 10 * n; i++) {
+            graph.get(random.nextInt(n)).add(new int[] {random.nextInt(n), random.nextInt(1000)});
+        }
+
+        int[] expected = new int[n];
+        Arrays.fill(expected, Integer.MAX_VALUE);
+        expected[0] = 0;
+        PriorityQueue<int[]> boxed = new PriorityQueue<>(Comparator.comparingInt(e -> e[1]));
+        boxed.add(new int[] {0, 0});
+        while (!boxed.isEmpty()) {
+            int[] top = boxed.poll();
+            if (top[1] > expected[top[0]]) {
+                continue;
+            }
+            for (int[] edge : graph.get(top[0])) {
+                if (top[1] + edge[1] < expected[edge[0]]) {
+                    expected[edge[0]] = top[1] + edge[1];
+                    boxed.add(new int[] {edge[0], expected[edge[0]]});
+                }
+            }
+        }
+
+        int[] dist = new int[n];
+        int[] handle = new int[n];
+        int[] vertex = new int[n];
+        Arrays.fill(dist, Integer.MAX_VALUE);
+        Arrays.fill(handle, -1);
+        IntPriorityQueue queue = new IntPriorityQueue(HeapOrder.MIN, n);
+        dist[0] = 0;
+        handle[0] = queue.offer(0);
+        vertex[handle[0]] = 0;
+        while (!queue.isEmpty()) {
+            int u = vertex[queue.peekHandle()];
+            queue.poll();
+            for (int[] edge : graph.get(u)) {
+                int v = edge[0];
+                if (dist[u] + edge[1] < dist[v]) {
+                    dist[v] = dist[u] + edge[1];
+                    if (handle[v] >= 0 && queue.contains(handle[v]) && vertex[handle[v]] == v) {
+                        queue.update(handle[v], dist[v]);
+                    } else {
+                        handle[v] = queue.offer(dist[v]);
+                        vertex[handle[v]] = v;
+                    }
+                }
+            }
+        }
+
+        assertArrayEquals(expected, dist);
+    }
+}
@@ -0,0 +1,100 @@
+package ru.nsu.pivkin;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntroSortTest {
+
+    private static void assertSorts(int[] input) {
+        int[] expected = input.clone();
+        Arrays.sort(expected);
+        Integer[] boxed = Arrays.stream(input).boxed().toArray(Integer[]::new);
+
+        IntroSort.sort(input);
+        assertArrayEquals(expected, input);
+
+        IntroSort.sort(boxed, Comparator.naturalOrder());
+        assertArrayEquals(Arrays.stream(expected).boxed().toArray(), boxed);
+    }
+
+    @Test
+    void testDistributions() {
+        Random random = new Random(18);
+
+        for (int n : new int[] {0, 1, 2, 3, 24, 25, 100, 1000, 100000}) {
+            int[] randomInput = random.ints(n).toArray();
+            int[] sorted = new int[n];
+            int[] reversed = new int[n];
+            int[] sawtooth = new int[n];
+            int[] fewUnique = random.ints(n, 0, 4).toArray();
+            int[] nearlySorted = new int[n];
+            for (int i = 0; i < n; i++) {
+                sorted[i] = i;
+                reversed[i] = n - i;
+                sawtooth[i] = i % 37;
+                nearlySorted[i] = i;
+            }
+            if (n > 1) {
+                nearlySorted[n - 1] = -1;
+            }
+
+            assertSorts(randomInput);
+            assertSorts(sorted);
+            assertSorts(reversed);
+            assertSorts(sawtooth);
+            assertSorts(fewUnique);
+            assertSorts(nearlySorted);
+            assertSorts(new int[n]);
+        }
+
+        assertSorts(new int[] {Integer.MAX_VALUE, Integer.MIN_VALUE, 0, -1, Integer.MIN_VALUE});
+        assertSorts(new int[] {5, 5, 4, 4, 3, 3, 2, 2, 1});
+    }
+
+    @Test
+    void testHeapFallbackAndRange() {
+        int[] input = new Random(19).ints(10000).toArray();
+        int[] expected = input.clone();
+        Arrays.sort(expected, 100, 9000);
+
+        IntroSort.sort(input, 100, 9000, 0);
+        assertArrayEquals(expected, input);
+
+        input = new Random(20).ints(1000).toArray();
+        expected = input.clone();
+        Arrays.sort(expected, 10, 500);
+        IntroSort.sort(input, 10, 500);
+        assertArrayEquals(expected, input);
+
+        int[] array = new int[5];
+        assertThrows(IndexOutOfBoundsException.class, () -> IntroSort.sort(array, 3, 6));
+        assertThrows(IndexOutOfBoundsException.class, () -> IntroSort.sort(array, 3, 2));
+
+        String[] words = {"pear", "apple", "fig", "banana", "kiwi"};
+        IntroSort.sort(words, 1, 4, Comparator.naturalOrder());
+        assertArrayEquals(new String[] {"pear", "apple", "banana", "fig", "kiwi"}, words);
+        assertThrows(IndexOutOfBoundsException.class,
+            () -> IntroSort.sort(words, 3, 6, Comparator.naturalOrder()));
+    }
+
+    @Test
+    void testMedianOfThreeKiller() {
+        int n = 1 << 14;
+        int[] input = new int[n];
+        for (int i = 0; i < n / 2; i++) {
+            input[2 * i] = i;
+            input[2 * i + 1] = n / 2 + i;
+        }
+        int[] organPipe = new int[n];
+        for (int i = 0; i < n; i++) {
+            organPipe[i] = Math.min(i, n - i);
+        }
+
+        assertSorts(input);
+        assertSorts(organPipe);
+    }
+}
@@ -0,0 +1,60 @@
+package ru.nsu.pivkin;
+
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongPriorityQueueTest {
+
+    @Test
+    void testOfferPollUpdate() {
+        LongPriorityQueue queue = new LongPriorityQueue(HeapOrder.MAX);
+        PriorityQueue<Long> expected = new PriorityQueue<>(Comparator.reverseOrder());
+        Random random = new Random(18);
+        long[] values = random.longs(5000).toArray();
+        values[0] = Long.MIN_VALUE;
+        values[1] = Long.MAX_VALUE;
+        int[] handles = new int[values.length];
+
+        for (int i = 0; i < values.length; i++) {
+            handles[i] = queue.offer(values[i]);
+        }
+        for (int i = 0; i < values.length; i += 3) {
+            values[i] = random.nextLong();
+            queue.update(handles[i], values[i]);
+        }
+        for (int i = 1; i < values.length; i += 7) {
+            assertEquals(values[i], queue.remove(handles[i]));
+            values[i] = 0;
+            handles[i] = queue.offer(0);
+        }
+        for (long value : values) {
+            expected.add(value);
+        }
+
+        while (!expected.isEmpty()) {
+            assertEquals(expected.peek(), queue.peek());
+            assertEquals(expected.poll(), queue.poll());
+        }
+        assertThrows(NoSuchElementException.class, queue::poll);
+    }
+
+    @Test
+    void testMinOrder() {
+        LongPriorityQueue queue = new LongPriorityQueue(HeapOrder.MIN, 1);
+        int a = queue.offer(Long.MAX_VALUE);
+        queue.offer(Long.MIN_VALUE);
+        queue.offer(0);
+
+        assertEquals(Long.MIN_VALUE, queue.poll());
+        queue.update(a, -1);
+        assertEquals(a, queue.peekHandle());
+        assertEquals(-1, queue.poll());
+        assertEquals(0, queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+}
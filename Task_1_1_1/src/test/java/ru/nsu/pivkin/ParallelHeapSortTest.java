@@ -0,0 +1,80 @@
+package ru.nsu.pivkin;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelHeapSortTest {
+
+    @Test
+    void testSortMatchesArraysSort() {
+        Random random = new Random(1);
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        for (int size : new int[] {0, 1, 100, 1000, 12345, 100000}) {
+            int[] input = random.ints(size).toArray();
+            int[] expected = input.clone();
+            Arrays.sort(expected);
+
+            ParallelHeapSort.sort(input, 64, pool);
+
+            assertArrayEquals(expected, input);
+        }
+
+        pool.shutdown();
+    }
+
+    @Test
+    void testSortDuplicatesOnCommonPool() {
+        int[] input = new Random(2).ints(200000, -5, 5).toArray();
+        int[] expected = input.clone();
+        Arrays.sort(expected);
+
+        ParallelHeapSort.sort(input);
+
+        assertArrayEquals(expected, input);
+    }
+
+    @Test
+    void testSingleThreadPool() {
+        int[] input = {5, 3, 9, -1, 0};
+        ForkJoinPool pool = new ForkJoinPool(1);
+
+        ParallelHeapSort.sort(input, 1, pool);
+
+        assertArrayEquals(new int[] {-1, 0, 3, 5, 9}, input);
+        pool.shutdown();
+    }
+
+    @Test
+    void testSmallThresholds() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        int[] input = {5, 7, 1, 3};
+        ParallelHeapSort.sort(input, 1, pool);
+        assertArrayEquals(new int[] {1, 3, 5, 7}, input);
+
+        Random random = new Random(3);
+        for (int threshold : new int[] {1, 2, 3}) {
+            for (int size : new int[] {2, 3, 5, 17, 1000}) {
+                int[] array = random.ints(size, -3, 3).toArray();
+                int[] expected = array.clone();
+                Arrays.sort(expected);
+
+                ParallelHeapSort.sort(array, threshold, pool);
+
+                assertArrayEquals(expected, array);
+            }
+        }
+
+        pool.shutdown();
+    }
+
+    @Test
+    void testInvalidThreshold() {
+        assertThrows(IllegalArgumentException.class,
+            () -> ParallelHeapSort.sort(new int[] {1}, 0));
+    }
+}
@@ -0,0 +1,62 @@
+package ru.nsu.pivkin;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopKTest {
+
+    private static int[] largestDescending(int[] input, int k) {
+        int[] sorted = input.clone();
+        Arrays.sort(sorted);
+        int[] res = new int[Math.min(k, sorted.length)];
+        for (int i = 0; i < res.length; i++) {
+            res[i] = sorted[sorted.length - 1 - i];
+        }
+        return res;
+    }
+
+    @Test
+    void testTopK() {
+        int[] input = new Random(5).ints(10000).toArray();
+        input[17] = Integer.MIN_VALUE;
+        input[42] = Integer.MAX_VALUE;
+
+        for (int k : new int[] {0, 1, 10, 1000, 10000, 20000}) {
+            assertArrayEquals(largestDescending(input, k), TopK.topK(input, k));
+        }
+    }
+
+    @Test
+    void testTopKStream() {
+        int[] input = new Random(6).ints(5000, -100, 100).toArray();
+
+        assertArrayEquals(largestDescending(input, 7), TopK.topK(Arrays.stream(input), 7));
+        assertArrayEquals(largestDescending(input, 9000), TopK.topK(Arrays.stream(input), 9000));
+        assertArrayEquals(new int[] {2, 1}, TopK.topK(IntStream.of(1, 2), Integer.MAX_VALUE));
+        assertArrayEquals(new int[] {99_999, 99_998},
+            TopK.topK(IntStream.range(0, 100_000).iterator(), 2));
+    }
+
+    @Test
+    void testPartialSort() {
+        int[] input = new Random(7).ints(1000).toArray();
+        int[] sorted = input.clone();
+        Arrays.sort(sorted);
+
+        TopK.partialSort(input, 50);
+
+        assertArrayEquals(Arrays.copyOf(sorted, 50), Arrays.copyOf(input, 50));
+        Arrays.sort(input);
+        assertArrayEquals(sorted, input);
+    }
+
+    @Test
+    void testNegativeK() {
+        assertThrows(IllegalArgumentException.class, () -> TopK.topK(new int[] {1}, -1));
+        assertThrows(IllegalArgumentException.class, () -> TopK.partialSort(new int[] {1}, -1));
+    }
+}
@@ -0,0 +1,121 @@
+package ru.nsu.pivkin;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * BoundedCache: расход памяти на запись и скорость getOrCompute на потоке
+ * с распределением Ципфа для разных политик вытеснения.
+ * fill* заполняют кэш и HashTable size элементами; gc.alloc.rate.norm профайлера gc
+ * при одной операции на элемент показывает байты на запись (вместе с мусором расширений).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BoundedCacheBenchmark {
+    private static final int SIZE = 100_000;
+    private static final int STREAM = 1 << 20;
+
+    @Param({"LRU", "LFU", "W_TINY_LFU"})
+    BoundedCache.Policy policy;
+
+    int[] keys;
+    BoundedCache<Integer, Integer> cache;
+    int position;
+
+    /**
+     * Готовит поток ключей (Ципф, s = 1, 10 * SIZE различных ключей) и прогретый кэш.
+     */
+    @Setup
+    public void setup() {
+        int distinct = SIZE * 10;
+        double[] cumulative = new double[distinct];
+        double sum = 0;
+        for (int i = 0; i < distinct; i++) {
+            sum += 1.0 / (i + 1);
+            cumulative[i] = sum;
+        }
+
+        Random random = new Random(42);
+        keys = new int[STREAM];
+        for (int i = 0; i < STREAM; i++) {
+            int idx = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            keys[i] = idx >= 0 ? idx : -idx - 1;
+        }
+
+        cache = newCache();
+        for (int key : keys) {
+            cache.getOrCompute(key, k -> k);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1024)
+    public int getOrCompute() {
+        int sum = 0;
+        for (int i = 0; i < 1024; i++) {
+            sum += cache.getOrCompute(keys[position++ & (STREAM - 1)], k -> k);
+        }
+        return sum;
+    }
+
+    /**
+     * Доля попаданий на том же потоке (одно значение за прогон).
+     *
+     * @return - доля попаданий
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    public double hitRate() {
+        BoundedCache<Integer, Integer> fresh = newCache();
+        for (int key : keys) {
+            fresh.getOrCompute(key, k -> k);
+        }
+        return fresh.stats().hitRate();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OperationsPerInvocation(SIZE)
+    public BoundedCache<Integer, Integer> fillCache() {
+        BoundedCache<Integer, Integer> fresh = newCache();
+        for (int i = 0; i < SIZE; i++) {
+            fresh.put(i, i);
+        }
+        return fresh;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OperationsPerInvocation(SIZE)
+    public HashTable<Integer, Integer> fillTable() {
+        HashTable<Integer, Integer> table = new HashTable<>();
+        for (int i = 0; i < SIZE; i++) {
+            table.put(i, i);
+        }
+        return table;
+    }
+
+    private BoundedCache<Integer, Integer> newCache() {
+        return new BoundedCache.Builder<Integer, Integer>()
+            .maximumSize(SIZE)
+            .policy(policy)
+            .build();
+    }
+}
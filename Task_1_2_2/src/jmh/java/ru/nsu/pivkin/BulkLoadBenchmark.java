@@ -0,0 +1,78 @@
+package ru.nsu.pivkin;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Пакетная загрузка в HashTable: цикл put против putAll с предварительным расширением.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+public class BulkLoadBenchmark {
+    @Param({"1000000", "10000000"})
+    int size;
+
+    Map<Integer, Integer> sourceMap;
+    HashTable<Integer, Integer> sourceTable;
+
+    /**
+     * Готовит исходные данные в виде HashMap и HashTable.
+     */
+    @Setup
+    public void setup() {
+        sourceMap = new HashMap<>();
+        sourceTable = new HashTable<>();
+        for (int i = 0; i < size; i++) {
+            sourceMap.put(i, i);
+            sourceTable.put(i, i);
+        }
+    }
+
+    @Benchmark
+    public HashTable<Integer, Integer> loopPut() {
+        HashTable<Integer, Integer> table = new HashTable<>();
+        for (Map.Entry<Integer, Integer> entry : sourceMap.entrySet()) {
+            table.put(entry.getKey(), entry.getValue());
+        }
+        return table;
+    }
+
+    @Benchmark
+    public HashTable<Integer, Integer> putAllMap() {
+        HashTable<Integer, Integer> table = new HashTable<>();
+        table.putAll(sourceMap);
+        return table;
+    }
+
+    @Benchmark
+    public HashTable<Integer, Integer> putAllTable() {
+        HashTable<Integer, Integer> table = new HashTable<>();
+        table.putAll(sourceTable);
+        return table;
+    }
+
+    @Benchmark
+    public HashTable<Integer, Integer> presizedLoopPut() {
+        HashTable<Integer, Integer> table = new HashTable<>(size * 2, 0.8f);
+        for (Map.Entry<Integer, Integer> entry : sourceMap.entrySet()) {
+            table.put(entry.getKey(), entry.getValue());
+        }
+        return table;
+    }
+}
@@ -0,0 +1,114 @@
+package ru.nsu.pivkin;
+
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Задержка get в HashTable и java.util.HashMap на враждебных распределениях ключей:
+ *      random - случайные строки (эталон);
+ *      collidingStrings - строки из блоков "Aa" и "BB" с одинаковым hashCode;
+ *      highBits - числа, различающиеся только старшими битами;
+ *      tableMultiples - числа, кратные размеру массива корзин.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollisionBenchmark {
+    private static final int PROBES = 1024;
+
+    @Param({"random", "collidingStrings", "highBits", "tableMultiples"})
+    String distribution;
+
+    @Param({"1000", "100000"})
+    int size;
+
+    Object[] probes;
+    HashTable<Object, Object> hashTable;
+    HashMap<Object, Object> hashMap;
+
+    /**
+     * Генерирует ключи выбранного распределения и заполняет таблицы.
+     */
+    @Setup
+    public void setup() {
+        Object[] keys = new Object[size];
+        Random random = new Random(42);
+
+        for (int i = 0; i < size; i++) {
+            keys[i] = switch (distribution) {
+                case "random" -> Long.toHexString(random.nextLong());
+                case "collidingStrings" -> collidingString(i);
+                case "highBits" -> i << 16;
+                case "tableMultiples" -> i * 10240;
+                default -> throw new IllegalArgumentException(distribution);
+            };
+        }
+
+        hashTable = new HashTable<>();
+        hashMap = new HashMap<>();
+        for (Object key : keys) {
+            hashTable.put(key, key);
+            hashMap.put(key, key);
+        }
+
+        probes = new Object[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            probes[i] = keys[random.nextInt(size)];
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PROBES)
+    public int getHashTable() {
+        int found = 0;
+        for (Object key : probes) {
+            if (hashTable.get(key) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PROBES)
+    public int getHashMap() {
+        int found = 0;
+        for (Object key : probes) {
+            if (hashMap.get(key) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Строит строку, у которой hashCode совпадает со всеми остальными строками той же длины:
+     * "Aa" и "BB" имеют одинаковый хеш, поэтому любая их комбинация тоже.
+     *
+     * @param n - номер строки (биты выбирают блоки)
+     * @return - строка из 20 блоков
+     */
+    private static String collidingString(int n) {
+        StringBuilder sb = new StringBuilder();
+        for (int bit = 0; bit < 20; bit++) {
+            sb.append((n >>> bit & 1) == 0 ? "Aa" : "BB");
+        }
+        return sb.toString();
+    }
+}
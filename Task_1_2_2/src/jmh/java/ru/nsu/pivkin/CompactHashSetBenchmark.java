@@ -0,0 +1,141 @@
+package ru.nsu.pivkin;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * CompactHashSet против HashTable&lt;K, Boolean&gt;, используемой как множество.
+ * fill* строят структуру из size элементов: gc.alloc.rate.norm / size - байты на элемент;
+ * contains* измеряют поиск при попадании и промахе. Средняя длина пробирования
+ * множества (в группах по 8 ячеек) выводится в результаты containsHitSet
+ * и containsMissSet вспомогательным счётчиком probeLength.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CompactHashSetBenchmark {
+    /**
+     * Средняя длина пробирования множества; JMH выводит её рядом с результатом замера.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Probe {
+        public double probeLength;
+
+        /**
+         * Запоминает длину пробирования перед итерацией.
+         *
+         * @param benchmark - состояние с заполненным множеством
+         */
+        @Setup(Level.Iteration)
+        public void record(CompactHashSetBenchmark benchmark) {
+            probeLength = benchmark.set.averageProbeLength();
+        }
+    }
+
+    @Param({"1000", "100000", "1000000"})
+    int size;
+
+    String[] present;
+    String[] absent;
+    CompactHashSet<String> set;
+    HashTable<String, Boolean> table;
+
+    /**
+     * Заполняет множество и таблицу случайными строками.
+     */
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        present = new String[size];
+        absent = new String[1024];
+        set = new CompactHashSet<>();
+        table = new HashTable<>();
+
+        for (int i = 0; i < size; i++) {
+            present[i] = "key" + random.nextLong();
+            set.add(present[i]);
+            table.put(present[i], Boolean.TRUE);
+        }
+        for (int i = 0; i < absent.length; i++) {
+            absent[i] = "missing" + random.nextLong();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1024)
+    public int containsHitSet(Probe probe) {
+        int found = 0;
+        for (int i = 0; i < 1024; i++) {
+            found += set.contains(present[i % size]) ? 1 : 0;
+        }
+        return found;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1024)
+    public int containsHitTable() {
+        int found = 0;
+        for (int i = 0; i < 1024; i++) {
+            found += table.containsKey(present[i % size]) ? 1 : 0;
+        }
+        return found;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1024)
+    public int containsMissSet(Probe probe) {
+        int found = 0;
+        for (String key : absent) {
+            found += set.contains(key) ? 1 : 0;
+        }
+        return found;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1024)
+    public int containsMissTable() {
+        int found = 0;
+        for (String key : absent) {
+            found += table.containsKey(key) ? 1 : 0;
+        }
+        return found;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    public CompactHashSet<String> fillSet() {
+        CompactHashSet<String> fresh = new CompactHashSet<>();
+        for (String key : present) {
+            fresh.add(key);
+        }
+        return fresh;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    public HashTable<String, Boolean> fillTable() {
+        HashTable<String, Boolean> fresh = new HashTable<>();
+        for (String key : present) {
+            fresh.put(key, Boolean.TRUE);
+        }
+        return fresh;
+    }
+}
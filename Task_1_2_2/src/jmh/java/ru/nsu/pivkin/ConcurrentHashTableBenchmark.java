@@ -0,0 +1,68 @@
+package ru.nsu.pivkin;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Сравнение ConcurrentHashTable с HashTable под глобальной блокировкой
+ * на смешанной нагрузке (90% чтений, 10% записей) в 32 потока.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(32)
+@Fork(1)
+public class ConcurrentHashTableBenchmark {
+    private static final int KEYS = 1 << 16;
+
+    ConcurrentHashTable<Integer, Integer> concurrent;
+    HashTable<Integer, Integer> locked;
+
+    /**
+     * Заполняет обе таблицы одинаковыми ключами.
+     */
+    @Setup
+    public void setup() {
+        concurrent = new ConcurrentHashTable<>(32);
+        locked = new HashTable<>();
+        for (int i = 0; i < KEYS; i++) {
+            concurrent.put(i, i);
+            locked.put(i, i);
+        }
+    }
+
+    @Benchmark
+    public Integer concurrentTable() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int key = random.nextInt(KEYS);
+        if (random.nextInt(10) == 0) {
+            return concurrent.put(key, key);
+        }
+        return concurrent.get(key);
+    }
+
+    @Benchmark
+    public Integer lockedTable() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int key = random.nextInt(KEYS);
+        synchronized (locked) {
+            if (random.nextInt(10) == 0) {
+                return locked.put(key, key);
+            }
+            return locked.get(key);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package ru.nsu.pivkin;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.StreamSupport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Полный обход HashTable: итератор с Map.Entry на каждый элемент против forEach,
+ * курсора и последовательного/параллельного потока поверх spliterator.
+ * Выделение памяти на элемент видно в профайлере gc (gc.alloc.rate.norm).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class IterationBenchmark {
+    @Param({"10000000"})
+    int size;
+
+    HashTable<Integer, Integer> table;
+
+    /**
+     * Заполняет таблицу.
+     */
+    @Setup
+    public void setup() {
+        table = new HashTable<>();
+        for (int i = 0; i < size; i++) {
+            table.put(i, i);
+        }
+    }
+
+    @Benchmark
+    public long iterator() {
+        long sum = 0;
+        for (Map.Entry<Integer, Integer> entry : table) {
+            sum += entry.getValue();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long forEach() {
+        long[] sum = new long[1];
+        table.forEach((k, v) -> sum[0] += v);
+        return sum[0];
+    }
+
+    @Benchmark
+    public long cursor() {
+        long sum = 0;
+        for (var cursor = table.cursor(); cursor.advance(); ) {
+            sum += cursor.getValue();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long sequentialStream() {
+        return StreamSupport.stream(table.spliterator(), false)
+            .mapToLong(Map.Entry::getValue)
+            .sum();
+    }
+
+    @Benchmark
+    public long parallelStream() {
+        return StreamSupport.stream(table.spliterator(), true)
+            .mapToLong(Map.Entry::getValue)
+            .sum();
+    }
+}
@@ -0,0 +1,104 @@
+package ru.nsu.pivkin;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Время запуска PersistentHashTable (повторное открытие файлов) в сравнении
+ * с заполнением HashTable теми же данными, а также задержка get.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+@Fork(1)
+public class PersistentHashTableBenchmark {
+    @Param({"1000000"})
+    int size;
+
+    Path directory;
+    PersistentHashTable<String, String> table;
+    String[] probes;
+
+    /**
+     * Создает файлы таблицы с size элементами.
+     *
+     * @throws IOException - при ошибке записи
+     */
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("persistent-table");
+        table = new PersistentHashTable<>(directory, Serializer.STRING, Serializer.STRING);
+        for (int i = 0; i < size; i++) {
+            table.put("key" + i, "value" + i);
+        }
+        table.flush();
+
+        Random random = new Random(42);
+        probes = new String[1024];
+        for (int i = 0; i < probes.length; i++) {
+            probes[i] = "key" + random.nextInt(size);
+        }
+    }
+
+    /**
+     * Закрывает таблицу и удаляет её файлы.
+     *
+     * @throws IOException - при ошибке удаления
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        table.close();
+        Files.deleteIfExists(directory.resolve(PersistentHashTable.LOG_FILE));
+        Files.deleteIfExists(directory.resolve(PersistentHashTable.INDEX_FILE));
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public int reopen() throws IOException {
+        try (PersistentHashTable<String, String> reopened =
+                     new PersistentHashTable<>(directory, Serializer.STRING, Serializer.STRING)) {
+            return reopened.size();
+        }
+    }
+
+    @Benchmark
+    public HashTable<String, String> reinsert() {
+        HashTable<String, String> heap = new HashTable<>();
+        for (int i = 0; i < size; i++) {
+            heap.put("key" + i, "value" + i);
+        }
+        return heap;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @OperationsPerInvocation(1024)
+    public int get() {
+        int found = 0;
+        for (String key : probes) {
+            if (table.get(key) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+}
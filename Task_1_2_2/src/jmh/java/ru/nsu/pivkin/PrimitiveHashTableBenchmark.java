@@ -0,0 +1,178 @@
+package ru.nsu.pivkin;
+
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Сравнение IntHashTable с HashTable и java.util.HashMap на отображении int -> int.
+ * Бенчмарки заполнения измеряют время построения таблицы (gc.alloc.rate.norm профайлера
+ * gc - всё выделенное при этом, включая брошенные при расширении массивы), бенчмарки
+ * поиска - задержку get. Занимаемая готовыми таблицами память (байты на элемент в куче
+ * после сборки мусора) выводится в результаты get* вспомогательными счётчиками
+ * intTableBytes, hashTableBytes и hashMapBytes; при малом size она неточна.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrimitiveHashTableBenchmark {
+    /**
+     * Байты на элемент, удерживаемые каждой заполненной таблицей;
+     * JMH выводит их рядом с результатом замера.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public double intTableBytes;
+        public double hashTableBytes;
+        public double hashMapBytes;
+
+        /**
+         * Копирует измеренные в setup размеры перед итерацией.
+         *
+         * @param benchmark - состояние с заполненными таблицами
+         */
+        @Setup(Level.Iteration)
+        public void record(PrimitiveHashTableBenchmark benchmark) {
+            intTableBytes = benchmark.intTableBytes;
+            hashTableBytes = benchmark.hashTableBytes;
+            hashMapBytes = benchmark.hashMapBytes;
+        }
+    }
+
+    @Param({"1000", "1000000"})
+    int size;
+
+    int[] keys;
+    int[] probes;
+    IntHashTable intTable;
+    HashTable<Integer, Integer> hashTable;
+    HashMap<Integer, Integer> hashMap;
+    double intTableBytes;
+    double hashTableBytes;
+    double hashMapBytes;
+
+    /**
+     * Генерирует ключи и заранее заполняет таблицы для бенчмарков поиска,
+     * замеряя занятую каждой из них память.
+     */
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        keys = new int[size];
+        probes = new int[1024];
+
+        for (int i = 0; i < size; i++) {
+            keys[i] = random.nextInt();
+        }
+        for (int i = 0; i < probes.length; i++) {
+            probes[i] = keys[random.nextInt(size)];
+        }
+
+        long used = usedHeap();
+        intTable = fillIntTable();
+        long afterInt = usedHeap();
+        hashTable = fillHashTable();
+        long afterHash = usedHeap();
+        hashMap = fillHashMap();
+        long afterMap = usedHeap();
+
+        intTableBytes = (afterInt - used) / (double) size;
+        hashTableBytes = (afterHash - afterInt) / (double) size;
+        hashMapBytes = (afterMap - afterHash) / (double) size;
+    }
+
+    /**
+     * Возвращает объём занятой кучи после сборки мусора, то есть память,
+     * удерживаемую живыми объектами. Сборка повторяется, пока объём уменьшается.
+     *
+     * @return - занятая память в байтах
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 10; i++) {
+            System.gc();
+            long now = runtime.totalMemory() - runtime.freeMemory();
+            if (now >= used) {
+                break;
+            }
+            used = now;
+        }
+        return used;
+    }
+
+    @Benchmark
+    public IntHashTable fillIntTable() {
+        IntHashTable table = new IntHashTable();
+        for (int key : keys) {
+            table.put(key, key);
+        }
+        return table;
+    }
+
+    @Benchmark
+    public HashTable<Integer, Integer> fillHashTable() {
+        HashTable<Integer, Integer> table = new HashTable<>();
+        for (int key : keys) {
+            table.put(key, key);
+        }
+        return table;
+    }
+
+    @Benchmark
+    public HashMap<Integer, Integer> fillHashMap() {
+        HashMap<Integer, Integer> map = new HashMap<>();
+        for (int key : keys) {
+            map.put(key, key);
+        }
+        return map;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1024)
+    public long getIntTable(Footprint footprint) {
+        long sum = 0;
+        for (int key : probes) {
+            sum += intTable.get(key);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1024)
+    public long getHashTable(Footprint footprint) {
+        long sum = 0;
+        for (int key : probes) {
+            sum += hashTable.get(key);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1024)
+    public long getHashMap(Footprint footprint) {
+        long sum = 0;
+        for (int key : probes) {
+            sum += hashMap.get(key);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,56 @@
+package ru.nsu.pivkin;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Распределение задержек put при росте таблицы от 10 до limit элементов.
+ * Режим SampleTime выводит перцентили (p0.99, p0.9999) и максимум,
+ * на которых видны паузы полного перехеширования.
+ * Каждая итерация начинается с пустой таблицы; после limit ключей вставки
+ * продолжаются обновлениями, чтобы таблица не росла дальше.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 1, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class ResizeLatencyBenchmark {
+    @Param({"false", "true"})
+    boolean incremental;
+
+    @Param({"50000000"})
+    int limit;
+
+    HashTable<Integer, Integer> table;
+    int next;
+
+    /**
+     * Создает пустую таблицу перед каждой итерацией.
+     */
+    @Setup(Level.Iteration)
+    public void setup() {
+        table = new HashTable<>(incremental);
+        next = 0;
+    }
+
+    @Benchmark
+    public Integer put() {
+        if (next == limit) {
+            next = 0;
+        }
+        return table.put(next, next++);
+    }
+}
@@ -0,0 +1,844 @@
+package ru.nsu.pivkin;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * Ограниченный кэш поверх {@link HashTable}: таблица служит индексом, а порядок
+ * вытеснения хранится в интрузивных двусвязных списках прямо в записях кэша.
+ * Поддерживаемые операции:
+ *      Получение значения с учётом статистики (get);
+ *      Получение или вычисление отсутствующего значения (getOrCompute);
+ *      Добавление и удаление (put, remove);
+ *      Удаление устаревших записей (cleanUp);
+ *      Счётчики попаданий, промахов и вытеснений (stats).
+ * Политики вытеснения:
+ *      LRU - вытесняется давно не использованная запись;
+ *      LFU - вытесняется запись с наименьшим числом обращений (O(1), списки частот);
+ *      W_TINY_LFU - небольшое LRU-окно (1%) и сегментированный LRU основной области,
+ *          куда запись допускается, только если по скетчу частот она популярнее жертвы.
+ * Ограничение задаётся числом записей или суммарным весом. Записи могут устаревать
+ * через заданное время после записи и/или последнего обращения; устаревшие записи
+ * удаляются при обращении к ним и при вызове cleanUp и считаются вытесненными.
+ * Кроме узла таблицы на запись приходится один объект с двумя ссылками списка
+ * и двумя отметками времени. Кэш не потокобезопасен, null ключи и значения запрещены.
+ * Создаётся через {@link Builder}.
+ *
+ * @param <K> - тип ключей
+ * @param <V> - тип значений
+ */
+public final class BoundedCache<K, V> {
+    private static final byte WINDOW = 0;
+    private static final byte PROBATION = 1;
+    private static final byte PROTECTED = 2;
+    private static final long INITIAL_SKETCH = 64;
+
+    private final HashTable<K, Entry<K, V>> index = new HashTable<>();
+    private final Policy policy;
+    private final long maximumWeight;
+    private final boolean weighted;
+    private final ToIntBiFunction<? super K, ? super V> weigher;
+    private final long expireAfterWrite;
+    private final long expireAfterAccess;
+    private final LongSupplier ticker;
+
+    private final LinkedDeque<K, V> window = new LinkedDeque<>();
+    private final LinkedDeque<K, V> probation = new LinkedDeque<>();
+    private final LinkedDeque<K, V> protect = new LinkedDeque<>();
+    private final FrequencySketch sketch;
+    private final long windowMaximum;
+    private final long protectedMaximum;
+    private FrequencyNode<K, V> lowestFrequency;
+
+    private long weight;
+    private long windowWeight;
+    private long protectedWeight;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Политика вытеснения.
+     */
+    public enum Policy {
+        LRU,
+        LFU,
+        W_TINY_LFU
+    }
+
+    /**
+     * Снимок счётчиков кэша.
+     *
+     * @param hits - число попаданий
+     * @param misses - число промахов
+     * @param evictions - число вытесненных и устаревших записей
+     */
+    public record Stats(long hits, long misses, long evictions) {
+        /**
+         * Доля попаданий среди всех обращений.
+         *
+         * @return - число от 0 до 1; 1, если обращений не было
+         */
+        public double hitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 1.0 : (double) hits / requests;
+        }
+    }
+
+    private BoundedCache(Builder<K, V> builder) {
+        this.policy = builder.policy;
+        this.maximumWeight = builder.maximumWeight;
+        this.weighted = builder.weighted;
+        this.weigher = builder.weigher;
+        this.expireAfterWrite = builder.expireAfterWrite;
+        this.expireAfterAccess = builder.expireAfterAccess;
+        this.ticker = builder.ticker;
+
+        if (policy == Policy.W_TINY_LFU) {
+            windowMaximum = Math.max(1, maximumWeight / 100);
+            protectedMaximum = (maximumWeight - windowMaximum) * 4 / 5;
+            sketch = new FrequencySketch();
+            sketch.ensureCapacity(weighted
+                ? Math.min(maximumWeight, INITIAL_SKETCH)
+                : maximumWeight);
+        } else {
+            windowMaximum = 0;
+            protectedMaximum = 0;
+            sketch = null;
+        }
+    }
+
+    /**
+     * Получает значение по ключу, учитывая обращение в статистике и порядке вытеснения.
+     *
+     * @param key - ключ
+     * @return - значение, либо null, если ключа нет или запись устарела
+     */
+    public V get(K key) {
+        Entry<K, V> entry = lookup(key);
+        return entry != null ? entry.value : null;
+    }
+
+    /**
+     * Получает значение по ключу, а при промахе вычисляет его и кладёт в кэш.
+     * Если функция вернула null, кэш не меняется.
+     *
+     * @param key - ключ
+     * @param loader - функция вычисления значения
+     * @return - значение из кэша или вычисленное значение
+     */
+    public V getOrCompute(K key, Function<? super K, ? extends V> loader) {
+        Entry<K, V> entry = lookup(key);
+        if (entry != null) {
+            return entry.value;
+        }
+
+        V value = loader.apply(key);
+        if (value != null) {
+            store(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Добавляет пару в кэш, при необходимости вытесняя другие записи.
+     * Запись тяжелее всего кэша не сохраняется и считается вытесненной.
+     *
+     * @param key - ключ
+     * @param value - значение
+     * @return - старое значение, либо null
+     */
+    public V put(K key, V value) {
+        Objects.requireNonNull(key);
+        if (sketch != null) {
+            sketch.increment(key.hashCode());
+        }
+        return store(key, value);
+    }
+
+    /**
+     * Удаляет запись по ключу.
+     *
+     * @param key - ключ
+     * @return - удалённое значение, либо null
+     */
+    public V remove(K key) {
+        Entry<K, V> entry = index.remove(key);
+        if (entry == null) {
+            return null;
+        }
+
+        unlink(entry);
+        return entry.value;
+    }
+
+    /**
+     * Проверяет наличие неустаревшей записи, не меняя статистику и порядок вытеснения.
+     *
+     * @param key - ключ
+     * @return - true, если запись есть
+     */
+    public boolean containsKey(K key) {
+        Entry<K, V> entry = index.get(key);
+        return entry != null && !isExpired(entry, now());
+    }
+
+    /**
+     * Возвращает количество записей (включая устаревшие, но ещё не удалённые).
+     *
+     * @return - количество записей
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Возвращает суммарный вес записей.
+     *
+     * @return - вес
+     */
+    public long weight() {
+        return weight;
+    }
+
+    /**
+     * Возвращает текущие значения счётчиков.
+     *
+     * @return - статистика кэша
+     */
+    public Stats stats() {
+        return new Stats(hits, misses, evictions);
+    }
+
+    /**
+     * Удаляет все устаревшие записи.
+     */
+    public void cleanUp() {
+        if (expireAfterWrite == 0 && expireAfterAccess == 0) {
+            return;
+        }
+
+        long now = now();
+        int before = index.size();
+        index.removeIf((key, entry) -> {
+            if (isExpired(entry, now)) {
+                unlink(entry);
+                return true;
+            }
+            return false;
+        });
+        evictions += before - index.size();
+    }
+
+    /**
+     * Кладёт пару в кэш; обращение к ключу уже учтено в скетче частот.
+     *
+     * @param key - ключ
+     * @param value - значение
+     * @return - старое значение, либо null
+     */
+    private V store(K key, V value) {
+        Objects.requireNonNull(value);
+
+        int entryWeight = weigher.applyAsInt(key, value);
+        if (entryWeight < 0) {
+            throw new IllegalArgumentException("Negative weight: " + entryWeight);
+        }
+
+        long now = now();
+        Entry<K, V> entry = index.get(key);
+
+        if (entry != null) {
+            V old = entry.value;
+            entry.value = value;
+            entry.writeTime = now;
+            entry.accessTime = now;
+            reweigh(entry, entryWeight);
+            onAccess(entry);
+            evict();
+            return old;
+        }
+
+        if (entryWeight > maximumWeight) {
+            evictions++;
+            return null;
+        }
+
+        entry = new Entry<>(key, value, entryWeight, now);
+        if (policy != Policy.W_TINY_LFU) {
+            evict(maximumWeight - entryWeight);
+        }
+
+        index.put(key, entry);
+        weight += entryWeight;
+        if (weighted && sketch != null) {
+            sketch.ensureCapacity(index.size());
+        }
+        onInsert(entry);
+        evict();
+        return null;
+    }
+
+    /**
+     * Ищет запись, учитывая попадание или промах и удаляя устаревшую запись.
+     *
+     * @param key - ключ
+     * @return - запись, либо null
+     */
+    private Entry<K, V> lookup(K key) {
+        Objects.requireNonNull(key);
+        if (sketch != null) {
+            sketch.increment(key.hashCode());
+        }
+
+        Entry<K, V> entry = index.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+
+        long now = now();
+        if (isExpired(entry, now)) {
+            index.remove(key);
+            unlink(entry);
+            evictions++;
+            misses++;
+            return null;
+        }
+
+        hits++;
+        entry.accessTime = now;
+        onAccess(entry);
+        return entry;
+    }
+
+    /**
+     * Ставит новую запись в структуры политики вытеснения.
+     *
+     * @param entry - запись
+     */
+    private void onInsert(Entry<K, V> entry) {
+        switch (policy) {
+            case LRU -> {
+                entry.region = PROBATION;
+                probation.addLast(entry);
+            }
+            case LFU -> {
+                FrequencyNode<K, V> node = lowestFrequency;
+                if (node == null || node.count != 1) {
+                    node = new FrequencyNode<>(1);
+                    node.next = lowestFrequency;
+                    if (lowestFrequency != null) {
+                        lowestFrequency.prev = node;
+                    }
+                    lowestFrequency = node;
+                }
+                entry.frequency = node;
+                node.entries.addLast(entry);
+            }
+            default -> {
+                entry.region = WINDOW;
+                window.addLast(entry);
+                windowWeight += entry.weight;
+            }
+        }
+    }
+
+    /**
+     * Учитывает обращение к записи в порядке вытеснения.
+     *
+     * @param entry - запись
+     */
+    private void onAccess(Entry<K, V> entry) {
+        switch (policy) {
+            case LRU -> probation.moveToEnd(entry);
+            case LFU -> incrementFrequency(entry);
+            default -> {
+                if (entry.region == WINDOW) {
+                    window.moveToEnd(entry);
+                } else if (entry.region == PROTECTED) {
+                    protect.moveToEnd(entry);
+                } else {
+                    probation.remove(entry);
+                    entry.region = PROTECTED;
+                    protect.addLast(entry);
+                    protectedWeight += entry.weight;
+                    demoteProtected();
+                }
+            }
+        }
+    }
+
+    /**
+     * Переносит запись LFU в список следующей частоты.
+     *
+     * @param entry - запись
+     */
+    private void incrementFrequency(Entry<K, V> entry) {
+        FrequencyNode<K, V> current = entry.frequency;
+        FrequencyNode<K, V> next = current.next;
+
+        if (next == null || next.count != current.count + 1) {
+            next = new FrequencyNode<>(current.count + 1);
+            next.prev = current;
+            next.next = current.next;
+            if (current.next != null) {
+                current.next.prev = next;
+            }
+            current.next = next;
+        }
+
+        current.entries.remove(entry);
+        next.entries.addLast(entry);
+        entry.frequency = next;
+
+        if (current.entries.isEmpty()) {
+            unlinkFrequency(current);
+        }
+    }
+
+    /**
+     * Удаляет пустой список частоты LFU.
+     *
+     * @param node - список частоты
+     */
+    private void unlinkFrequency(FrequencyNode<K, V> node) {
+        if (node.prev != null) {
+            node.prev.next = node.next;
+        } else {
+            lowestFrequency = node.next;
+        }
+
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        }
+    }
+
+    /**
+     * Переводит самые старые записи защищённой области в испытательную,
+     * пока защищённая область превышает свою долю.
+     */
+    private void demoteProtected() {
+        while (protectedWeight > protectedMaximum) {
+            Entry<K, V> eldest = protect.first();
+            protect.remove(eldest);
+            protectedWeight -= eldest.weight;
+            eldest.region = PROBATION;
+            probation.addLast(eldest);
+        }
+    }
+
+    /**
+     * Изменяет вес записи.
+     *
+     * @param entry - запись
+     * @param entryWeight - новый вес
+     */
+    private void reweigh(Entry<K, V> entry, int entryWeight) {
+        int delta = entryWeight - entry.weight;
+        entry.weight = entryWeight;
+        weight += delta;
+
+        if (policy == Policy.W_TINY_LFU) {
+            if (entry.region == WINDOW) {
+                windowWeight += delta;
+            } else if (entry.region == PROTECTED) {
+                protectedWeight += delta;
+            }
+        }
+    }
+
+    /**
+     * Вытесняет записи, пока вес кэша превышает максимум.
+     */
+    private void evict() {
+        if (policy == Policy.W_TINY_LFU) {
+            evictTinyLfu();
+        } else {
+            evict(maximumWeight);
+        }
+    }
+
+    /**
+     * Вытесняет записи LRU или LFU, пока вес кэша превышает limit.
+     *
+     * @param limit - допустимый вес
+     */
+    private void evict(long limit) {
+        while (weight > limit) {
+            Entry<K, V> victim = policy == Policy.LRU
+                ? probation.first()
+                : lowestFrequency.entries.first();
+            evict(victim);
+        }
+    }
+
+    /**
+     * Переполнение окна уходит в испытательную область; затем, пока кэш переполнен,
+     * кандидат из окна сравнивается по частоте с самой старой испытательной записью,
+     * и вытесняется менее популярная из них.
+     */
+    private void evictTinyLfu() {
+        Entry<K, V> candidate = null;
+
+        while (windowWeight > windowMaximum) {
+            Entry<K, V> eldest = window.first();
+            window.remove(eldest);
+            windowWeight -= eldest.weight;
+            eldest.region = PROBATION;
+            probation.addLast(eldest);
+            if (candidate == null) {
+                candidate = eldest;
+            }
+        }
+
+        while (weight > maximumWeight) {
+            Entry<K, V> victim = probation.first();
+            if (victim == null) {
+                victim = protect.first() != null ? protect.first() : window.first();
+            }
+
+            if (candidate == null || candidate == victim) {
+                if (candidate == victim) {
+                    candidate = probation.next(candidate);
+                }
+                evict(victim);
+            } else if (sketch.frequency(candidate.key.hashCode())
+                    > sketch.frequency(victim.key.hashCode())) {
+                evict(victim);
+            } else {
+                Entry<K, V> next = probation.next(candidate);
+                evict(candidate);
+                candidate = next;
+            }
+        }
+    }
+
+    /**
+     * Удаляет запись из кэша как вытесненную.
+     *
+     * @param victim - запись
+     */
+    private void evict(Entry<K, V> victim) {
+        index.remove(victim.key);
+        unlink(victim);
+        evictions++;
+    }
+
+    /**
+     * Убирает запись из структур политики вытеснения и из учёта веса.
+     *
+     * @param entry - запись
+     */
+    private void unlink(Entry<K, V> entry) {
+        weight -= entry.weight;
+
+        if (policy == Policy.LFU) {
+            FrequencyNode<K, V> node = entry.frequency;
+            node.entries.remove(entry);
+            if (node.entries.isEmpty()) {
+                unlinkFrequency(node);
+            }
+            return;
+        }
+
+        switch (entry.region) {
+            case WINDOW -> {
+                window.remove(entry);
+                windowWeight -= entry.weight;
+            }
+            case PROTECTED -> {
+                protect.remove(entry);
+                protectedWeight -= entry.weight;
+            }
+            default -> probation.remove(entry);
+        }
+    }
+
+    /**
+     * Проверяет, устарела ли запись.
+     *
+     * @param entry - запись
+     * @param now - текущее время в наносекундах
+     * @return - true, если запись устарела
+     */
+    private boolean isExpired(Entry<K, V> entry, long now) {
+        return expireAfterWrite > 0 && now - entry.writeTime >= expireAfterWrite
+            || expireAfterAccess > 0 && now - entry.accessTime >= expireAfterAccess;
+    }
+
+    /**
+     * Возвращает текущее время; часы не опрашиваются, если устаревание выключено.
+     *
+     * @return - время в наносекундах
+     */
+    private long now() {
+        return expireAfterWrite > 0 || expireAfterAccess > 0 ? ticker.getAsLong() : 0;
+    }
+
+    /**
+     * Строитель кэша. Обязательно задать maximumSize или maximumWeight.
+     *
+     * @param <K> - тип ключей
+     * @param <V> - тип значений
+     */
+    public static final class Builder<K, V> {
+        private Policy policy = Policy.W_TINY_LFU;
+        private long maximumWeight = -1;
+        private ToIntBiFunction<? super K, ? super V> weigher = (k, v) -> 1;
+        private boolean weighted;
+        private long expireAfterWrite;
+        private long expireAfterAccess;
+        private LongSupplier ticker = System::nanoTime;
+
+        /**
+         * Ограничивает кэш числом записей.
+         *
+         * @param maximumSize - максимальное число записей
+         * @return - этот Builder для цепочки вызовов
+         * @throws IllegalArgumentException - если maximumSize не положителен
+         */
+        public Builder<K, V> maximumSize(long maximumSize) {
+            maximumWeight(maximumSize, (k, v) -> 1);
+            weighted = false;
+            return this;
+        }
+
+        /**
+         * Ограничивает кэш суммарным весом записей.
+         *
+         * @param maximumWeight - максимальный суммарный вес
+         * @param weigher - вес пары, неотрицательное число
+         * @return - этот Builder для цепочки вызовов
+         * @throws IllegalArgumentException - если maximumWeight не положителен
+         */
+        public Builder<K, V> maximumWeight(long maximumWeight,
+                                           ToIntBiFunction<? super K, ? super V> weigher) {
+            if (maximumWeight <= 0) {
+                throw new IllegalArgumentException("Maximum must be positive: " + maximumWeight);
+            }
+
+            this.maximumWeight = maximumWeight;
+            this.weigher = Objects.requireNonNull(weigher);
+            this.weighted = true;
+            return this;
+        }
+
+        /**
+         * Задаёт политику вытеснения (по умолчанию W_TINY_LFU).
+         *
+         * @param policy - политика
+         * @return - этот Builder для цепочки вызовов
+         */
+        public Builder<K, V> policy(Policy policy) {
+            this.policy = Objects.requireNonNull(policy);
+            return this;
+        }
+
+        /**
+         * Записи устаревают через заданное время после добавления или замены значения.
+         *
+         * @param duration - время жизни, положительное
+         * @return - этот Builder для цепочки вызовов
+         * @throws IllegalArgumentException - если duration не положительно
+         */
+        public Builder<K, V> expireAfterWrite(Duration duration) {
+            this.expireAfterWrite = positiveNanos(duration);
+            return this;
+        }
+
+        /**
+         * Записи устаревают через заданное время после последнего обращения.
+         *
+         * @param duration - время жизни, положительное
+         * @return - этот Builder для цепочки вызовов
+         * @throws IllegalArgumentException - если duration не положительно
+         */
+        public Builder<K, V> expireAfterAccess(Duration duration) {
+            this.expireAfterAccess = positiveNanos(duration);
+            return this;
+        }
+
+        /**
+         * Задаёт источник времени в наносекундах (по умолчанию System.nanoTime).
+         *
+         * @param ticker - источник времени
+         * @return - этот Builder для цепочки вызовов
+         */
+        public Builder<K, V> ticker(LongSupplier ticker) {
+            this.ticker = Objects.requireNonNull(ticker);
+            return this;
+        }
+
+        /**
+         * Создает кэш на основе текущей конфигурации Builder.
+         *
+         * @return - новый кэш
+         * @throws IllegalStateException - если не задан максимальный размер или вес
+         */
+        public BoundedCache<K, V> build() {
+            if (maximumWeight < 0) {
+                throw new IllegalStateException("Maximum size or weight required");
+            }
+
+            return new BoundedCache<>(this);
+        }
+
+        private static long positiveNanos(Duration duration) {
+            if (duration.isNegative() || duration.isZero()) {
+                throw new IllegalArgumentException("Duration must be positive: " + duration);
+            }
+            return duration.toNanos();
+        }
+    }
+
+    /**
+     * Запись кэша - узел интрузивного двусвязного списка.
+     */
+    private static final class Entry<K, V> {
+        final K key;
+        V value;
+        int weight;
+        byte region;
+        long writeTime;
+        long accessTime;
+        Entry<K, V> prev;
+        Entry<K, V> next;
+        FrequencyNode<K, V> frequency;
+
+        Entry(K key, V value, int weight, long now) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.writeTime = now;
+            this.accessTime = now;
+        }
+    }
+
+    /**
+     * Двусвязный список записей с фиктивной головой: от самой старой к самой новой.
+     */
+    private static final class LinkedDeque<K, V> {
+        private final Entry<K, V> head = new Entry<>(null, null, 0, 0);
+
+        LinkedDeque() {
+            head.prev = head;
+            head.next = head;
+        }
+
+        boolean isEmpty() {
+            return head.next == head;
+        }
+
+        Entry<K, V> first() {
+            return head.next != head ? head.next : null;
+        }
+
+        Entry<K, V> next(Entry<K, V> entry) {
+            return entry.next != head ? entry.next : null;
+        }
+
+        void addLast(Entry<K, V> entry) {
+            entry.prev = head.prev;
+            entry.next = head;
+            head.prev.next = entry;
+            head.prev = entry;
+        }
+
+        void remove(Entry<K, V> entry) {
+            entry.prev.next = entry.next;
+            entry.next.prev = entry.prev;
+            entry.prev = null;
+            entry.next = null;
+        }
+
+        void moveToEnd(Entry<K, V> entry) {
+            if (head.prev != entry) {
+                remove(entry);
+                addLast(entry);
+            }
+        }
+    }
+
+    /**
+     * Список записей LFU с одинаковым числом обращений; списки упорядочены по возрастанию.
+     */
+    private static final class FrequencyNode<K, V> {
+        final long count;
+        final LinkedDeque<K, V> entries = new LinkedDeque<>();
+        FrequencyNode<K, V> prev;
+        FrequencyNode<K, V> next;
+
+        FrequencyNode(long count) {
+            this.count = count;
+        }
+    }
+
+    /**
+     * Приближённый счётчик частот (count-min sketch) с 4-битными счётчиками
+     * по 16 в одном long. Размер таблицы и период старения считаются от ожидаемого числа
+     * записей: после 10 * expected увеличений все счётчики делятся пополам, чтобы старая
+     * популярность постепенно забывалась. При ограничении числом записей оно известно
+     * сразу, а при ограничении весом таблица растёт вместе с size(), как в Caffeine.
+     */
+    private static final class FrequencySketch {
+        private static final int[] SEEDS = {0x97cb3127, 0xc2b2ae35, 0x27d4eb2f, 0x165667b1};
+        private static final long HALF_MASK = 0x7777777777777777L;
+
+        private long[] table = new long[0];
+        private int mask;
+        private long sampleSize;
+        private long additions;
+
+        /**
+         * Увеличивает таблицу под expected записей; при увеличении счётчики обнуляются.
+         *
+         * @param expected - ожидаемое число записей
+         */
+        void ensureCapacity(long expected) {
+            int length = (int) Math.min(1 << 24, Math.max(8, expected / 2));
+            length = Integer.highestOneBit(length - 1) << 1;
+            if (length <= table.length) {
+                return;
+            }
+
+            table = new long[length];
+            mask = length - 1;
+            sampleSize = 10 * expected;
+            additions = 0;
+        }
+
+        int frequency(int hash) {
+            int min = 15;
+            for (int seed : SEEDS) {
+                int h = PrimitiveHashing.mix(hash ^ seed);
+                int count = (int) (table[(h >>> 4) & mask] >>> ((h & 15) << 2)) & 15;
+                min = Math.min(min, count);
+            }
+            return min;
+        }
+
+        void increment(int hash) {
+            boolean added = false;
+            for (int seed : SEEDS) {
+                int h = PrimitiveHashing.mix(hash ^ seed);
+                int slot = (h >>> 4) & mask;
+                int shift = (h & 15) << 2;
+                if (((table[slot] >>> shift) & 15) < 15) {
+                    table[slot] += 1L << shift;
+                    added = true;
+                }
+            }
+
+            if (added && ++additions >= sampleSize) {
+                for (int i = 0; i < table.length; i++) {
+                    table[i] = (table[i] >>> 1) & HALF_MASK;
+                }
+                additions /= 2;
+            }
+        }
+    }
+}
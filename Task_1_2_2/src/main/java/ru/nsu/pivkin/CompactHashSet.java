@@ -0,0 +1,433 @@
+package ru.nsu.pivkin;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Компактное хеш-множество в духе Swiss table.
+ * В отличие от {@link HashTable} с фиктивными значениями не хранит значение и не создаёт
+ * узел на каждый элемент: на ячейку приходятся ссылка на ключ и один управляющий байт.
+ * Управляющий байт пустой ячейки - EMPTY, удалённой - DELETED, а занятой - 7 младших
+ * бит хеша ключа. Поиск пробирует группы по 8 ячеек: байты группы читаются одним long,
+ * и совпадения с 7 битами хеша находятся побитовыми операциями, так что equals
+ * вызывается почти только для нужного ключа. Группы перебираются треугольными шагами.
+ * Поддерживаемые операции:
+ *      Добавление элемента (add, addAll);
+ *      Удаление элемента (remove);
+ *      Проверка наличия элемента (contains);
+ *      Объединение и пересечение (union, intersection);
+ *      Итерирование по элементам с защитой от внешних изменений;
+ *      Сравнение на равенство (equals).
+ * null элементы не поддерживаются.
+ *
+ * @param <K> - тип элементов
+ */
+public class CompactHashSet<K> implements Iterable<K> {
+    private static final int GROUP = Long.BYTES;
+    private static final byte EMPTY = (byte) 0x80;
+    private static final byte DELETED = (byte) 0xFE;
+    private static final long LSB = 0x0101010101010101L;
+    private static final long MSB = 0x8080808080808080L;
+    private static final VarHandle GROUP_VIEW =
+        MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private Object[] keys;
+    private byte[] control;
+    private int mask;
+    private int growthLeft;
+    private int size;
+    private int modifications;
+
+    /**
+     * Создает пустое множество с начальной емкостью.
+     */
+    public CompactHashSet() {
+        this(0);
+    }
+
+    /**
+     * Создает пустое множество, рассчитанное на заданное число элементов без расширения.
+     *
+     * @param expected - ожидаемое количество элементов
+     * @throws IllegalArgumentException - если expected отрицательно
+     */
+    public CompactHashSet(int expected) {
+        allocate(PrimitiveHashing.tableSize(expected));
+    }
+
+    /**
+     * Добавляет элемент в множество.
+     *
+     * @param key - элемент
+     * @return - true, если элемента ещё не было
+     * @throws NullPointerException - если key равен null
+     */
+    public boolean add(K key) {
+        Objects.requireNonNull(key);
+        int hash = PrimitiveHashing.mix(key.hashCode());
+        if (find(key, hash) >= 0) {
+            return false;
+        }
+
+        if (growthLeft == 0) {
+            rehash();
+        }
+
+        insert(key, hash);
+        modifications++;
+        size++;
+        return true;
+    }
+
+    /**
+     * Добавляет все элементы.
+     *
+     * @param elements - добавляемые элементы
+     * @return - true, если множество изменилось
+     */
+    public boolean addAll(Iterable<? extends K> elements) {
+        boolean changed = false;
+        for (K key : elements) {
+            changed |= add(key);
+        }
+        return changed;
+    }
+
+    /**
+     * Удаляет элемент из множества.
+     *
+     * @param key - элемент
+     * @return - true, если элемент был в множестве
+     */
+    public boolean remove(Object key) {
+        int idx = key != null ? find(key, PrimitiveHashing.mix(key.hashCode())) : -1;
+        if (idx < 0) {
+            return false;
+        }
+
+        setControl(idx, DELETED);
+        keys[idx] = null;
+        modifications++;
+        size--;
+        return true;
+    }
+
+    /**
+     * Проверяет наличие элемента.
+     *
+     * @param key - элемент
+     * @return - true, если элемент есть в множестве
+     */
+    public boolean contains(Object key) {
+        return key != null && find(key, PrimitiveHashing.mix(key.hashCode())) >= 0;
+    }
+
+    /**
+     * Возвращает количество элементов.
+     *
+     * @return - количество элементов
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Возвращает новое множество из элементов обоих множеств.
+     *
+     * @param other - другое множество
+     * @return - объединение
+     */
+    public CompactHashSet<K> union(CompactHashSet<? extends K> other) {
+        CompactHashSet<K> res = new CompactHashSet<>(size + other.size);
+        res.addAll(this);
+        res.addAll(other);
+        return res;
+    }
+
+    /**
+     * Возвращает новое множество из элементов, общих для обоих множеств.
+     * Перебирается меньшее из множеств.
+     *
+     * @param other - другое множество
+     * @return - пересечение
+     */
+    @SuppressWarnings("unchecked")
+    public CompactHashSet<K> intersection(CompactHashSet<?> other) {
+        CompactHashSet<K> res = new CompactHashSet<>(Math.min(size, other.size));
+        CompactHashSet<?> smaller = size <= other.size ? this : other;
+        CompactHashSet<?> larger = smaller == this ? other : this;
+
+        for (int i = 0; i <= smaller.mask; i++) {
+            if (smaller.control[i] >= 0) {
+                Object key = smaller.keys[i];
+                int hash = PrimitiveHashing.mix(key.hashCode());
+                int idx = larger.find(key, hash);
+                if (idx >= 0) {
+                    res.insert((K) (larger == this ? keys[idx] : key), hash);
+                    res.size++;
+                }
+            }
+        }
+
+        return res;
+    }
+
+    /**
+     * Возвращает строковое представление множества в виде: [элемент, элемент, ...]
+     *
+     * @return - строковое представление всех элементов
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        boolean first = true;
+
+        for (int i = 0; i <= mask; i++) {
+            if (control[i] < 0) {
+                continue;
+            }
+
+            if (!first) {
+                sb.append(", ");
+            }
+
+            sb.append(keys[i]);
+            first = false;
+        }
+
+        sb.append("]");
+        return sb.toString();
+    }
+
+    /**
+     * Возвращает итератор по элементам множества.
+     *
+     * @return - итератор по элементам
+     * @throws ConcurrentModificationException - при изменении множества
+     * @throws NoSuchElementException - если элементы закончились
+     */
+    @Override
+    public Iterator<K> iterator() {
+        return new Iterator<>() {
+            int elem = advance(0);
+            final int expected = modifications;
+
+            private int advance(int from) {
+                while (from <= mask && control[from] < 0) {
+                    from++;
+                }
+                return from;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return elem <= mask;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public K next() {
+                if (expected != modifications) {
+                    throw new ConcurrentModificationException();
+                }
+
+                if (elem > mask) {
+                    throw new NoSuchElementException();
+                }
+
+                K key = (K) keys[elem];
+                elem = advance(elem + 1);
+                return key;
+            }
+        };
+    }
+
+    /**
+     * Сравнивает множество с другим: множества равны, если содержат одни и те же элементы.
+     *
+     * @param o - объект для сравнения
+     * @return true, если множества равны, иначе false
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (!(o instanceof CompactHashSet<?> other) || size != other.size) {
+            return false;
+        }
+
+        for (int i = 0; i <= mask; i++) {
+            if (control[i] >= 0 && !other.contains(keys[i])) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Вычисляет хеш-код множества - сумму хеш-кодов элементов.
+     *
+     * @return - хеш-код множества
+     */
+    @Override
+    public int hashCode() {
+        int h = 0;
+        for (int i = 0; i <= mask; i++) {
+            if (control[i] >= 0) {
+                h += keys[i].hashCode();
+            }
+        }
+        return h;
+    }
+
+    /**
+     * Средняя длина пробирования: сколько групп просматривается до группы с элементом.
+     *
+     * @return - среднее число групп на элемент, 0 для пустого множества
+     */
+    double averageProbeLength() {
+        long total = 0;
+
+        for (int i = 0; i <= mask; i++) {
+            if (control[i] < 0) {
+                continue;
+            }
+
+            int pos = (PrimitiveHashing.mix(keys[i].hashCode()) >>> 7) & mask;
+            int stride = 0;
+            int probes = 1;
+            while (((i - pos) & mask) >= GROUP) {
+                stride += GROUP;
+                pos = (pos + stride) & mask;
+                probes++;
+            }
+            total += probes;
+        }
+
+        return size == 0 ? 0 : (double) total / size;
+    }
+
+    /**
+     * Ищет ячейку с элементом.
+     *
+     * @param key - элемент
+     * @param hash - перемешанный хеш элемента
+     * @return - индекс ячейки, либо -1, если элемент не найден
+     */
+    private int find(Object key, int hash) {
+        long pattern = LSB * (hash & 0x7F);
+        int pos = (hash >>> 7) & mask;
+        int stride = 0;
+
+        while (true) {
+            long group = (long) GROUP_VIEW.get(control, pos);
+
+            long x = group ^ pattern;
+            for (long m = (x - LSB) & ~x & MSB; m != 0; m &= m - 1) {
+                int idx = (pos + (Long.numberOfTrailingZeros(m) >>> 3)) & mask;
+                Object k = keys[idx];
+                if (k == key || k != null && k.equals(key)) {
+                    return idx;
+                }
+            }
+
+            if ((group & (~group << 6) & MSB) != 0) {
+                return -1;
+            }
+
+            stride += GROUP;
+            pos = (pos + stride) & mask;
+        }
+    }
+
+    /**
+     * Кладёт заведомо отсутствующий элемент в первую пустую или удалённую ячейку.
+     *
+     * @param key - элемент
+     * @param hash - перемешанный хеш элемента
+     */
+    private void insert(Object key, int hash) {
+        int pos = (hash >>> 7) & mask;
+        int stride = 0;
+
+        while (true) {
+            long group = (long) GROUP_VIEW.get(control, pos);
+            long free = group & ~(group << 7) & MSB;
+
+            if (free != 0) {
+                int idx = (pos + (Long.numberOfTrailingZeros(free) >>> 3)) & mask;
+                if (control[idx] == EMPTY) {
+                    growthLeft--;
+                }
+
+                setControl(idx, (byte) (hash & 0x7F));
+                keys[idx] = key;
+                return;
+            }
+
+            stride += GROUP;
+            pos = (pos + stride) & mask;
+        }
+    }
+
+    /**
+     * Записывает управляющий байт; первые GROUP байт продублированы в конце массива,
+     * чтобы группу у конца таблицы можно было прочитать одним long.
+     *
+     * @param idx - индекс ячейки
+     * @param value - управляющий байт
+     */
+    private void setControl(int idx, byte value) {
+        control[idx] = value;
+        if (idx < GROUP) {
+            control[mask + 1 + idx] = value;
+        }
+    }
+
+    /**
+     * Выделяет пустые массивы заданного размера.
+     *
+     * @param capacity - количество ячеек (степень двойки, не меньше GROUP)
+     */
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        control = new byte[capacity + GROUP];
+        Arrays.fill(control, EMPTY);
+        mask = capacity - 1;
+        growthLeft = PrimitiveHashing.threshold(capacity);
+    }
+
+    /**
+     * Перестраивает таблицу, когда закончились пустые ячейки: если большая их часть
+     * занята удалёнными элементами, размер сохраняется, иначе удваивается.
+     */
+    private void rehash() {
+        int capacity = mask + 1;
+        if (size >= PrimitiveHashing.threshold(capacity) / 2) {
+            if (capacity >= PrimitiveHashing.MAX_CAPACITY) {
+                throw new IllegalStateException("Set is full");
+            }
+            capacity *= 2;
+        }
+
+        Object[] oldKeys = keys;
+        byte[] oldControl = control;
+        allocate(capacity);
+        modifications++;
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldControl[i] >= 0) {
+                insert(oldKeys[i], PrimitiveHashing.mix(oldKeys[i].hashCode()));
+            }
+        }
+    }
+}
@@ -0,0 +1,574 @@
+package ru.nsu.pivkin;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiFunction;
+
+/**
+ * Потокобезопасная параметризованная хеш-таблица.
+ * Ключи распределяются по независимым сегментам, у каждого из которых своя
+ * блокировка и свой массив цепочек. Операции записи блокируют только свой сегмент,
+ * чтение выполняется без блокировок: узлы цепочек неизменяемы (кроме значения),
+ * а массив корзин публикуется через volatile-ссылку.
+ * Расширение тоже выполняется посегментно тем писателем, который переполнил сегмент,
+ * поэтому ни один поток не перехеширует всю таблицу целиком. Сегмент перехешируется
+ * за один проход под своей блокировкой: на это время (линейное от размера сегмента)
+ * останавливаются писатели только этого сегмента, читатели и другие сегменты работают.
+ * Поддерживаемые операции:
+ *      Операции {@link HashTable}: put, remove, get, update, containsKey;
+ *      Атомарные putIfAbsent, compute и merge;
+ *      Слабо согласованное итерирование (без ConcurrentModificationException);
+ *      Сравнение на равенство (equals).
+ * В отличие от {@link HashTable}, ключи и значения не могут быть null.
+ *
+ * @param <K> - тип ключей
+ * @param <V> - тип значений
+ */
+public class ConcurrentHashTable<K, V> implements Iterable<Map.Entry<K, V>> {
+    private static final int DEFAULT_CONCURRENCY = 16;
+    private static final int MAX_SEGMENTS = 1 << 16;
+
+    private final Segment<K, V>[] segments;
+    private final int segmentShift;
+
+    /**
+     * Создает пустую таблицу с числом сегментов по умолчанию.
+     */
+    public ConcurrentHashTable() {
+        this(DEFAULT_CONCURRENCY);
+    }
+
+    /**
+     * Создает пустую таблицу, рассчитанную на заданное число одновременно пишущих потоков.
+     *
+     * @param concurrencyLevel - ожидаемое число пишущих потоков
+     * @throws IllegalArgumentException - если concurrencyLevel не положительно
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentHashTable(int concurrencyLevel) {
+        if (concurrencyLevel <= 0) {
+            throw new IllegalArgumentException("Concurrency level must be positive.");
+        }
+
+        int count = 1;
+        int shift = 0;
+        while (count < concurrencyLevel && count < MAX_SEGMENTS) {
+            count <<= 1;
+            shift++;
+        }
+
+        segmentShift = 32 - shift;
+        segments = (Segment<K, V>[]) new Segment<?, ?>[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment<>();
+        }
+    }
+
+    /**
+     * Добавляет пару ключ-значение в таблицу.
+     * Если ключ уже существует, значение обновляется.
+     *
+     * @param key - ключ
+     * @param value - значение
+     * @return - null, либо старое значение при обновлении
+     */
+    public V put(K key, V value) {
+        Objects.requireNonNull(value);
+        int hash = hash(key);
+        return segmentFor(hash).put(hash, key, value, false);
+    }
+
+    /**
+     * Атомарно добавляет пару, только если ключа ещё нет в таблице.
+     *
+     * @param key - ключ
+     * @param value - значение
+     * @return - null, если пара добавлена, либо текущее значение
+     */
+    public V putIfAbsent(K key, V value) {
+        Objects.requireNonNull(value);
+        int hash = hash(key);
+        return segmentFor(hash).put(hash, key, value, true);
+    }
+
+    /**
+     * Удаляет элемент по ключу.
+     *
+     * @param key - ключ
+     * @return - удалённое значение, либо null, если ключ не найден
+     */
+    public V remove(K key) {
+        int hash = hash(key);
+        return segmentFor(hash).remove(hash, key);
+    }
+
+    /**
+     * Получает значение по ключу без блокировок.
+     *
+     * @param key - ключ
+     * @return - значение по ключу, либо null, если ключ не найден
+     */
+    public V get(K key) {
+        return getRaw(key);
+    }
+
+    /**
+     * Обновляет значение для существующего ключа.
+     *
+     * @param key - ключ
+     * @param value - новое значение
+     * @throws NoSuchElementException - если ключ не найден
+     */
+    public void update(K key, V value) {
+        Objects.requireNonNull(value);
+        int hash = hash(key);
+        if (!segmentFor(hash).replace(hash, key, value)) {
+            throw new NoSuchElementException("Key not found: " + key);
+        }
+    }
+
+    /**
+     * Проверяет наличие ключа в таблице.
+     *
+     * @param key - ключ
+     * @return - true если ключ существует, иначе false
+     */
+    public boolean containsKey(K key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Атомарно вычисляет новое значение по ключу и текущему значению (null, если ключа нет).
+     * Если функция вернула null, ключ удаляется.
+     *
+     * @param key - ключ
+     * @param remapping - функция пересчёта значения
+     * @return - новое значение, либо null, если ключ удалён или не был добавлен
+     */
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remapping) {
+        Objects.requireNonNull(remapping);
+        int hash = hash(key);
+        return segmentFor(hash).compute(hash, key, remapping);
+    }
+
+    /**
+     * Атомарно объединяет значение с уже имеющимся.
+     * Если ключа нет, добавляется value; иначе значение заменяется результатом функции,
+     * а при результате null ключ удаляется.
+     *
+     * @param key - ключ
+     * @param value - добавляемое значение
+     * @param remapping - функция объединения старого и нового значений
+     * @return - новое значение, либо null, если ключ удалён
+     */
+    public V merge(K key, V value,
+                   BiFunction<? super V, ? super V, ? extends V> remapping) {
+        Objects.requireNonNull(value);
+        Objects.requireNonNull(remapping);
+        return compute(key, (k, old) -> old == null ? value : remapping.apply(old, value));
+    }
+
+    /**
+     * Возвращает количество элементов в таблице.
+     * При одновременных изменениях результат является приблизительным.
+     *
+     * @return - количество пар ключ-значение
+     */
+    public int size() {
+        long sum = 0;
+        for (Segment<K, V> segment : segments) {
+            sum += segment.count;
+        }
+
+        return (int) Math.min(sum, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Возвращает строковое представление таблицы в виде:
+     * [ключ=значение, ключ=значение, ...]
+     *
+     * @return - строковое представление всех элементов
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        boolean first = true;
+
+        for (Map.Entry<K, V> entry : this) {
+            if (!first) {
+                sb.append(", ");
+            }
+
+            sb.append(entry.getKey()).append("=").append(entry.getValue());
+            first = false;
+        }
+
+        sb.append("]");
+        return sb.toString();
+    }
+
+    /**
+     * Возвращает слабо согласованный итератор по элементам таблицы.
+     * Итератор никогда не бросает ConcurrentModificationException: он видит
+     * все элементы, существовавшие на момент его создания и не удалённые до прохода,
+     * и может (но не обязан) увидеть изменения, сделанные после создания.
+     *
+     * @return - итератор по ключ-значение
+     * @throws NoSuchElementException - если элементы закончились
+     */
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+        return new Iterator<>() {
+            int segment = 0;
+            int elem = 0;
+            AtomicReferenceArray<Node<K, V>> table;
+            Node<K, V> cur = advance();
+
+            private Node<K, V> advance() {
+                while (segment < segments.length) {
+                    if (table == null) {
+                        table = segments[segment].table;
+                        elem = 0;
+                    }
+
+                    while (elem < table.length()) {
+                        Node<K, V> head = table.get(elem++);
+                        if (head != null) {
+                            return head;
+                        }
+                    }
+
+                    table = null;
+                    segment++;
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return cur != null;
+            }
+
+            @Override
+            public Map.Entry<K, V> next() {
+                if (cur == null) {
+                    throw new NoSuchElementException();
+                }
+
+                Map.Entry<K, V> e = Map.entry(cur.key, cur.value);
+                cur = (cur.next != null) ? cur.next : advance();
+                return e;
+            }
+        };
+    }
+
+    /**
+     * Сравнивает текущую таблицу с другой на равенство.
+     * При одновременных изменениях результат не гарантирован.
+     *
+     * @param o - объект для сравнения
+     * @return true, если таблицы равны, иначе false
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (!(o instanceof ConcurrentHashTable<?, ?> other)) {
+            return false;
+        }
+
+        if (this.size() != other.size()) {
+            return false;
+        }
+
+        for (Map.Entry<?, ?> entry : other) {
+            if (!entry.getValue().equals(getRaw(entry.getKey()))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Вычисляет хеш-код таблицы.
+     *
+     * @return - хеш-код таблицы, целое число.
+     */
+    @Override
+    public int hashCode() {
+        int h = 0;
+
+        for (Map.Entry<K, V> entry : this) {
+            h += 31 * (31 + entry.getKey().hashCode()) + entry.getValue().hashCode();
+        }
+
+        return h;
+    }
+
+    /**
+     * Ищет значение по ключу произвольного типа без блокировок
+     * (общий поиск для get и сравнения таблиц).
+     *
+     * @param key - ключ
+     * @return - значение, либо null
+     */
+    private V getRaw(Object key) {
+        int hash = hash(key);
+        Node<K, V> cur = segmentFor(hash).first(hash);
+
+        while (cur != null) {
+            if (cur.hash == hash && cur.key.equals(key)) {
+                return cur.value;
+            }
+
+            cur = cur.next;
+        }
+
+        return null;
+    }
+
+    /**
+     * Вычисляет перемешанный хеш ключа.
+     *
+     * @param key - ключ
+     * @return - хеш
+     */
+    private static int hash(Object key) {
+        return PrimitiveHashing.mix(key.hashCode());
+    }
+
+    /**
+     * Выбирает сегмент по старшим битам хеша.
+     *
+     * @param hash - перемешанный хеш
+     * @return - сегмент
+     */
+    private Segment<K, V> segmentFor(int hash) {
+        return segments.length == 1 ? segments[0] : segments[hash >>> segmentShift];
+    }
+
+    /**
+     * Узел цепочки. Ключ, хеш и ссылка на следующий узел неизменяемы,
+     * поэтому читатель всегда видит целостную цепочку.
+     *
+     * @param <K> - тип ключей
+     * @param <V> - тип значений
+     */
+    private static final class Node<K, V> {
+        final int hash;
+        final K key;
+        volatile V value;
+        final Node<K, V> next;
+
+        Node(int h, K k, V v, Node<K, V> n) {
+            hash = h;
+            key = k;
+            value = v;
+            next = n;
+        }
+    }
+
+    /**
+     * Сегмент таблицы - небольшая хеш-таблица методом цепочек со своей блокировкой.
+     *
+     * @param <K> - тип ключей
+     * @param <V> - тип значений
+     */
+    private static final class Segment<K, V> {
+        private static final float MEMORY_USAGE = 0.75f;
+        private static final int INIT_CAPACITY = 4;
+
+        volatile AtomicReferenceArray<Node<K, V>> table =
+                new AtomicReferenceArray<>(INIT_CAPACITY);
+        volatile int count;
+
+        /**
+         * Возвращает голову цепочки для хеша без блокировки.
+         *
+         * @param hash - перемешанный хеш
+         * @return - первый узел цепочки, либо null
+         */
+        Node<K, V> first(int hash) {
+            AtomicReferenceArray<Node<K, V>> tab = table;
+            return tab.get(hash & (tab.length() - 1));
+        }
+
+        /**
+         * Добавляет или обновляет пару под блокировкой сегмента.
+         *
+         * @param hash - перемешанный хеш
+         * @param key - ключ
+         * @param value - значение
+         * @param onlyIfAbsent - не менять значение существующего ключа
+         * @return - старое значение, либо null
+         */
+        synchronized V put(int hash, K key, V value, boolean onlyIfAbsent) {
+            AtomicReferenceArray<Node<K, V>> tab = table;
+            int idx = hash & (tab.length() - 1);
+            Node<K, V> head = tab.get(idx);
+
+            for (Node<K, V> cur = head; cur != null; cur = cur.next) {
+                if (cur.hash == hash && cur.key.equals(key)) {
+                    V old = cur.value;
+                    if (!onlyIfAbsent) {
+                        cur.value = value;
+                    }
+                    return old;
+                }
+            }
+
+            tab.set(idx, new Node<>(hash, key, value, head));
+            count++;
+            if (count > MEMORY_USAGE * tab.length()) {
+                resizeTable();
+            }
+
+            return null;
+        }
+
+        /**
+         * Пересчитывает значение под блокировкой сегмента.
+         * Результат null удаляет ключ.
+         *
+         * @param hash - перемешанный хеш
+         * @param key - ключ
+         * @param remapping - функция пересчёта значения
+         * @return - новое значение, либо null
+         */
+        synchronized V compute(int hash, K key,
+                               BiFunction<? super K, ? super V, ? extends V> remapping) {
+            AtomicReferenceArray<Node<K, V>> tab = table;
+            int idx = hash & (tab.length() - 1);
+            Node<K, V> head = tab.get(idx);
+
+            for (Node<K, V> cur = head; cur != null; cur = cur.next) {
+                if (cur.hash == hash && cur.key.equals(key)) {
+                    V value = remapping.apply(key, cur.value);
+                    if (value != null) {
+                        cur.value = value;
+                    } else {
+                        tab.set(idx, unlink(head, cur));
+                        count--;
+                    }
+                    return value;
+                }
+            }
+
+            V value = remapping.apply(key, null);
+            if (value != null) {
+                tab.set(idx, new Node<>(hash, key, value, head));
+                count++;
+                if (count > MEMORY_USAGE * tab.length()) {
+                    resizeTable();
+                }
+            }
+
+            return value;
+        }
+
+        /**
+         * Удаляет ключ под блокировкой сегмента.
+         *
+         * @param hash - перемешанный хеш
+         * @param key - ключ
+         * @return - удалённое значение, либо null
+         */
+        synchronized V remove(int hash, K key) {
+            AtomicReferenceArray<Node<K, V>> tab = table;
+            int idx = hash & (tab.length() - 1);
+            Node<K, V> head = tab.get(idx);
+
+            for (Node<K, V> cur = head; cur != null; cur = cur.next) {
+                if (cur.hash == hash && cur.key.equals(key)) {
+                    tab.set(idx, unlink(head, cur));
+                    count--;
+                    return cur.value;
+                }
+            }
+
+            return null;
+        }
+
+        /**
+         * Заменяет значение существующего ключа под блокировкой сегмента.
+         *
+         * @param hash - перемешанный хеш
+         * @param key - ключ
+         * @param value - новое значение
+         * @return - true, если ключ найден
+         */
+        synchronized boolean replace(int hash, K key, V value) {
+            for (Node<K, V> cur = first(hash); cur != null; cur = cur.next) {
+                if (cur.hash == hash && cur.key.equals(key)) {
+                    cur.value = value;
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        /**
+         * Строит новую цепочку без удаляемого узла. Узлы после него переиспользуются,
+         * узлы перед ним копируются, чтобы не трогать цепочку, которую сейчас читают.
+         *
+         * @param head - голова цепочки
+         * @param removed - удаляемый узел
+         * @return - новая голова цепочки
+         */
+        private Node<K, V> unlink(Node<K, V> head, Node<K, V> removed) {
+            Node<K, V> res = removed.next;
+            for (Node<K, V> cur = head; cur != removed; cur = cur.next) {
+                res = new Node<>(cur.hash, cur.key, cur.value, res);
+            }
+
+            return res;
+        }
+
+        /**
+         * Увеличивает массив сегмента в 2 раза.
+         * Новый массив строится целиком и публикуется одной записью,
+         * так что читатели продолжают работать со старым без блокировок.
+         * Цепочка i делится между корзинами i и i + old.length(); её хвост, все узлы
+         * которого попадают в одну корзину, переносится как есть, а копируются только
+         * узлы перед ним. Узлы неизменяемы, поэтому общий хвост не мешает читателям
+         * старого массива.
+         */
+        private void resizeTable() {
+            AtomicReferenceArray<Node<K, V>> old = table;
+            AtomicReferenceArray<Node<K, V>> tab = new AtomicReferenceArray<>(old.length() * 2);
+            int mask = tab.length() - 1;
+
+            for (int i = 0; i < old.length(); i++) {
+                Node<K, V> head = old.get(i);
+                if (head == null) {
+                    continue;
+                }
+
+                Node<K, V> lastRun = head;
+                int lastIdx = head.hash & mask;
+                for (Node<K, V> cur = head.next; cur != null; cur = cur.next) {
+                    int idx = cur.hash & mask;
+                    if (idx != lastIdx) {
+                        lastRun = cur;
+                        lastIdx = idx;
+                    }
+                }
+                tab.set(lastIdx, lastRun);
+
+                for (Node<K, V> cur = head; cur != lastRun; cur = cur.next) {
+                    int idx = cur.hash & mask;
+                    tab.set(idx, new Node<>(cur.hash, cur.key, cur.value, tab.get(idx)));
+                }
+            }
+
+            table = tab;
+        }
+    }
+}
@@ -1,14 +1,26 @@
 package ru.nsu.pivkin;
 
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Collection;
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
 
 /**
  * Параметризованная хеш-таблица.
- * Для коллизий используется метод цепочек.
+ * Для коллизий используется метод цепочек. Хеш-код ключа предварительно перемешивается,
+ * а слишком длинные цепочки из взаимно сравнимых ключей (одного класса C, реализующего
+ * Comparable&lt;C&gt;) превращаются в сбалансированные деревья и обратно при сокращении,
+ * так что даже при массовых коллизиях поиск выполняется за O(log n).
+ * Для таких ключей compareTo должен быть согласован с equals.
  * Поддерживаемые операции:
  *      Добавление элемента (put);
  *      Удаление по ключу (remove);
@@ -16,7 +28,14 @@ import java.util.Objects;
  *      Обновление существующего значения по ключу (update);
  *      Проверка наличия ключа (containsKey);
  *      Итерирование по элементам с защитой от внешних изменений;
- *      Сравнение на равенство (equals).
+ *      Обход без выделения памяти (forEach, cursor) и параллельный обход (spliterator);
+ *      Сравнение на равенство (equals) и хеш-код за O(1): хеш-код таблицы
+ *          поддерживается при каждом изменении, поэтому хеш-коды значений
+ *          (как и ключей) не должны меняться, пока они лежат в таблице;
+ *      Пакетные операции putAll, getAll и removeIf, расширяющие таблицу не более одного раза.
+ * В режиме постепенного расширения старый и новый массивы корзин существуют одновременно,
+ * и каждая изменяющая операция переносит лишь несколько корзин, поэтому время put
+ * не зависит от размера таблицы.
  *
  * @param <K> - тип ключей
  * @param <V> - тип значений
@@ -24,17 +43,69 @@ import java.util.Objects;
 public class HashTable<K, V> implements Iterable<Map.Entry<K, V>> {
     private static final float MEMORY_USAGE = 0.8f;
     private static final int INIT_CAPACITY = 10;
+    private static final int MIGRATION_STEP = 4;
+    private static final int TREEIFY_THRESHOLD = 8;
+    private static final int UNTREEIFY_THRESHOLD = 6;
+    private static final int MIN_TREEIFY_CAPACITY = 64;
 
     private Node<K, V>[] table;
+    private Node<K, V>[] oldTable;
+    private int migrated;
+    private final boolean incremental;
+    private final float loadFactor;
     private int size;
+    private int hash;
     private int modifications;
 
     /**
      * Создает пустую хеш-таблицу с начальной емкостью.
      */
-    @SuppressWarnings("unchecked")
     public HashTable() {
-        table = (Node<K, V>[]) new Node[INIT_CAPACITY];
+        this(false);
+    }
+
+    /**
+     * Создает пустую хеш-таблицу с начальной емкостью.
+     *
+     * @param incremental - переносить элементы при расширении постепенно,
+     *                      по {@value #MIGRATION_STEP} корзины за операцию
+     */
+    public HashTable(boolean incremental) {
+        this(INIT_CAPACITY, MEMORY_USAGE, incremental);
+    }
+
+    /**
+     * Создает пустую хеш-таблицу с заданными емкостью и коэффициентом заполнения.
+     *
+     * @param capacity - начальное количество корзин
+     * @param loadFactor - доля заполнения, после которой таблица расширяется
+     * @throws IllegalArgumentException - если емкость или коэффициент не положительны
+     */
+    public HashTable(int capacity, float loadFactor) {
+        this(capacity, loadFactor, false);
+    }
+
+    /**
+     * Создает пустую хеш-таблицу с заданными емкостью и коэффициентом заполнения.
+     *
+     * @param capacity - начальное количество корзин
+     * @param loadFactor - доля заполнения, после которой таблица расширяется
+     * @param incremental - переносить элементы при расширении постепенно
+     * @throws IllegalArgumentException - если емкость или коэффициент не положительны
+     */
+    @SuppressWarnings("unchecked")
+    public HashTable(int capacity, float loadFactor, boolean incremental) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+
+        if (!(loadFactor > 0)) {
+            throw new IllegalArgumentException("Load factor must be positive: " + loadFactor);
+        }
+
+        table = (Node<K, V>[]) new Node[capacity];
+        this.incremental = incremental;
+        this.loadFactor = loadFactor;
         modifications = 0;
         size = 0;
     }
@@ -48,26 +119,57 @@ public class HashTable<K, V> implements Iterable<Map.Entry<K, V>> {
      * @return - null, либо старое значение при обновлении
      */
     public V put(K key, V value) {
-        if (size > MEMORY_USAGE * table.length) {
-            resizeTable();
+        if (oldTable != null) {
+            Node<K, V> node = findNode(key);
+            if (node != null) {
+                return replaceValue(node, value);
+            }
+            migrateStep();
+        }
+
+        if (size > loadFactor * table.length) {
+            resizeTable(table.length * 2);
+        }
+
+        Node<K, V>[] tab = tableFor(key);
+        int idx = index(key, tab.length);
+
+        if (tab[idx] instanceof TreeBin<K, V> bin) {
+            Node<K, V> node = bin.find(key);
+            if (node != null) {
+                return replaceValue(node, value);
+            }
+
+            if (bin.add(new Node<>(key, value, null))) {
+                modifications++;
+                size++;
+                hash += entryHash(key, value);
+                return null;
+            }
+
+            tab[idx] = untreeify(bin);
         }
 
-        int idx = index(key);
-        Node<K, V> cur = table[idx];
+        Node<K, V> cur = tab[idx];
+        int length = 0;
 
         while (cur != null) {
             if (Objects.equals(cur.key, key)) {
-                V old = cur.value;
-                cur.value = value;
-                return old;
+                return replaceValue(cur, value);
             }
 
             cur = cur.next;
+            length++;
         }
 
-        table[idx] = new Node<>(key, value, table[idx]);
+        tab[idx] = new Node<>(key, value, tab[idx]);
         modifications++;
         size++;
+        hash += entryHash(key, value);
+
+        if (shouldTreeify(length + 1, tab.length)) {
+            tab[idx] = treeify(tab[idx]);
+        }
 
         return null;
     }
@@ -79,19 +181,45 @@ public class HashTable<K, V> implements Iterable<Map.Entry<K, V>> {
      * @return - удалённое значение, либо null, если ключ не найден
      */
     public V remove(K key) {
-        int idx = index(key);
+        if (oldTable != null) {
+            if (findNode(key) == null) {
+                return null;
+            }
+            migrateStep();
+        }
+
+        Node<K, V>[] tab = tableFor(key);
+        int idx = index(key, tab.length);
+
+        if (tab[idx] instanceof TreeBin<K, V> bin) {
+            Node<K, V> node = bin.find(key);
+            if (node == null) {
+                return null;
+            }
+
+            bin.tree.remove(node.key);
+            if (bin.tree.size() <= UNTREEIFY_THRESHOLD) {
+                tab[idx] = untreeify(bin);
+            }
+
+            size--;
+            hash -= entryHash(node.key, node.value);
+            return node.value;
+        }
+
         Node<K, V> prev = null;
-        Node<K, V> cur = table[idx];
+        Node<K, V> cur = tab[idx];
 
         while (cur != null) {
             if (Objects.equals(cur.key, key)) {
                 if (prev == null) {
-                    table[idx] = cur.next;
+                    tab[idx] = cur.next;
                 } else {
                     prev.next = cur.next;
                 }
 
                 size--;
+                hash -= entryHash(cur.key, cur.value);
                 return cur.value;
             }
 
@@ -109,18 +237,8 @@ public class HashTable<K, V> implements Iterable<Map.Entry<K, V>> {
      * @return - значение по ключу, либо null, если ключ не найден
      */
     public V get(K key) {
-        int idx = index(key);
-        Node<K, V> cur = table[idx];
-
-        while (cur != null) {
-            if (Objects.equals(cur.key, key)) {
-                return cur.value;
-            }
-
-            cur = cur.next;
-        }
-
-        return null;
+        Node<K, V> node = findNode(key);
+        return node != null ? node.value : null;
     }
 
     /**
@@ -131,20 +249,13 @@ public class HashTable<K, V> implements Iterable<Map.Entry<K, V>> {
      * @throws NoSuchElementException - если ключ не найден
      */
     public void update(K key, V value) {
-        int idx = index(key);
-        Node<K, V> cur = table[idx];
-
-        while (cur != null) {
-            if (Objects.equals(cur.key, key)) {
-                cur.value = value;
-                modifications++;
-                return;
-            }
-
-            cur = cur.next;
+        Node<K, V> node = findNode(key);
+        if (node == null) {
+            throw new NoSuchElementException("Key not found: " + key);
         }
 
-        throw new NoSuchElementException("Key not found: " + key);
+        replaceValue(node, value);
+        modifications++;
     }
 
     /**
@@ -154,7 +265,115 @@ public class HashTable<K, V> implements Iterable<Map.Entry<K, V>> {
      * @return - true если ключ существует, иначе false
      */
     public boolean containsKey(K key) {
-        return get(key) != null || containsNullValue(key);
+        return findNode(key) != null;
+    }
+
+    /**
+     * Возвращает количество элементов в таблице.
+     *
+     * @return - количество пар ключ-значение
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Добавляет все пары из отображения.
+     * Таблица заранее расширяется под итоговый размер не более одного раза.
+     *
+     * @param map - добавляемые пары
+     */
+    public void putAll(Map<? extends K, ? extends V> map) {
+        ensureCapacity(size + map.size());
+        map.forEach(this::put);
+    }
+
+    /**
+     * Добавляет все пары из другой таблицы, проходя её корзины по порядку
+     * без создания промежуточных Map.Entry.
+     * Таблица заранее расширяется под итоговый размер не более одного раза.
+     *
+     * @param other - добавляемая таблица
+     */
+    public void putAll(HashTable<? extends K, ? extends V> other) {
+        ensureCapacity(size + other.size);
+        putNodes(other);
+    }
+
+    /**
+     * Получает значения для набора ключей.
+     *
+     * @param keys - ключи
+     * @return - таблица из найденных ключей и их значений
+     */
+    public HashTable<K, V> getAll(Collection<? extends K> keys) {
+        int capacity = Math.max(INIT_CAPACITY, (int) Math.ceil(keys.size() / MEMORY_USAGE) + 1);
+        HashTable<K, V> res = new HashTable<>(capacity, MEMORY_USAGE);
+
+        for (K key : keys) {
+            Node<K, V> node = findNode(key);
+            if (node != null) {
+                res.put(key, node.value);
+            }
+        }
+
+        return res;
+    }
+
+    /**
+     * Удаляет все пары, удовлетворяющие условию, за один проход по корзинам.
+     *
+     * @param filter - условие удаления
+     * @return - true, если что-то было удалено
+     */
+    public boolean removeIf(BiPredicate<? super K, ? super V> filter) {
+        finishMigration();
+        int before = size;
+
+        for (int i = 0; i < table.length; i++) {
+            Node<K, V> head = table[i];
+
+            if (head instanceof TreeBin<K, V> bin) {
+                int treeSize = bin.tree.size();
+                bin.tree.values().removeIf(node -> {
+                    if (filter.test(node.key, node.value)) {
+                        hash -= entryHash(node.key, node.value);
+                        return true;
+                    }
+                    return false;
+                });
+                size -= treeSize - bin.tree.size();
+
+                if (bin.tree.isEmpty()) {
+                    table[i] = null;
+                } else if (bin.tree.size() <= UNTREEIFY_THRESHOLD) {
+                    table[i] = untreeify(bin);
+                }
+                continue;
+            }
+
+            Node<K, V> prev = null;
+            for (Node<K, V> cur = head; cur != null; cur = cur.next) {
+                if (filter.test(cur.key, cur.value)) {
+                    if (prev == null) {
+                        table[i] = cur.next;
+                    } else {
+                        prev.next = cur.next;
+                    }
+                    size--;
+                    hash -= entryHash(cur.key, cur.value);
+                } else {
+                    prev = cur;
+                }
+            }
+        }
+
+        if (size != before) {
+            modifications++;
+            return true;
+        }
+
+        return false;
     }
 
     /**
@@ -167,20 +386,15 @@ public class HashTable<K, V> implements Iterable<Map.Entry<K, V>> {
     public String toString() {
         StringBuilder sb = new StringBuilder("[");
         boolean first = true;
+        NodeWalker walker = new NodeWalker();
 
-        for (Node<K, V> head : table) {
-            Node<K, V> cur = head;
-
-            while (cur != null) {
-                if (!first) {
-                    sb.append(", ");
-                }
-
-                sb.append(cur.key).append("=").append(cur.value);
-                first = false;
-
-                cur = cur.next;
+        for (Node<K, V> cur = walker.next(); cur != null; cur = walker.next()) {
+            if (!first) {
+                sb.append(", ");
             }
+
+            sb.append(cur.key).append("=").append(cur.value);
+            first = false;
         }
 
         sb.append("]");
@@ -197,21 +411,10 @@ public class HashTable<K, V> implements Iterable<Map.Entry<K, V>> {
     @Override
     public Iterator<Map.Entry<K, V>> iterator() {
         return new Iterator<>() {
-            int elem = 0;
-            Node<K, V> cur = advance();
+            final NodeWalker walker = new NodeWalker();
+            Node<K, V> cur = walker.next();
             final int expected = modifications;
 
-            private Node<K, V> advance() {
-                while (elem < table.length) {
-                    if (table[elem] != null) {
-                        return table[elem++];
-                    }
-
-                    elem++;
-                }
-                return null;
-            }
-
             @Override
             public boolean hasNext() {
                 return cur != null;
@@ -228,14 +431,71 @@ public class HashTable<K, V> implements Iterable<Map.Entry<K, V>> {
                 }
 
                 Map.Entry<K, V> e = Map.entry(cur.key, cur.value);
-                cur = (cur.next != null) ? cur.next : advance();
+                cur = walker.next();
                 return e;
             }
         };
     }
 
+    /**
+     * Выполняет действие для каждой пары без создания объектов Map.Entry.
+     *
+     * @param action - действие над ключом и значением
+     * @throws ConcurrentModificationException - если действие изменило структуру таблицы
+     */
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        Node<K, V>[] old = oldTable;
+        Node<K, V>[] tab = table;
+        int from = migrated;
+        int expected = modifications;
+
+        if (old != null) {
+            for (int i = from; i < old.length; i++) {
+                forEachInBucket(old[i], action);
+            }
+        }
+
+        for (Node<K, V> head : tab) {
+            forEachInBucket(head, action);
+        }
+
+        if (expected != modifications) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    /**
+     * Возвращает курсор для обхода таблицы. Курсор сам является изменяемым
+     * представлением текущей пары, поэтому обход не создаёт объект на каждый элемент:
+     * <pre>
+     * for (var c = table.cursor(); c.advance(); ) {
+     *     use(c.getKey(), c.getValue());
+     * }
+     * </pre>
+     *
+     * @return - курсор, установленный перед первой парой
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Возвращает разделяемый сплитератор по элементам таблицы,
+     * пригодный для {@code StreamSupport.stream(table.spliterator(), true)}.
+     * Корзины делятся пополам между частями; размер известен точно
+     * только до первого деления.
+     *
+     * @return - сплитератор по ключ-значение
+     */
+    @Override
+    public Spliterator<Map.Entry<K, V>> spliterator() {
+        int oldCount = oldTable != null ? oldTable.length - migrated : 0;
+        return new EntrySpliterator(0, oldCount + table.length, size, true);
+    }
+
     /**
      * Сравнивает текущую таблицу с другой на равенство.
+     * Таблицы разного размера или с разными хеш-кодами отсекаются без обхода элементов.
      * Две таблицы равны, если:
      *      Они содержат одинаковое количество элементов;
      *      Для каждого ключа значения совпадают.
@@ -250,24 +510,19 @@ public class HashTable<K, V> implements Iterable<Map.Entry<K, V>> {
             return true;
         }
 
-        if (!(o instanceof HashTable other)) {
+        if (!(o instanceof HashTable<?, ?> other)) {
             return false;
         }
 
-        if (this.size != other.size) {
+        if (this.size != other.size || this.hash != other.hash) {
             return false;
         }
 
-        for (Node<K, V> head : table) {
-            Node<K, V> cur = head;
-
-            while (cur != null) {
-                Object otherVal = other.get(cur.key);
-                if (!Objects.equals(cur.value, otherVal)) {
-                    return false;
-                }
-
-                cur = cur.next;
+        NodeWalker walker = new NodeWalker();
+        for (Node<K, V> cur = walker.next(); cur != null; cur = walker.next()) {
+            Node<?, ?> node = other.findNode(cur.key);
+            if (node == null || !Objects.equals(cur.value, node.value)) {
+                return false;
             }
         }
 
@@ -275,23 +530,40 @@ public class HashTable<K, V> implements Iterable<Map.Entry<K, V>> {
     }
 
     /**
-     * Вычисляет хеш-код таблицы.
+     * Возвращает хеш-код таблицы - сумму Objects.hash(ключ, значение) по всем парам.
+     * Сумма поддерживается при изменениях, поэтому метод работает за O(1).
      *
      * @return - хеш-код таблицы, целое число. 
      */
     @Override
     public int hashCode() {
-        int h = 0;
+        return hash;
+    }
 
-        for (Node<K, V> head : table) {
-            Node<K, V> cur = head;
-            while (cur != null) {
-                h += Objects.hash(cur.key, cur.value);
-                cur = cur.next;
-            }
-        }
+    /**
+     * Вычисляет вклад пары в хеш-код таблицы, равный Objects.hash(key, value),
+     * но без создания массива аргументов.
+     *
+     * @param key - ключ
+     * @param value - значение
+     * @return - хеш-код пары
+     */
+    private static int entryHash(Object key, Object value) {
+        return 31 * (31 + Objects.hashCode(key)) + Objects.hashCode(value);
+    }
 
-        return h;
+    /**
+     * Заменяет значение узла, поправляя хеш-код таблицы.
+     *
+     * @param node - узел
+     * @param value - новое значение
+     * @return - старое значение
+     */
+    private V replaceValue(Node<K, V> node, V value) {
+        V old = node.value;
+        hash += Objects.hashCode(value) - Objects.hashCode(old);
+        node.value = value;
+        return old;
     }
 
     /**
@@ -312,60 +584,584 @@ public class HashTable<K, V> implements Iterable<Map.Entry<K, V>> {
         }
     }
 
+    /**
+     * Корзина-дерево: заменяет длинную цепочку из ключей одного сравнимого класса.
+     * Сама является узлом-заглушкой в массиве, а элементы хранит в красно-чёрном дереве.
+     *
+     * @param <K> - тип ключей
+     * @param <V> - тип значений
+     */
+    private static final class TreeBin<K, V> extends Node<K, V> {
+        final TreeMap<K, Node<K, V>> tree = new TreeMap<>();
+        final Class<?> keyClass;
+
+        TreeBin(Class<?> keyClass) {
+            super(null, null, null);
+            this.keyClass = keyClass;
+        }
+
+        /**
+         * Проверяет, может ли ключ храниться в этом дереве.
+         *
+         * @param key - ключ
+         * @return - true, если ключ того же класса, что и остальные
+         */
+        boolean accepts(Object key) {
+            return key != null && key.getClass() == keyClass;
+        }
+
+        /**
+         * Ищет узел по ключу за O(log n).
+         *
+         * @param key - ключ
+         * @return - узел, либо null
+         */
+        Node<K, V> find(Object key) {
+            if (!accepts(key)) {
+                return null;
+            }
+
+            Node<K, V> node = tree.get(key);
+            return node != null && node.key.equals(key) ? node : null;
+        }
+
+        /**
+         * Добавляет узел с отсутствующим ключом.
+         *
+         * @param node - узел
+         * @return - false, если ключ нельзя положить в дерево и его надо превратить в цепочку
+         */
+        boolean add(Node<K, V> node) {
+            return accepts(node.key) && tree.putIfAbsent(node.key, node) == null;
+        }
+    }
+
+    /**
+     * Выполняет действие для всех пар одной корзины.
+     *
+     * @param head - голова корзины
+     * @param action - действие над ключом и значением
+     */
+    private static <K, V> void forEachInBucket(Node<K, V> head,
+                                               BiConsumer<? super K, ? super V> action) {
+        if (head instanceof TreeBin<K, V> bin) {
+            for (Node<K, V> node : bin.tree.values()) {
+                action.accept(node.key, node.value);
+            }
+            return;
+        }
+
+        for (Node<K, V> cur = head; cur != null; cur = cur.next) {
+            action.accept(cur.key, cur.value);
+        }
+    }
+
+    /**
+     * Курсор по элементам таблицы - изменяемое представление текущей пары.
+     * Изменение значения через курсор не считается изменением структуры.
+     */
+    public final class Cursor {
+        private final NodeWalker walker = new NodeWalker();
+        private final int expected = modifications;
+        private Node<K, V> cur;
+
+        private Cursor() {
+        }
+
+        /**
+         * Переходит к следующей паре.
+         *
+         * @return - true, если пара есть
+         * @throws ConcurrentModificationException - при изменении структуры таблицы
+         */
+        public boolean advance() {
+            if (expected != modifications) {
+                throw new ConcurrentModificationException();
+            }
+
+            cur = walker.next();
+            return cur != null;
+        }
+
+        /**
+         * Возвращает ключ текущей пары.
+         *
+         * @return - ключ
+         * @throws IllegalStateException - если курсор не установлен на пару
+         */
+        public K getKey() {
+            return current().key;
+        }
+
+        /**
+         * Возвращает значение текущей пары.
+         *
+         * @return - значение
+         * @throws IllegalStateException - если курсор не установлен на пару
+         */
+        public V getValue() {
+            return current().value;
+        }
+
+        /**
+         * Заменяет значение текущей пары.
+         *
+         * @param value - новое значение
+         * @return - старое значение
+         * @throws IllegalStateException - если курсор не установлен на пару
+         */
+        public V setValue(V value) {
+            return replaceValue(current(), value);
+        }
+
+        private Node<K, V> current() {
+            if (cur == null) {
+                throw new IllegalStateException("Cursor is not positioned on an entry");
+            }
+            return cur;
+        }
+    }
+
+    /**
+     * Сплитератор по диапазону корзин. Номера корзин сквозные: сначала идут
+     * ещё не перенесённые корзины старого массива, затем корзины нового.
+     */
+    private final class EntrySpliterator implements Spliterator<Map.Entry<K, V>> {
+        private final Node<K, V>[] old = oldTable;
+        private final int oldStart = migrated;
+        private final int oldCount;
+        private final Node<K, V>[] tab = table;
+        private final int expected = modifications;
+        private boolean exact;
+        private int lo;
+        private final int hi;
+        private long estimate;
+        private Node<K, V> cur;
+        private Iterator<Node<K, V>> treeNodes;
+
+        EntrySpliterator(int lo, int hi, long estimate, boolean exact) {
+            this.oldCount = old != null ? old.length - oldStart : 0;
+            this.lo = lo;
+            this.hi = hi;
+            this.estimate = estimate;
+            this.exact = exact;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Map.Entry<K, V>> action) {
+            Node<K, V> node = nextNode();
+            if (node == null) {
+                return false;
+            }
+
+            action.accept(Map.entry(node.key, node.value));
+            if (expected != modifications) {
+                throw new ConcurrentModificationException();
+            }
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Map.Entry<K, V>> action) {
+            for (Node<K, V> node = nextNode(); node != null; node = nextNode()) {
+                action.accept(Map.entry(node.key, node.value));
+            }
+
+            if (expected != modifications) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        @Override
+        public Spliterator<Map.Entry<K, V>> trySplit() {
+            int mid = (lo + hi) >>> 1;
+            if (lo >= mid || cur != null || treeNodes != null) {
+                return null;
+            }
+
+            // После разбиения размер каждой части - лишь оценка, поэтому SIZED
+            // сообщает только неразделённый сплитератор.
+            estimate >>>= 1;
+            exact = false;
+            EntrySpliterator prefix = new EntrySpliterator(lo, mid, estimate, false);
+            lo = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return estimate;
+        }
+
+        @Override
+        public int characteristics() {
+            return exact ? Spliterator.DISTINCT | Spliterator.SIZED : Spliterator.DISTINCT;
+        }
+
+        /**
+         * Возвращает следующий узел диапазона.
+         *
+         * @return - узел, либо null, если диапазон пройден
+         */
+        private Node<K, V> nextNode() {
+            if (treeNodes != null) {
+                if (treeNodes.hasNext()) {
+                    return treeNodes.next();
+                }
+                treeNodes = null;
+            }
+
+            if (cur != null) {
+                Node<K, V> node = cur;
+                cur = cur.next;
+                return node;
+            }
+
+            while (lo < hi) {
+                Node<K, V> head = lo < oldCount ? old[oldStart + lo] : tab[lo - oldCount];
+                lo++;
+
+                if (head instanceof TreeBin<K, V> bin) {
+                    treeNodes = bin.tree.values().iterator();
+                    return treeNodes.next();
+                }
+
+                if (head != null) {
+                    cur = head.next;
+                    return head;
+                }
+            }
+
+            return null;
+        }
+    }
+
+    /**
+     * Обходит все узлы таблицы, включая ещё не перенесённые корзины старого массива.
+     */
+    private final class NodeWalker {
+        private Node<K, V>[] tab = oldTable != null ? oldTable : table;
+        private int elem = oldTable != null ? migrated : 0;
+        private Node<K, V> cur;
+        private Iterator<Node<K, V>> treeNodes;
+
+        /**
+         * Возвращает следующий узел.
+         *
+         * @return - узел, либо null, если узлы закончились
+         */
+        Node<K, V> next() {
+            if (treeNodes != null && treeNodes.hasNext()) {
+                cur = treeNodes.next();
+                return cur;
+            }
+
+            if (cur != null && cur.next != null) {
+                cur = cur.next;
+                return cur;
+            }
+
+            while (true) {
+                while (elem < tab.length) {
+                    Node<K, V> head = tab[elem++];
+
+                    if (head instanceof TreeBin<K, V> bin) {
+                        treeNodes = bin.tree.values().iterator();
+                        cur = treeNodes.next();
+                        return cur;
+                    }
+
+                    if (head != null) {
+                        treeNodes = null;
+                        cur = head;
+                        return cur;
+                    }
+                }
+
+                if (tab == table) {
+                    cur = null;
+                    return null;
+                }
+
+                tab = table;
+                elem = 0;
+            }
+        }
+    }
+
     /**
      * Вычисляет индекс корзины для данного ключа.
+     * Старшие биты хеш-кода подмешиваются к младшим, чтобы ключи,
+     * различающиеся только старшими битами, не попадали в одну корзину.
      *
      * @param key - ключ
-     * @return - индекс элемента в массиве table
+     * @param length - размер массива корзин
+     * @return - индекс элемента в массиве
      */
-    private int index(Object key) {
+    private static int index(Object key, int length) {
         int h = (key == null ? 0 : key.hashCode());
-        return (h & 0x7fffffff) % table.length;
+        h ^= (h >>> 16);
+        return (h & 0x7fffffff) % length;
     }
 
     /**
-     * Проверяет наличие ключа, значение которого null.
+     * Выбирает массив, в котором сейчас находится корзина ключа:
+     * во время постепенного расширения это старый массив, если корзина ещё не перенесена.
      *
      * @param key - ключ
-     * @return - true, если ключ найден
+     * @return - массив корзин
      */
-    private boolean containsNullValue(K key) {
-        int idx = index(key);
-        Node<K, V> cur = table[idx];
+    private Node<K, V>[] tableFor(Object key) {
+        if (oldTable != null && index(key, oldTable.length) >= migrated) {
+            return oldTable;
+        }
+
+        return table;
+    }
+
+    /**
+     * Ищет узел с заданным ключом.
+     *
+     * @param key - ключ
+     * @return - узел, либо null, если ключ не найден
+     */
+    private Node<K, V> findNode(Object key) {
+        Node<K, V>[] tab = tableFor(key);
+        Node<K, V> cur = tab[index(key, tab.length)];
+
+        if (cur instanceof TreeBin<K, V> bin) {
+            return bin.find(key);
+        }
 
         while (cur != null) {
             if (Objects.equals(cur.key, key)) {
-                return true;
+                return cur;
             }
 
             cur = cur.next;
         }
 
-        return false;
+        return null;
+    }
+
+    /**
+     * Превращает цепочку в дерево, если все её ключи одного класса C,
+     * реализующего Comparable&lt;C&gt;.
+     *
+     * @param head - голова цепочки
+     * @return - корзина-дерево, либо исходная цепочка
+     */
+    private static <K, V> Node<K, V> treeify(Node<K, V> head) {
+        Class<?> keyClass = comparableClassFor(head.key);
+        if (keyClass == null) {
+            return head;
+        }
+
+        TreeBin<K, V> bin = new TreeBin<>(keyClass);
+        for (Node<K, V> cur = head; cur != null; cur = cur.next) {
+            if (!bin.accepts(cur.key) || bin.tree.putIfAbsent(cur.key, cur) != null) {
+                return head;
+            }
+        }
+
+        for (Node<K, V> node : bin.tree.values()) {
+            node.next = null;
+        }
+
+        return bin;
+    }
+
+    /**
+     * Превращает дерево обратно в цепочку.
+     *
+     * @param bin - корзина-дерево
+     * @return - голова цепочки
+     */
+    private static <K, V> Node<K, V> untreeify(TreeBin<K, V> bin) {
+        Node<K, V> head = null;
+        for (Node<K, V> node : bin.tree.values()) {
+            node.next = head;
+            head = node;
+        }
+
+        return head;
+    }
+
+    /**
+     * Расширяет таблицу так, чтобы в неё поместилось expected элементов без
+     * дальнейших расширений. Длина массива умножается на степень двойки.
+     * Перенос выполняется сразу, так как пакетная операция всё равно линейна.
+     *
+     * @param expected - ожидаемое количество элементов
+     */
+    private void ensureCapacity(int expected) {
+        finishMigration();
+
+        long length = table.length;
+        while (expected > loadFactor * length && length * 2 <= Integer.MAX_VALUE - 8) {
+            length *= 2;
+        }
+
+        if (length > table.length) {
+            resizeTable((int) length);
+            finishMigration();
+        }
+    }
+
+    /**
+     * Добавляет узлы другой таблицы в порядке её корзин.
+     *
+     * @param other - добавляемая таблица
+     */
+    private <K2 extends K, V2 extends V> void putNodes(HashTable<K2, V2> other) {
+        HashTable<K2, V2>.NodeWalker walker = other.new NodeWalker();
+
+        for (Node<K2, V2> cur = walker.next(); cur != null; cur = walker.next()) {
+            put(cur.key, cur.value);
+        }
+    }
+
+    /**
+     * Завершает постепенное расширение, если оно идёт.
+     */
+    private void finishMigration() {
+        if (oldTable != null) {
+            migrateBuckets(oldTable.length);
+            modifications++;
+        }
     }
 
     /**
-     * Увеличивает размер массива таблицы в 2 раза и перераспределяет все элементы.
+     * Увеличивает размер массива таблицы (обычно в 2 раза) и перераспределяет все элементы.
+     * В постепенном режиме только выделяет новый массив, а перенос выполняют
+     * последующие операции. Узлы не пересоздаются, а перецепляются.
+     *
+     * @param length - новое количество корзин, кратное текущему
      */
     @SuppressWarnings("unchecked")
-    private void resizeTable() {
-        Node<K, V>[] old = table;
-        table = (Node<K, V>[]) new Node[old.length * 2];
+    private void resizeTable(int length) {
+        finishMigration();
+
+        oldTable = table;
+        migrated = 0;
+        table = (Node<K, V>[]) new Node[length];
         modifications++;
 
-        size = 0;
+        if (!incremental) {
+            migrateBuckets(oldTable.length);
+        }
+    }
 
-        for (Node<K, V> head : old) {
-            Node<K, V> cur = head;
+    /**
+     * Переносит очередные корзины старого массива, если идёт постепенное расширение.
+     * Перенос перецепляет узлы, поэтому считается изменением структуры; он выполняется
+     * только вместе с добавлением или удалением ключа, так что замена значения через put
+     * не ломает открытые итераторы и в постепенном режиме.
+     */
+    private void migrateStep() {
+        if (oldTable != null) {
+            migrateBuckets(MIGRATION_STEP);
+            modifications++;
+        }
+    }
+
+    /**
+     * Переносит не более count корзин старого массива в новый.
+     *
+     * @param count - количество корзин
+     */
+    private void migrateBuckets(int count) {
+        int end = Math.min(oldTable.length, migrated + count);
+
+        for (; migrated < end; migrated++) {
+            Node<K, V> cur = oldTable[migrated];
+            oldTable[migrated] = null;
+
+            boolean wasTree = cur instanceof TreeBin;
+            if (cur instanceof TreeBin<K, V> bin) {
+                cur = untreeify(bin);
+            }
 
             while (cur != null) {
-                int idx = index(cur.key);
-                table[idx] = new Node<>(cur.key, cur.value, table[idx]);
-                size++;
+                Node<K, V> next = cur.next;
+                int idx = index(cur.key, table.length);
+                cur.next = table[idx];
+                table[idx] = cur;
 
-                cur = cur.next;
+                cur = next;
+            }
+
+            if (wasTree) {
+                // Корзина i старого массива делится между корзинами i + k * length нового.
+                for (int idx = migrated; idx < table.length; idx += oldTable.length) {
+                    treeifyIfLong(idx);
+                }
             }
         }
+
+        if (migrated == oldTable.length) {
+            oldTable = null;
+        }
     }
-}
 
+    /**
+     * Превращает цепочку нового массива в дерево, если она достаточно длинная.
+     *
+     * @param idx - индекс корзины
+     */
+    private void treeifyIfLong(int idx) {
+        int length = 0;
+        for (Node<K, V> cur = table[idx]; cur != null; cur = cur.next) {
+            length++;
+        }
+
+        if (shouldTreeify(length, table.length)) {
+            table[idx] = treeify(table[idx]);
+        }
+    }
+
+    /**
+     * Решает, пора ли пробовать превратить цепочку в дерево.
+     * Цепочка из несравнимых ключей так и остаётся цепочкой, поэтому попытка
+     * повторяется лишь при каждом удвоении длины (8, 16, 32, ...): суммарная цена
+     * неудачных попыток линейна от длины цепочки, а не квадратична.
+     *
+     * @param length - длина цепочки
+     * @param capacity - количество корзин
+     * @return - true, если стоит вызвать treeify
+     */
+    private static boolean shouldTreeify(int length, int capacity) {
+        return length >= TREEIFY_THRESHOLD && Integer.bitCount(length) == 1
+            && capacity >= MIN_TREEIFY_CAPACITY;
+    }
+
+    /**
+     * Возвращает класс ключа, если он реализует Comparable от самого себя
+     * (как HashMap.comparableClassFor): проверка instanceof Comparable не гарантирует,
+     * что compareTo принимает ключи того же класса.
+     *
+     * @param key - ключ
+     * @return - класс ключа, либо null
+     */
+    private static Class<?> comparableClassFor(Object key) {
+        if (!(key instanceof Comparable)) {
+            return null;
+        }
+
+        Class<?> c = key.getClass();
+        if (c == String.class) {
+            return c;
+        }
+
+        for (Type type : c.getGenericInterfaces()) {
+            if (type instanceof ParameterizedType p && p.getRawType() == Comparable.class) {
+                Type[] args = p.getActualTypeArguments();
+                if (args.length == 1 && args[0] == c) {
+                    return c;
+                }
+            }
+        }
+
+        return null;
+    }
+}
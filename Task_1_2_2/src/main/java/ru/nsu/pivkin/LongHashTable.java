@@ -0,0 +1,380 @@
+package ru.nsu.pivkin;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Хеш-таблица с примитивными ключами типа long и значениями произвольного типа.
+ * В отличие от {@link HashTable} не упаковывает ключи и значения и не создаёт
+ * узел на каждый элемент: пары хранятся в плоских массивах, а коллизии
+ * разрешаются открытой адресацией с линейным пробированием.
+ * При удалении используется обратный сдвиг, поэтому «надгробия» не нужны.
+ * Поддерживаемые операции те же, что и у {@link HashTable}:
+ *      Добавление элемента (put);
+ *      Удаление по ключу (remove);
+ *      Получение значения по ключу (get);
+ *      Обновление существующего значения по ключу (update);
+ *      Проверка наличия ключа (containsKey);
+ *      Итерирование по элементам с защитой от внешних изменений;
+ *      Сравнение на равенство (equals).
+ *
+ * @param <V> - тип значений
+ */
+public class LongHashTable<V> implements Iterable<Map.Entry<Long, V>> {
+    private long[] keys;
+    private V[] values;
+    private boolean[] used;
+    private int mask;
+    private int threshold;
+    private int size;
+    private int modifications;
+
+    /**
+     * Создает пустую хеш-таблицу с начальной емкостью.
+     */
+    public LongHashTable() {
+        this(0);
+    }
+
+    /**
+     * Создает пустую хеш-таблицу, рассчитанную на заданное число элементов без расширения.
+     *
+     * @param expected - ожидаемое количество элементов
+     * @throws IllegalArgumentException - если expected отрицательно
+     */
+    public LongHashTable(int expected) {
+        allocate(PrimitiveHashing.tableSize(expected));
+    }
+
+    /**
+     * Добавляет пару ключ-значение в таблицу.
+     * Если ключ уже существует, значение обновляется.
+     *
+     * @param key - ключ
+     * @param value - значение
+     * @return - null, либо старое значение при обновлении
+     */
+    public V put(long key, V value) {
+        int idx = find(key);
+        if (idx >= 0) {
+            V old = values[idx];
+            values[idx] = value;
+            return old;
+        }
+
+        if (size >= threshold) {
+            resizeTable();
+        }
+
+        insert(key, value);
+        modifications++;
+        size++;
+
+        return null;
+    }
+
+    /**
+     * Удаляет элемент по ключу.
+     *
+     * @param key - ключ
+     * @return - удалённое значение, либо null, если ключ не найден
+     */
+    public V remove(long key) {
+        int idx = find(key);
+        if (idx < 0) {
+            return null;
+        }
+
+        V old = values[idx];
+        shiftBack(idx);
+        modifications++;
+        size--;
+
+        return old;
+    }
+
+    /**
+     * Получает значение по ключу.
+     *
+     * @param key - ключ
+     * @return - значение по ключу, либо null, если ключ не найден
+     */
+    public V get(long key) {
+        return getOrDefault(key, null);
+    }
+
+    /**
+     * Получает значение по ключу.
+     *
+     * @param key - ключ
+     * @param defaultValue - значение, возвращаемое при отсутствии ключа
+     * @return - значение по ключу, либо defaultValue
+     */
+    public V getOrDefault(long key, V defaultValue) {
+        int idx = find(key);
+        return idx >= 0 ? values[idx] : defaultValue;
+    }
+
+    /**
+     * Обновляет значение для существующего ключа.
+     *
+     * @param key - ключ
+     * @param value - новое значение
+     * @throws NoSuchElementException - если ключ не найден
+     */
+    public void update(long key, V value) {
+        int idx = find(key);
+        if (idx < 0) {
+            throw new NoSuchElementException("Key not found: " + key);
+        }
+
+        values[idx] = value;
+        modifications++;
+    }
+
+    /**
+     * Проверяет наличие ключа в таблице.
+     *
+     * @param key - ключ
+     * @return - true если ключ существует, иначе false
+     */
+    public boolean containsKey(long key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * Возвращает количество элементов в таблице.
+     *
+     * @return - количество пар ключ-значение
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Возвращает строковое представление таблицы в виде:
+     * [ключ=значение, ключ=значение, ...]
+     *
+     * @return - строковое представление всех элементов
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        boolean first = true;
+
+        for (int i = 0; i < keys.length; i++) {
+            if (!used[i]) {
+                continue;
+            }
+
+            if (!first) {
+                sb.append(", ");
+            }
+
+            sb.append(keys[i]).append("=").append(values[i]);
+            first = false;
+        }
+
+        sb.append("]");
+        return sb.toString();
+    }
+
+    /**
+     * Возвращает итератор по элементам таблицы.
+     *
+     * @return - итератор по ключ-значение
+     * @throws ConcurrentModificationException - при изменении структуры таблицы
+     * @throws NoSuchElementException - если элемент при проходе не найден
+     */
+    @Override
+    public Iterator<Map.Entry<Long, V>> iterator() {
+        return new Iterator<>() {
+            int elem = advance(0);
+            final int expected = modifications;
+
+            private int advance(int from) {
+                while (from < used.length && !used[from]) {
+                    from++;
+                }
+                return from;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return elem < used.length;
+            }
+
+            @Override
+            public Map.Entry<Long, V> next() {
+                if (expected != modifications) {
+                    throw new ConcurrentModificationException();
+                }
+
+                if (elem >= used.length) {
+                    throw new NoSuchElementException();
+                }
+
+                Map.Entry<Long, V> e = Map.entry(keys[elem], values[elem]);
+                elem = advance(elem + 1);
+                return e;
+            }
+        };
+    }
+
+    /**
+     * Сравнивает текущую таблицу с другой на равенство.
+     * Две таблицы равны, если:
+     *      Они содержат одинаковое количество элементов;
+     *      Для каждого ключа значения совпадают.
+     *
+     * @param o - объект для сравнения
+     * @return true, если таблицы равны, иначе false
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (!(o instanceof LongHashTable<?> other)) {
+            return false;
+        }
+
+        if (this.size != other.size) {
+            return false;
+        }
+
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) {
+                int idx = other.find(keys[i]);
+                if (idx < 0 || !Objects.equals(other.values[idx], values[i])) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Вычисляет хеш-код таблицы.
+     * Совпадает с хеш-кодом {@link HashTable} с теми же (упакованными) парами.
+     *
+     * @return - хеш-код таблицы, целое число.
+     */
+    @Override
+    public int hashCode() {
+        int h = 0;
+
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) {
+                h += 31 * (31 + Long.hashCode(keys[i])) + Objects.hashCode(values[i]);
+            }
+        }
+
+        return h;
+    }
+
+    /**
+     * Ищет ячейку, в которой хранится ключ.
+     *
+     * @param key - ключ
+     * @return - индекс ячейки, либо -1, если ключ не найден
+     */
+    private int find(long key) {
+        int idx = PrimitiveHashing.mix(key) & mask;
+
+        while (used[idx]) {
+            if (keys[idx] == key) {
+                return idx;
+            }
+
+            idx = (idx + 1) & mask;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Кладёт заведомо отсутствующий ключ в первую свободную ячейку его цепочки проб.
+     *
+     * @param key - ключ
+     * @param value - значение
+     */
+    private void insert(long key, V value) {
+        int idx = PrimitiveHashing.mix(key) & mask;
+
+        while (used[idx]) {
+            idx = (idx + 1) & mask;
+        }
+
+        keys[idx] = key;
+        values[idx] = value;
+        used[idx] = true;
+    }
+
+    /**
+     * Освобождает ячейку, сдвигая назад следующие за ней элементы той же цепочки проб,
+     * чтобы поиск не обрывался на образовавшейся дыре.
+     *
+     * @param gap - индекс освобождаемой ячейки
+     */
+    private void shiftBack(int gap) {
+        int idx = gap;
+
+        while (true) {
+            idx = (idx + 1) & mask;
+            if (!used[idx]) {
+                break;
+            }
+
+            int home = PrimitiveHashing.mix(keys[idx]) & mask;
+            if (((idx - home) & mask) >= ((idx - gap) & mask)) {
+                keys[gap] = keys[idx];
+                values[gap] = values[idx];
+                gap = idx;
+            }
+        }
+
+        values[gap] = null;
+        used[gap] = false;
+    }
+
+    /**
+     * Выделяет пустые массивы заданного размера.
+     *
+     * @param capacity - размер массивов (степень двойки)
+     */
+    @SuppressWarnings("unchecked")
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = (V[]) new Object[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+        threshold = PrimitiveHashing.threshold(capacity);
+    }
+
+    /**
+     * Увеличивает размер массивов таблицы в 2 раза и перераспределяет все элементы.
+     */
+    private void resizeTable() {
+        if (keys.length >= PrimitiveHashing.MAX_CAPACITY) {
+            throw new IllegalStateException("Table is full");
+        }
+
+        long[] oldKeys = keys;
+        V[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(oldKeys.length * 2);
+        modifications++;
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                insert(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+}
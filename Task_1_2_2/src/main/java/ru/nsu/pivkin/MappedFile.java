@@ -0,0 +1,215 @@
+package ru.nsu.pivkin;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Файл, отображённый в память окнами по 1 ГБ.
+ * Один MappedByteBuffer ограничен 2 ГБ, поэтому большие файлы отображаются частями.
+ * Файл может расти (журнал дописывается через канал): чтение за концом отображённой части
+ * окна идёт через {@link FileChannel#read(ByteBuffer, long)}, а окно переотображается
+ * только когда файл вырос вдвое относительно отображённой части. Старое отображение
+ * освобождается лишь сборщиком мусора, поэтому число отображений растёт логарифмически,
+ * а не на каждое чтение хвоста. Запись всегда идёт через отображение.
+ * Ошибки ввода-вывода при отображении оборачиваются в {@link UncheckedIOException}.
+ */
+final class MappedFile {
+    private static final int WINDOW_BITS = 30;
+    private static final long WINDOW = 1L << WINDOW_BITS;
+
+    private final FileChannel channel;
+    private final FileChannel.MapMode mode;
+    private MappedByteBuffer[] windows = new MappedByteBuffer[0];
+
+    /**
+     * Создает отображение файла.
+     *
+     * @param channel - открытый канал файла
+     * @param mode - режим отображения
+     */
+    MappedFile(FileChannel channel, FileChannel.MapMode mode) {
+        this.channel = channel;
+        this.mode = mode;
+    }
+
+    /**
+     * Читает 8 байт. Смещение должно быть кратно 8, чтобы не пересекать границу окна.
+     *
+     * @param pos - смещение в файле
+     * @return - значение
+     */
+    long getLong(long pos) {
+        MappedByteBuffer buffer = window(pos, Long.BYTES, false);
+        return buffer != null ? buffer.getLong(offset(pos)) : read(pos, Long.BYTES).getLong(0);
+    }
+
+    /**
+     * Записывает 8 байт. Смещение должно быть кратно 8.
+     *
+     * @param pos - смещение в файле
+     * @param value - значение
+     */
+    void putLong(long pos, long value) {
+        window(pos, Long.BYTES, true).putLong(offset(pos), value);
+    }
+
+    /**
+     * Читает 4 байта. Смещение должно быть кратно 4.
+     *
+     * @param pos - смещение в файле
+     * @return - значение
+     */
+    int getInt(long pos) {
+        MappedByteBuffer buffer = window(pos, Integer.BYTES, false);
+        return buffer != null ? buffer.getInt(offset(pos)) : read(pos, Integer.BYTES).getInt(0);
+    }
+
+    /**
+     * Записывает 4 байта. Смещение должно быть кратно 4.
+     *
+     * @param pos - смещение в файле
+     * @param value - значение
+     */
+    void putInt(long pos, int value) {
+        window(pos, Integer.BYTES, true).putInt(offset(pos), value);
+    }
+
+    /**
+     * Копирует байты из файла в массив; диапазон может пересекать границы окон.
+     *
+     * @param pos - смещение в файле
+     * @param dst - массив, заполняемый целиком
+     */
+    void get(long pos, byte[] dst) {
+        int done = 0;
+
+        while (done < dst.length) {
+            long cur = pos + done;
+            int len = (int) Math.min(dst.length - done, WINDOW - offset(cur));
+            MappedByteBuffer buffer = window(cur, len, false);
+            if (buffer != null) {
+                buffer.get(offset(cur), dst, done, len);
+            } else {
+                read(cur, ByteBuffer.wrap(dst, done, len));
+            }
+            done += len;
+        }
+    }
+
+    /**
+     * Сбрасывает изменённые страницы всех окон на диск.
+     */
+    void force() {
+        for (MappedByteBuffer buffer : windows) {
+            if (buffer != null) {
+                buffer.force();
+            }
+        }
+    }
+
+    /**
+     * Забывает окна, заходящие за новую длину файла. Вызывается перед усечением файла,
+     * чтобы не обращаться к отображению отрезанных страниц.
+     *
+     * @param length - новая длина файла
+     */
+    void truncate(long length) {
+        for (int w = 0; w < windows.length; w++) {
+            MappedByteBuffer buffer = windows[w];
+            if (buffer != null && ((long) w << WINDOW_BITS) + buffer.capacity() > length) {
+                windows[w] = null;
+            }
+        }
+    }
+
+    /**
+     * Возвращает окно, содержащее [pos, pos + len), при необходимости отображая его заново.
+     * Для чтения окно переотображается, только если файл вырос вдвое относительно
+     * отображённой части; иначе возвращается null и диапазон читается через канал.
+     *
+     * @param pos - смещение в файле
+     * @param len - длина диапазона (не пересекает границу окна)
+     * @param write - true, если диапазон будет записан
+     * @return - буфер окна, либо null, если диапазон нужно прочитать через канал
+     */
+    private MappedByteBuffer window(long pos, int len, boolean write) {
+        int w = (int) (pos >>> WINDOW_BITS);
+        if (w >= windows.length) {
+            windows = Arrays.copyOf(windows, w + 1);
+        }
+
+        MappedByteBuffer buffer = windows[w];
+        long end = offset(pos) + (long) len;
+
+        if (buffer == null || buffer.capacity() < end) {
+            try {
+                long start = (long) w << WINDOW_BITS;
+                long size = Math.min(WINDOW, channel.size() - start);
+                if (size < end) {
+                    throw new EOFException("Offset " + (pos + len) + " is beyond end of file");
+                }
+
+                if (!write && buffer != null && size < 2L * buffer.capacity()) {
+                    return null;
+                }
+
+                buffer = channel.map(mode, start, size);
+                windows[w] = buffer;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        return buffer;
+    }
+
+    /**
+     * Читает len байт через канал.
+     *
+     * @param pos - смещение в файле
+     * @param len - число байт
+     * @return - буфер с прочитанными байтами
+     */
+    private ByteBuffer read(long pos, int len) {
+        ByteBuffer buffer = ByteBuffer.allocate(len);
+        read(pos, buffer);
+        return buffer;
+    }
+
+    /**
+     * Заполняет буфер байтами файла через канал.
+     *
+     * @param pos - смещение в файле
+     * @param dst - буфер, заполняемый до конца
+     */
+    private void read(long pos, ByteBuffer dst) {
+        try {
+            long cur = pos;
+            while (dst.hasRemaining()) {
+                int n = channel.read(dst, cur);
+                if (n < 0) {
+                    throw new EOFException("Offset " + (cur + dst.remaining())
+                            + " is beyond end of file");
+                }
+                cur += n;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Вычисляет смещение внутри окна.
+     *
+     * @param pos - смещение в файле
+     * @return - смещение в окне
+     */
+    private static int offset(long pos) {
+        return (int) (pos & (WINDOW - 1));
+    }
+}
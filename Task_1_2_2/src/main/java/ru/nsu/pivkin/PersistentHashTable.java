@@ -0,0 +1,645 @@
+package ru.nsu.pivkin;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.zip.CRC32;
+
+/**
+ * Хеш-таблица, хранящая данные вне кучи в файлах, отображённых в память.
+ * Состоит из двух файлов в заданном каталоге:
+ *      data.log - журнал записей (ключ, значение, CRC32), только дописывается;
+ *      data.idx - индекс с открытой адресацией: хеш ключа и смещение записи в журнале.
+ * Журнал является источником истины. После {@link #flush()} или {@link #close()}
+ * индекс помечается согласованным, и повторное открытие лишь отображает файлы в память.
+ * Если процесс упал между сбросами, индекс перестраивается чтением журнала
+ * до первой повреждённой записи, а хвост журнала отбрасывается.
+ * Поддерживает те же операции, что и {@link HashTable}: put, remove, get, update,
+ * containsKey и итерирование с защитой от внешних изменений.
+ * Ключи и значения не могут быть null. Ошибки ввода-вывода при операциях
+ * оборачиваются в {@link UncheckedIOException}.
+ *
+ * @param <K> - тип ключей
+ * @param <V> - тип значений
+ */
+public class PersistentHashTable<K, V> implements Iterable<Map.Entry<K, V>>, Closeable {
+    static final String LOG_FILE = "data.log";
+    static final String INDEX_FILE = "data.idx";
+
+    private static final long MAGIC = 0x5048544142494458L;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int CAPACITY_POS = 12;
+    private static final int SIZE_POS = 16;
+    private static final int LOG_LENGTH_POS = 24;
+    private static final int CLEAN_POS = 32;
+    private static final int SLOT_SIZE = 16;
+    private static final int RECORD_HEADER = 8;
+    private static final int RECORD_TAIL = 4;
+    private static final int TOMBSTONE = -1;
+    private static final float MEMORY_USAGE = 0.75f;
+    private static final int INIT_CAPACITY = 1024;
+
+    private final Path directory;
+    private final Serializer<K> keySerializer;
+    private final Serializer<V> valueSerializer;
+    private final FileChannel log;
+    private final MappedFile logView;
+    private long logLength;
+    private FileChannel indexChannel;
+    private MappedFile index;
+    private int capacity;
+    private int size;
+    private int modifications;
+    private boolean dirty;
+
+    /**
+     * Открывает таблицу в каталоге, создавая пустую при отсутствии файлов.
+     *
+     * @param directory - каталог с файлами таблицы
+     * @param keySerializer - сериализатор ключей
+     * @param valueSerializer - сериализатор значений
+     * @throws IOException - при ошибке чтения или создания файлов
+     */
+    public PersistentHashTable(Path directory, Serializer<K> keySerializer,
+                               Serializer<V> valueSerializer) throws IOException {
+        this.directory = directory;
+        this.keySerializer = keySerializer;
+        this.valueSerializer = valueSerializer;
+
+        Files.createDirectories(directory);
+        log = FileChannel.open(directory.resolve(LOG_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        logView = new MappedFile(log, FileChannel.MapMode.READ_ONLY);
+        logLength = log.size();
+
+        if (!openIndex()) {
+            rebuildIndex();
+        }
+    }
+
+    /**
+     * Добавляет пару ключ-значение в таблицу.
+     * Если ключ уже существует, значение обновляется.
+     *
+     * @param key - ключ
+     * @param value - значение
+     * @return - null, либо старое значение при обновлении
+     */
+    public V put(K key, V value) {
+        byte[] keyBytes = keySerializer.serialize(Objects.requireNonNull(key));
+        byte[] valueBytes = valueSerializer.serialize(Objects.requireNonNull(value));
+        int hash = hash(keyBytes);
+        markDirty();
+
+        long slot = findSlot(keyBytes, hash);
+        if (slot >= 0) {
+            V old = readValue(recordAt(slot));
+            setSlot(slot, append(keyBytes, valueBytes), hash);
+            return old;
+        }
+
+        setSlot(-slot - 1, append(keyBytes, valueBytes), hash);
+        modifications++;
+        size++;
+
+        if (size > MEMORY_USAGE * capacity) {
+            resizeIndex();
+        }
+
+        return null;
+    }
+
+    /**
+     * Удаляет элемент по ключу.
+     *
+     * @param key - ключ
+     * @return - удалённое значение, либо null, если ключ не найден
+     */
+    public V remove(K key) {
+        byte[] keyBytes = keySerializer.serialize(key);
+        long slot = findSlot(keyBytes, hash(keyBytes));
+        if (slot < 0) {
+            return null;
+        }
+
+        markDirty();
+        V old = readValue(recordAt(slot));
+        append(keyBytes, null);
+        shiftBack(slot);
+        modifications++;
+        size--;
+
+        return old;
+    }
+
+    /**
+     * Получает значение по ключу.
+     *
+     * @param key - ключ
+     * @return - значение по ключу, либо null, если ключ не найден
+     */
+    public V get(K key) {
+        byte[] keyBytes = keySerializer.serialize(key);
+        long slot = findSlot(keyBytes, hash(keyBytes));
+        return slot >= 0 ? readValue(recordAt(slot)) : null;
+    }
+
+    /**
+     * Обновляет значение для существующего ключа.
+     *
+     * @param key - ключ
+     * @param value - новое значение
+     * @throws NoSuchElementException - если ключ не найден
+     */
+    public void update(K key, V value) {
+        byte[] keyBytes = keySerializer.serialize(key);
+        int hash = hash(keyBytes);
+        long slot = findSlot(keyBytes, hash);
+        if (slot < 0) {
+            throw new NoSuchElementException("Key not found: " + key);
+        }
+
+        markDirty();
+        setSlot(slot, append(keyBytes, valueSerializer.serialize(value)), hash);
+        modifications++;
+    }
+
+    /**
+     * Проверяет наличие ключа в таблице.
+     *
+     * @param key - ключ
+     * @return - true если ключ существует, иначе false
+     */
+    public boolean containsKey(K key) {
+        byte[] keyBytes = keySerializer.serialize(key);
+        return findSlot(keyBytes, hash(keyBytes)) >= 0;
+    }
+
+    /**
+     * Возвращает количество элементов в таблице.
+     *
+     * @return - количество пар ключ-значение
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Возвращает итератор по элементам таблицы.
+     * Ключи и значения читаются из журнала по мере прохода.
+     *
+     * @return - итератор по ключ-значение
+     * @throws ConcurrentModificationException - при изменении структуры таблицы
+     * @throws NoSuchElementException - если элемент при проходе не найден
+     */
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+        return new Iterator<>() {
+            int slot = advance(0);
+            final int expected = modifications;
+
+            private int advance(int from) {
+                while (from < capacity && recordAt(from) < 0) {
+                    from++;
+                }
+                return from;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return slot < capacity;
+            }
+
+            @Override
+            public Map.Entry<K, V> next() {
+                if (expected != modifications) {
+                    throw new ConcurrentModificationException();
+                }
+
+                if (slot >= capacity) {
+                    throw new NoSuchElementException();
+                }
+
+                long record = recordAt(slot);
+                Map.Entry<K, V> e = Map.entry(
+                        keySerializer.deserialize(readKey(record)), readValue(record));
+                slot = advance(slot + 1);
+                return e;
+            }
+        };
+    }
+
+    /**
+     * Сбрасывает журнал и индекс на диск и помечает индекс согласованным с журналом.
+     *
+     * @throws IOException - при ошибке записи
+     */
+    public void flush() throws IOException {
+        log.force(false);
+        index.putLong(SIZE_POS, size);
+        index.putLong(LOG_LENGTH_POS, logLength);
+        index.force();
+        index.putInt(CLEAN_POS, 1);
+        index.force();
+        dirty = false;
+    }
+
+    /**
+     * Сбрасывает данные на диск и закрывает файлы.
+     *
+     * @throws IOException - при ошибке записи
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+        indexChannel.close();
+        log.close();
+    }
+
+    /**
+     * Открывает существующий индекс, если он согласован с журналом.
+     *
+     * @return - true, если индекс можно использовать без перестроения
+     * @throws IOException - при ошибке чтения
+     */
+    private boolean openIndex() throws IOException {
+        Path path = directory.resolve(INDEX_FILE);
+        if (!Files.exists(path) || Files.size(path) < HEADER_SIZE) {
+            return false;
+        }
+
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        MappedFile mapped = new MappedFile(channel, FileChannel.MapMode.READ_WRITE);
+        int cap = mapped.getInt(CAPACITY_POS);
+        long committed = mapped.getLong(LOG_LENGTH_POS);
+
+        boolean valid = mapped.getLong(0) == MAGIC
+                && mapped.getInt(8) == VERSION
+                && mapped.getInt(CLEAN_POS) == 1
+                && Integer.bitCount(cap) == 1
+                && channel.size() == HEADER_SIZE + (long) cap * SLOT_SIZE
+                && committed <= logLength;
+
+        if (!valid) {
+            channel.close();
+            return false;
+        }
+
+        indexChannel = channel;
+        index = mapped;
+        capacity = cap;
+        size = (int) mapped.getLong(SIZE_POS);
+        truncateLog(committed);
+
+        return true;
+    }
+
+    /**
+     * Строит индекс заново, проходя журнал от начала до первой повреждённой записи.
+     *
+     * @throws IOException - при ошибке чтения или записи
+     */
+    private void rebuildIndex() throws IOException {
+        createIndex(directory.resolve(INDEX_FILE), INIT_CAPACITY);
+        size = 0;
+        dirty = true;
+
+        long pos = 0;
+        byte[] header = new byte[RECORD_HEADER];
+
+        while (pos + RECORD_HEADER + RECORD_TAIL <= logLength) {
+            logView.get(pos, header);
+            ByteBuffer lengths = ByteBuffer.wrap(header);
+            int keyLen = lengths.getInt(0);
+            int valueLen = lengths.getInt(4);
+            long total = recordSize(keyLen, Math.max(valueLen, 0));
+
+            if (keyLen < 0 || valueLen < TOMBSTONE || total > Integer.MAX_VALUE
+                    || pos + total > logLength || !checksumMatches(pos, total)) {
+                break;
+            }
+
+            byte[] keyBytes = readKey(pos);
+            int hash = hash(keyBytes);
+            long slot = findSlot(keyBytes, hash);
+
+            if (valueLen == TOMBSTONE) {
+                if (slot >= 0) {
+                    shiftBack(slot);
+                    size--;
+                }
+            } else if (slot >= 0) {
+                setSlot(slot, pos, hash);
+            } else {
+                setSlot(-slot - 1, pos, hash);
+                size++;
+                if (size > MEMORY_USAGE * capacity) {
+                    resizeIndex();
+                }
+            }
+
+            pos += total;
+        }
+
+        truncateLog(pos);
+        flush();
+    }
+
+    /**
+     * Создает файл индекса с пустыми ячейками и отображает его в память.
+     *
+     * @param path - путь к файлу
+     * @param cap - количество ячеек (степень двойки)
+     * @throws IOException - при ошибке создания файла
+     */
+    private void createIndex(Path path, int cap) throws IOException {
+        Files.deleteIfExists(path);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.write(ByteBuffer.allocate(1), HEADER_SIZE + (long) cap * SLOT_SIZE - 1);
+
+        MappedFile mapped = new MappedFile(channel, FileChannel.MapMode.READ_WRITE);
+        mapped.putLong(0, MAGIC);
+        mapped.putInt(8, VERSION);
+        mapped.putInt(CAPACITY_POS, cap);
+        mapped.putInt(CLEAN_POS, 0);
+
+        if (indexChannel != null) {
+            indexChannel.close();
+        }
+
+        indexChannel = channel;
+        index = mapped;
+        capacity = cap;
+    }
+
+    /**
+     * Увеличивает индекс в 2 раза. Новый индекс строится во временном файле
+     * и атомарно заменяет старый.
+     */
+    private void resizeIndex() {
+        try {
+            MappedFile old = index;
+            int oldCapacity = capacity;
+            Path path = directory.resolve(INDEX_FILE);
+            Path tmp = directory.resolve(INDEX_FILE + ".tmp");
+
+            FileChannel oldChannel = indexChannel;
+            indexChannel = null;
+            createIndex(tmp, oldCapacity * 2);
+
+            for (long slot = 0; slot < oldCapacity; slot++) {
+                long record = old.getLong(slotPos(slot)) - 1;
+                if (record >= 0) {
+                    int hash = old.getInt(slotPos(slot) + 8);
+                    long free = hash & (capacity - 1);
+                    while (recordAt(free) >= 0) {
+                        free = (free + 1) & (capacity - 1);
+                    }
+                    setSlot(free, record, hash);
+                }
+            }
+
+            oldChannel.close();
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            modifications++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Помечает индекс несогласованным перед первым изменением после сброса,
+     * чтобы после падения он был перестроен по журналу.
+     */
+    private void markDirty() {
+        if (!dirty) {
+            index.putInt(CLEAN_POS, 0);
+            index.force();
+            dirty = true;
+        }
+    }
+
+    /**
+     * Дописывает запись в конец журнала.
+     *
+     * @param keyBytes - ключ
+     * @param valueBytes - значение, либо null для записи об удалении
+     * @return - смещение записи
+     */
+    private long append(byte[] keyBytes, byte[] valueBytes) {
+        int valueLen = valueBytes == null ? TOMBSTONE : valueBytes.length;
+        int total = (int) recordSize(keyBytes.length, Math.max(valueLen, 0));
+        ByteBuffer record = ByteBuffer.allocate(total);
+
+        record.putInt(keyBytes.length).putInt(valueLen).put(keyBytes);
+        if (valueBytes != null) {
+            record.put(valueBytes);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 0, total - RECORD_TAIL);
+        record.putInt((int) crc.getValue());
+        record.flip();
+
+        try {
+            long pos = logLength;
+            while (record.hasRemaining()) {
+                log.write(record, pos + record.position());
+            }
+
+            logLength += total;
+            return pos;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Проверяет контрольную сумму записи журнала.
+     *
+     * @param pos - смещение записи
+     * @param total - полный размер записи
+     * @return - true, если запись не повреждена
+     */
+    private boolean checksumMatches(long pos, long total) {
+        byte[] record = new byte[(int) total];
+        logView.get(pos, record);
+
+        CRC32 crc = new CRC32();
+        crc.update(record, 0, record.length - RECORD_TAIL);
+        return ByteBuffer.wrap(record).getInt(record.length - RECORD_TAIL) == (int) crc.getValue();
+    }
+
+    /**
+     * Отбрасывает хвост журнала после заданного смещения.
+     *
+     * @param length - новая длина журнала
+     * @throws IOException - при ошибке записи
+     */
+    private void truncateLog(long length) throws IOException {
+        if (length < log.size()) {
+            logView.truncate(length);
+            log.truncate(length);
+        }
+        logLength = length;
+    }
+
+    /**
+     * Ищет ячейку индекса с заданным ключом.
+     *
+     * @param keyBytes - сериализованный ключ
+     * @param hash - хеш ключа
+     * @return - номер ячейки, либо -(номер свободной ячейки) - 1, если ключ не найден
+     */
+    private long findSlot(byte[] keyBytes, int hash) {
+        long slot = hash & (capacity - 1);
+
+        while (true) {
+            long record = recordAt(slot);
+            if (record < 0) {
+                return -slot - 1;
+            }
+
+            if (index.getInt(slotPos(slot) + 8) == hash
+                    && Arrays.equals(readKey(record), keyBytes)) {
+                return slot;
+            }
+
+            slot = (slot + 1) & (capacity - 1);
+        }
+    }
+
+    /**
+     * Освобождает ячейку обратным сдвигом следующих ячеек той же цепочки проб.
+     *
+     * @param gap - номер освобождаемой ячейки
+     */
+    private void shiftBack(long gap) {
+        long mask = capacity - 1;
+        long slot = gap;
+
+        while (true) {
+            slot = (slot + 1) & mask;
+            long record = recordAt(slot);
+            if (record < 0) {
+                break;
+            }
+
+            int hash = index.getInt(slotPos(slot) + 8);
+            long home = hash & mask;
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                setSlot(gap, record, hash);
+                gap = slot;
+            }
+        }
+
+        index.putLong(slotPos(gap), 0);
+        index.putInt(slotPos(gap) + 8, 0);
+    }
+
+    /**
+     * Возвращает смещение записи, на которую указывает ячейка.
+     *
+     * @param slot - номер ячейки
+     * @return - смещение в журнале, либо -1 для пустой ячейки
+     */
+    private long recordAt(long slot) {
+        return index.getLong(slotPos(slot)) - 1;
+    }
+
+    /**
+     * Заполняет ячейку индекса.
+     *
+     * @param slot - номер ячейки
+     * @param record - смещение записи в журнале
+     * @param hash - хеш ключа
+     */
+    private void setSlot(long slot, long record, int hash) {
+        index.putLong(slotPos(slot), record + 1);
+        index.putInt(slotPos(slot) + 8, hash);
+    }
+
+    /**
+     * Читает сериализованный ключ записи.
+     *
+     * @param record - смещение записи
+     * @return - байты ключа
+     */
+    private byte[] readKey(long record) {
+        byte[] key = new byte[lengthAt(record)];
+        logView.get(record + RECORD_HEADER, key);
+        return key;
+    }
+
+    /**
+     * Читает и десериализует значение записи.
+     *
+     * @param record - смещение записи
+     * @return - значение
+     */
+    private V readValue(long record) {
+        int keyLen = lengthAt(record);
+        byte[] value = new byte[lengthAt(record + 4)];
+        logView.get(record + RECORD_HEADER + keyLen, value);
+        return valueSerializer.deserialize(value);
+    }
+
+    /**
+     * Читает 4-байтовую длину из заголовка записи.
+     *
+     * @param pos - смещение поля
+     * @return - длина
+     */
+    private int lengthAt(long pos) {
+        byte[] bytes = new byte[Integer.BYTES];
+        logView.get(pos, bytes);
+        return ByteBuffer.wrap(bytes).getInt();
+    }
+
+    /**
+     * Вычисляет хеш сериализованного ключа; он не зависит от запуска JVM.
+     *
+     * @param keyBytes - байты ключа
+     * @return - хеш
+     */
+    private static int hash(byte[] keyBytes) {
+        return PrimitiveHashing.mix(Arrays.hashCode(keyBytes));
+    }
+
+    /**
+     * Вычисляет полный размер записи журнала.
+     *
+     * @param keyLen - длина ключа
+     * @param valueLen - длина значения
+     * @return - размер в байтах
+     */
+    private static long recordSize(int keyLen, int valueLen) {
+        return (long) RECORD_HEADER + keyLen + valueLen + RECORD_TAIL;
+    }
+
+    /**
+     * Вычисляет смещение ячейки в файле индекса.
+     *
+     * @param slot - номер ячейки
+     * @return - смещение
+     */
+    private static long slotPos(long slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+}
@@ -0,0 +1,73 @@
+package ru.nsu.pivkin;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Преобразование ключей и значений в байты для {@link PersistentHashTable}.
+ * Одинаковые объекты должны давать одинаковые байты: по ним ищутся ключи.
+ *
+ * @param <T> - тип объектов
+ */
+public interface Serializer<T> {
+    /**
+     * Строки в кодировке UTF-8.
+     */
+    Serializer<String> STRING = new Serializer<>() {
+        @Override
+        public byte[] serialize(String value) {
+            return value.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String deserialize(byte[] bytes) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+
+    /**
+     * Целые числа (4 байта, big-endian).
+     */
+    Serializer<Integer> INTEGER = new Serializer<>() {
+        @Override
+        public byte[] serialize(Integer value) {
+            return ByteBuffer.allocate(Integer.BYTES).putInt(value).array();
+        }
+
+        @Override
+        public Integer deserialize(byte[] bytes) {
+            return ByteBuffer.wrap(bytes).getInt();
+        }
+    };
+
+    /**
+     * Длинные целые числа (8 байт, big-endian).
+     */
+    Serializer<Long> LONG = new Serializer<>() {
+        @Override
+        public byte[] serialize(Long value) {
+            return ByteBuffer.allocate(Long.BYTES).putLong(value).array();
+        }
+
+        @Override
+        public Long deserialize(byte[] bytes) {
+            return ByteBuffer.wrap(bytes).getLong();
+        }
+    };
+
+    /**
+     * Преобразует объект в байты.
+     *
+     * @param value - объект
+     * @return - байтовое представление
+     */
+    byte[] serialize(T value);
+
+    /**
+     * Восстанавливает объект из байтов.
+     *
+     * @param bytes - байтовое представление
+     * @return - объект
+     */
+    T deserialize(byte[] bytes);
+}
@@ -0,0 +1,211 @@
+package ru.nsu.pivkin;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для проверки класса BoundedCache.
+ */
+class BoundedCacheTest {
+    private static BoundedCache<Integer, Integer> cache(BoundedCache.Policy policy, int size) {
+        return new BoundedCache.Builder<Integer, Integer>()
+            .maximumSize(size)
+            .policy(policy)
+            .build();
+    }
+
+    @Test
+    void testLruEvictsLeastRecentlyUsed() {
+        BoundedCache<Integer, Integer> cache = cache(BoundedCache.Policy.LRU, 3);
+        cache.put(1, 1);
+        cache.put(2, 2);
+        cache.put(3, 3);
+        assertEquals(1, cache.get(1));
+
+        cache.put(4, 4);
+        assertEquals(3, cache.size());
+        assertFalse(cache.containsKey(2));
+        assertTrue(cache.containsKey(1));
+        assertEquals(1, cache.stats().evictions());
+    }
+
+    @Test
+    void testLfuEvictsLeastFrequentlyUsed() {
+        BoundedCache<Integer, Integer> cache = cache(BoundedCache.Policy.LFU, 3);
+        cache.put(1, 1);
+        cache.put(2, 2);
+        cache.put(3, 3);
+        cache.get(1);
+        cache.get(1);
+        cache.get(3);
+
+        cache.put(4, 4);
+        assertFalse(cache.containsKey(2));
+
+        cache.put(5, 5);
+        assertFalse(cache.containsKey(4));
+        assertTrue(cache.containsKey(1));
+        assertTrue(cache.containsKey(3));
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    void testTinyLfuResistsScan() {
+        BoundedCache<Integer, Integer> cache = cache(BoundedCache.Policy.W_TINY_LFU, 100);
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 50; i++) {
+                cache.getOrCompute(i, k -> k);
+            }
+        }
+
+        for (int i = 1000; i < 11000; i++) {
+            cache.getOrCompute(i, k -> k);
+        }
+
+        int hot = 0;
+        for (int i = 0; i < 50; i++) {
+            if (cache.containsKey(i)) {
+                hot++;
+            }
+        }
+        assertTrue(hot >= 45, "hot entries kept: " + hot);
+        assertEquals(100, cache.size());
+        assertEquals(100, cache.weight());
+    }
+
+    @Test
+    void testGetOrComputeAndStats() {
+        BoundedCache<String, Integer> cache = new BoundedCache.Builder<String, Integer>()
+            .maximumSize(10)
+            .build();
+        int[] loads = new int[1];
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(5, cache.getOrCompute("hello", s -> {
+                loads[0]++;
+                return s.length();
+            }));
+        }
+        assertNull(cache.getOrCompute("missing", s -> null));
+        assertFalse(cache.containsKey("missing"));
+
+        assertEquals(1, loads[0]);
+        BoundedCache.Stats stats = cache.stats();
+        assertEquals(4, stats.hits());
+        assertEquals(2, stats.misses());
+        assertEquals(4.0 / 6, stats.hitRate(), 1e-9);
+    }
+
+    @Test
+    void testMaximumWeight() {
+        for (BoundedCache.Policy policy : BoundedCache.Policy.values()) {
+            BoundedCache<String, String> cache = new BoundedCache.Builder<String, String>()
+                .maximumWeight(10, (k, v) -> v.length())
+                .policy(policy)
+                .build();
+
+            cache.put("a", "aaaa");
+            cache.put("b", "bbbb");
+            cache.put("c", "cccc");
+            assertTrue(cache.weight() <= 10);
+            assertEquals(2, cache.size());
+
+            cache.put("d", "ddddddddddd");
+            assertFalse(cache.containsKey("d"));
+
+            cache.put("a", "a");
+            assertTrue(cache.weight() <= 10);
+        }
+    }
+
+    @Test
+    void testTinyLfuWithLargeWeights() {
+        // 50 записей по 1 МБ: скетч и период старения считаются от числа записей,
+        // поэтому частоты старого горячего набора забываются.
+        BoundedCache<Integer, byte[]> cache = new BoundedCache.Builder<Integer, byte[]>()
+            .maximumWeight(50L << 20, (k, v) -> 1 << 20)
+            .build();
+        byte[] value = new byte[0];
+
+        for (int round = 0; round < 30; round++) {
+            for (int i = 0; i < 40; i++) {
+                cache.getOrCompute(i, k -> value);
+            }
+        }
+        for (int round = 0; round < 200; round++) {
+            for (int i = 100; i < 140; i++) {
+                cache.getOrCompute(i, k -> value);
+            }
+        }
+
+        int hot = 0;
+        for (int i = 100; i < 140; i++) {
+            if (cache.containsKey(i)) {
+                hot++;
+            }
+        }
+        assertTrue(hot >= 35, "new hot entries kept: " + hot);
+        assertEquals(50, cache.size());
+        assertEquals(50L << 20, cache.weight());
+    }
+
+    @Test
+    void testExpireAfterWrite() {
+        long[] time = new long[1];
+        BoundedCache<String, Integer> cache = new BoundedCache.Builder<String, Integer>()
+            .maximumSize(10)
+            .expireAfterWrite(Duration.ofSeconds(10))
+            .ticker(() -> time[0])
+            .build();
+
+        cache.put("a", 1);
+        cache.put("b", 2);
+        time[0] = Duration.ofSeconds(5).toNanos();
+        assertEquals(1, cache.get("a"));
+        cache.put("b", 3);
+
+        time[0] = Duration.ofSeconds(12).toNanos();
+        assertNull(cache.get("a"));
+        assertEquals(3, cache.get("b"));
+
+        time[0] = Duration.ofSeconds(20).toNanos();
+        cache.cleanUp();
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.stats().evictions());
+    }
+
+    @Test
+    void testExpireAfterAccess() {
+        long[] time = new long[1];
+        BoundedCache<String, Integer> cache = new BoundedCache.Builder<String, Integer>()
+            .maximumSize(10)
+            .policy(BoundedCache.Policy.LRU)
+            .expireAfterAccess(Duration.ofSeconds(10))
+            .ticker(() -> time[0])
+            .build();
+
+        cache.put("a", 1);
+        cache.put("b", 2);
+        for (int i = 1; i <= 3; i++) {
+            time[0] = Duration.ofSeconds(8L * i).toNanos();
+            assertEquals(1, cache.get("a"));
+        }
+
+        assertFalse(cache.containsKey("b"));
+        assertTrue(cache.containsKey("a"));
+    }
+
+    @Test
+    void testBuilderValidation() {
+        assertThrows(IllegalStateException.class,
+            () -> new BoundedCache.Builder<String, String>().build());
+        assertThrows(IllegalArgumentException.class,
+            () -> new BoundedCache.Builder<String, String>().maximumSize(0));
+        assertThrows(IllegalArgumentException.class,
+            () -> new BoundedCache.Builder<String, String>().expireAfterWrite(Duration.ZERO));
+        assertThrows(NullPointerException.class,
+            () -> cache(BoundedCache.Policy.LRU, 1).put(1, null));
+    }
+}
@@ -0,0 +1,127 @@
+package ru.nsu.pivkin;
+
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для проверки класса CompactHashSet.
+ */
+class CompactHashSetTest {
+    @Test
+    void testAddContainsRemove() {
+        CompactHashSet<String> set = new CompactHashSet<>();
+        assertTrue(set.add("one"));
+        assertFalse(set.add("one"));
+        assertTrue(set.contains("one"));
+        assertFalse(set.contains("two"));
+        assertFalse(set.contains(null));
+        assertEquals(1, set.size());
+
+        assertTrue(set.remove("one"));
+        assertFalse(set.remove("one"));
+        assertFalse(set.contains("one"));
+        assertEquals(0, set.size());
+        assertThrows(NullPointerException.class, () -> set.add(null));
+    }
+
+    @Test
+    void testRandomOperationsMatchHashSet() {
+        CompactHashSet<Integer> set = new CompactHashSet<>();
+        Set<Integer> expected = new HashSet<>();
+        Random random = new Random(7);
+
+        for (int i = 0; i < 200000; i++) {
+            int key = random.nextInt(5000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), set.remove(key));
+            } else {
+                assertEquals(expected.add(key), set.add(key));
+            }
+        }
+
+        assertEquals(expected.size(), set.size());
+        for (int i = 0; i < 5000; i++) {
+            assertEquals(expected.contains(i), set.contains(i));
+        }
+
+        Set<Integer> iterated = new HashSet<>();
+        for (Integer key : set) {
+            assertTrue(iterated.add(key));
+        }
+        assertEquals(expected, iterated);
+    }
+
+    @Test
+    void testCollidingHashCodes() {
+        CompactHashSet<CollidingKey> set = new CompactHashSet<>();
+        for (int i = 0; i < 300; i++) {
+            set.add(new CollidingKey(i));
+        }
+        for (int i = 0; i < 300; i += 2) {
+            set.remove(new CollidingKey(i));
+        }
+
+        assertEquals(150, set.size());
+        assertTrue(set.contains(new CollidingKey(1)));
+        assertFalse(set.contains(new CollidingKey(2)));
+    }
+
+    @Test
+    void testUnionAndIntersection() {
+        CompactHashSet<Integer> even = new CompactHashSet<>();
+        CompactHashSet<Integer> small = new CompactHashSet<>();
+        for (int i = 0; i < 100; i += 2) {
+            even.add(i);
+        }
+        small.addAll(List.of(1, 2, 3, 4, 200));
+
+        CompactHashSet<Integer> union = even.union(small);
+        assertEquals(53, union.size());
+        assertTrue(union.contains(3));
+        assertTrue(union.contains(98));
+
+        CompactHashSet<Integer> both = even.intersection(small);
+        assertEquals(2, both.size());
+        assertTrue(both.contains(2));
+        assertTrue(both.contains(4));
+        assertEquals(both, small.intersection(even));
+    }
+
+    @Test
+    void testEqualsAndIterator() {
+        CompactHashSet<String> set1 = new CompactHashSet<>();
+        CompactHashSet<String> set2 = new CompactHashSet<>(100);
+        set1.addAll(List.of("a", "b", "c"));
+        set2.addAll(List.of("c", "b", "a"));
+
+        assertEquals(set1, set2);
+        assertEquals(set1.hashCode(), set2.hashCode());
+        CompactHashSet<String> single = new CompactHashSet<>();
+        single.add("a");
+        assertEquals("[a]", single.toString());
+
+        set2.add("d");
+        assertNotEquals(set1, set2);
+        assertThrows(ConcurrentModificationException.class, () -> {
+            for (String s : set1) {
+                set1.add(s + s);
+            }
+        });
+    }
+
+    /**
+     * Элемент, у которого у всех экземпляров одинаковый хеш-код.
+     */
+    private record CollidingKey(int id) {
+        @Override
+        public int hashCode() {
+            return 42;
+        }
+    }
+}
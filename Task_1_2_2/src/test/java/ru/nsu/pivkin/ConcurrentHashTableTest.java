@@ -0,0 +1,133 @@
+package ru.nsu.pivkin;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для проверки класса ConcurrentHashTable.
+ */
+class ConcurrentHashTableTest {
+    @Test
+    void testBasicOperations() {
+        ConcurrentHashTable<String, Integer> table = new ConcurrentHashTable<>();
+        assertNull(table.put("one", 1));
+        assertEquals(1, table.put("one", 10));
+        assertEquals(10, table.get("one"));
+        assertTrue(table.containsKey("one"));
+
+        table.update("one", 100);
+        assertEquals(100, table.get("one"));
+        assertThrows(NoSuchElementException.class, () -> table.update("two", 2));
+
+        assertEquals(100, table.remove("one"));
+        assertNull(table.remove("one"));
+        assertFalse(table.containsKey("one"));
+        assertEquals(0, table.size());
+    }
+
+    @Test
+    void testAtomicOperations() {
+        ConcurrentHashTable<String, Integer> table = new ConcurrentHashTable<>(1);
+        assertNull(table.putIfAbsent("a", 1));
+        assertEquals(1, table.putIfAbsent("a", 2));
+
+        assertEquals(2, table.compute("a", (k, v) -> v + 1));
+        assertNull(table.compute("a", (k, v) -> null));
+        assertFalse(table.containsKey("a"));
+
+        assertEquals(5, table.merge("b", 5, Integer::sum));
+        assertEquals(8, table.merge("b", 3, Integer::sum));
+        assertThrows(NullPointerException.class, () -> table.put("c", null));
+    }
+
+    @Test
+    void testResize() {
+        // Один сегмент расширяется много раз; хвосты цепочек переносятся без копирования.
+        ConcurrentHashTable<Integer, Integer> table = new ConcurrentHashTable<>(1);
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 20000; i++) {
+            table.put(i, i);
+            expected.put(i, i);
+            if (i % 3 == 0) {
+                table.remove(i / 2);
+                expected.remove(i / 2);
+            }
+        }
+
+        assertEquals(expected.size(), table.size());
+        int count = 0;
+        for (Map.Entry<Integer, Integer> entry : table) {
+            assertEquals(expected.get(entry.getKey()), entry.getValue());
+            count++;
+        }
+        assertEquals(expected.size(), count);
+        for (int i = 0; i < 20000; i++) {
+            assertEquals(expected.get(i), table.get(i));
+        }
+    }
+
+    @Test
+    void testConcurrentMerge() throws InterruptedException {
+        ConcurrentHashTable<Integer, Integer> table = new ConcurrentHashTable<>();
+        List<Thread> threads = new ArrayList<>();
+
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    table.merge(i % 1000, 1, Integer::sum);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(1000, table.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(80, table.get(i));
+        }
+    }
+
+    @Test
+    void testWeaklyConsistentIterator() {
+        ConcurrentHashTable<Integer, Integer> table = new ConcurrentHashTable<>(4);
+        for (int i = 0; i < 100; i++) {
+            table.put(i, i);
+        }
+
+        int count = 0;
+        for (Map.Entry<Integer, Integer> entry : table) {
+            table.put(entry.getKey() + 1000, 0);
+            table.remove(entry.getKey());
+            count++;
+        }
+
+        assertTrue(count >= 100);
+    }
+
+    @Test
+    void testEqualsAndToString() {
+        ConcurrentHashTable<String, Integer> table1 = new ConcurrentHashTable<>();
+        ConcurrentHashTable<String, Integer> table2 = new ConcurrentHashTable<>(2);
+        table1.put("a", 1);
+        table1.put("b", 2);
+        table2.put("b", 2);
+        table2.put("a", 1);
+
+        assertEquals(table1, table2);
+        assertEquals(table1.hashCode(), table2.hashCode());
+        assertTrue(table1.toString().contains("a=1"));
+
+        table2.put("c", 3);
+        assertNotEquals(table1, table2);
+    }
+}
@@ -1,7 +1,15 @@
 package ru.nsu.pivkin;
 
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.stream.StreamSupport;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -89,6 +97,50 @@ class HashTableTest {
         assertNotEquals(table1, table2);
     }
 
+    @Test
+    void testIncrementalHashCode() {
+        HashTable<CollidingKey, String> table = new HashTable<>(true);
+        for (int i = 0; i < 200; i++) {
+            table.put(new CollidingKey(i), "v" + i);
+        }
+        table.put(new CollidingKey(5), "changed");
+        table.update(new CollidingKey(6), null);
+        table.remove(new CollidingKey(7));
+        table.removeIf((k, v) -> k.id() % 10 == 0);
+        for (var cursor = table.cursor(); cursor.advance(); ) {
+            if (cursor.getKey().id() % 3 == 0) {
+                cursor.setValue("c" + cursor.getKey().id());
+            }
+        }
+
+        int expected = 0;
+        for (Map.Entry<CollidingKey, String> entry : table) {
+            expected += Objects.hash(entry.getKey(), entry.getValue());
+        }
+        assertEquals(expected, table.hashCode());
+
+        HashTable<CollidingKey, String> copy = new HashTable<>();
+        copy.putAll(table);
+        assertEquals(table.hashCode(), copy.hashCode());
+        assertEquals(table, copy);
+
+        copy.put(new CollidingKey(1), "other");
+        assertNotEquals(table, copy);
+    }
+
+    @Test
+    void testEqualsWithNullValues() {
+        HashTable<String, Integer> table1 = new HashTable<>();
+        HashTable<String, Integer> table2 = new HashTable<>();
+        table1.put("a", null);
+        table2.put("b", null);
+        assertNotEquals(table1, table2);
+
+        table2.remove("b");
+        table2.put("a", null);
+        assertEquals(table1, table2);
+    }
+
     @Test
     void testResizedTable() {
         HashTable<Integer, String> table = new HashTable<>();
@@ -116,5 +168,317 @@ class HashTableTest {
 
         assertEquals(3, sum);
     }
-}
 
+    @Test
+    void testIncrementalResize() {
+        HashTable<Integer, Integer> table = new HashTable<>(true);
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 50000; i++) {
+            int key = random.nextInt(10000);
+            if (random.nextInt(4) == 0) {
+                assertEquals(expected.remove(key), table.remove(key));
+            } else {
+                assertEquals(expected.put(key, i), table.put(key, i));
+            }
+        }
+
+        for (int key = 0; key < 10000; key++) {
+            assertEquals(expected.get(key), table.get(key));
+        }
+
+        int count = 0;
+        for (Map.Entry<Integer, Integer> entry : table) {
+            assertEquals(expected.get(entry.getKey()), entry.getValue());
+            count++;
+        }
+        assertEquals(expected.size(), count);
+    }
+
+    @Test
+    void testIncrementalResizeInProgress() {
+        HashTable<Integer, String> incremental = new HashTable<>(true);
+        HashTable<Integer, String> full = new HashTable<>();
+
+        // 11 вставок: расширение началось на 10-й, перенесена только часть корзин.
+        for (int i = 0; i < 11; i++) {
+            incremental.put(i, "val" + i);
+            full.put(i, "val" + i);
+        }
+
+        incremental.update(3, "new");
+        full.update(3, "new");
+
+        assertEquals(full, incremental);
+        assertEquals(full.hashCode(), incremental.hashCode());
+        assertTrue(incremental.containsKey(8));
+        assertTrue(incremental.toString().contains("3=new"));
+    }
+
+    @Test
+    void testIteratorDuringIncrementalResize() {
+        HashTable<Integer, String> table = new HashTable<>(true);
+        for (int i = 0; i < 11; i++) {
+            table.put(i, "val" + i);
+        }
+
+        // Замена значения не меняет структуру и не переносит корзины.
+        Iterator<Map.Entry<Integer, String>> it = table.iterator();
+        assertEquals("val3", table.put(3, "new"));
+        assertNull(table.remove(100));
+        it.next();
+
+        table.put(11, "val11");
+        assertThrows(ConcurrentModificationException.class, it::next);
+        assertEquals("new", table.get(3));
+    }
+
+    @Test
+    void testCollidingComparableKeys() {
+        HashTable<CollidingKey, Integer> table = new HashTable<>();
+        for (int i = 0; i < 1000; i++) {
+            table.put(new CollidingKey(i), i);
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, table.get(new CollidingKey(i)));
+        }
+        assertNull(table.get(new CollidingKey(1000)));
+
+        for (int i = 0; i < 995; i++) {
+            assertEquals(i, table.remove(new CollidingKey(i)));
+        }
+
+        int count = 0;
+        for (Map.Entry<CollidingKey, Integer> entry : table) {
+            assertTrue(entry.getValue() >= 995);
+            count++;
+        }
+        assertEquals(5, count);
+        assertTrue(table.containsKey(new CollidingKey(999)));
+    }
+
+    @Test
+    void testCollidingMixedKeys() {
+        HashTable<Object, Integer> table = new HashTable<>(true);
+        for (int i = 0; i < 200; i++) {
+            table.put(new CollidingKey(i), i);
+        }
+
+        // Несравнимые ключи в той же корзине превращают дерево обратно в цепочку.
+        table.put(new Object() {
+            @Override
+            public int hashCode() {
+                return 42;
+            }
+        }, -1);
+
+        for (int i = 0; i < 200; i++) {
+            assertEquals(i, table.get(new CollidingKey(i)));
+        }
+
+        int count = 0;
+        for (Map.Entry<Object, Integer> ignored : table) {
+            count++;
+        }
+        assertEquals(201, count);
+    }
+
+    @Test
+    void testCollidingKeysComparableToOtherType() {
+        // Ключи реализуют Comparable<Integer>, а не Comparable<ForeignKey>:
+        // дерево из них построить нельзя, корзина остаётся цепочкой.
+        HashTable<ForeignKey, Integer> table = new HashTable<>();
+        for (int i = 0; i < 300; i++) {
+            table.put(new ForeignKey(i), i);
+        }
+
+        for (int i = 0; i < 300; i++) {
+            assertEquals(i, table.get(new ForeignKey(i)));
+        }
+        for (int i = 0; i < 300; i += 2) {
+            assertEquals(i, table.remove(new ForeignKey(i)));
+        }
+        assertEquals(150, table.size());
+        assertNull(table.get(new ForeignKey(0)));
+        assertEquals(1, table.get(new ForeignKey(1)));
+    }
+
+    @Test
+    void testCapacityConstructor() {
+        assertThrows(IllegalArgumentException.class, () -> new HashTable<>(0, 0.75f));
+        assertThrows(IllegalArgumentException.class, () -> new HashTable<>(16, 0f));
+        assertThrows(IllegalArgumentException.class, () -> new HashTable<>(16, Float.NaN));
+
+        HashTable<Integer, Integer> table = new HashTable<>(1, 2.0f);
+        for (int i = 0; i < 100; i++) {
+            table.put(i, i);
+        }
+        assertEquals(100, table.size());
+        assertEquals(99, table.get(99));
+    }
+
+    @Test
+    void testPutAll() {
+        Map<Integer, String> source = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            source.put(i, "val" + i);
+        }
+
+        HashTable<Integer, String> table = new HashTable<>();
+        table.put(0, "old");
+        table.putAll(source);
+        assertEquals(1000, table.size());
+        assertEquals("val0", table.get(0));
+
+        HashTable<Integer, String> copy = new HashTable<>(true);
+        copy.put(5000, "extra");
+        copy.putAll(table);
+        assertEquals(1001, copy.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("val" + i, copy.get(i));
+        }
+    }
+
+    @Test
+    void testGetAll() {
+        HashTable<String, Integer> table = new HashTable<>();
+        table.put("a", 1);
+        table.put("b", 2);
+
+        HashTable<String, Integer> found = table.getAll(List.of("a", "c"));
+        assertEquals(1, found.size());
+        assertEquals(1, found.get("a"));
+        assertFalse(found.containsKey("c"));
+    }
+
+    @Test
+    void testRemoveIf() {
+        HashTable<CollidingKey, Integer> colliding = new HashTable<>();
+        HashTable<Integer, Integer> plain = new HashTable<>();
+        for (int i = 0; i < 100; i++) {
+            colliding.put(new CollidingKey(i), i);
+            plain.put(i, i);
+        }
+
+        assertTrue(colliding.removeIf((k, v) -> v >= 3));
+        assertTrue(plain.removeIf((k, v) -> v % 2 == 0));
+        assertFalse(plain.removeIf((k, v) -> v % 2 == 0));
+
+        assertEquals(3, colliding.size());
+        assertEquals(2, colliding.get(new CollidingKey(2)));
+        assertNull(colliding.get(new CollidingKey(3)));
+
+        assertEquals(50, plain.size());
+        for (Map.Entry<Integer, Integer> entry : plain) {
+            assertEquals(1, entry.getValue() % 2);
+        }
+    }
+
+    @Test
+    void testForEach() {
+        HashTable<Integer, Integer> table = new HashTable<>(true);
+        long expected = 0;
+        for (int i = 0; i < 1000; i++) {
+            table.put(i, i);
+            expected += i;
+        }
+
+        long[] sum = new long[1];
+        int[] count = new int[1];
+        table.forEach((k, v) -> {
+            sum[0] += v;
+            count[0]++;
+        });
+        assertEquals(expected, sum[0]);
+        assertEquals(1000, count[0]);
+
+        assertThrows(ConcurrentModificationException.class,
+            () -> table.forEach((k, v) -> table.put(-k - 1, v)));
+    }
+
+    @Test
+    void testCursor() {
+        HashTable<CollidingKey, Integer> table = new HashTable<>();
+        for (int i = 0; i < 100; i++) {
+            table.put(new CollidingKey(i), i);
+        }
+
+        var empty = new HashTable<String, String>().cursor();
+        assertFalse(empty.advance());
+        assertThrows(IllegalStateException.class, empty::getKey);
+
+        int count = 0;
+        for (var cursor = table.cursor(); cursor.advance(); count++) {
+            assertEquals(cursor.getKey().id(), cursor.setValue(cursor.getValue() * 2));
+        }
+        assertEquals(100, count);
+        assertEquals(84, table.get(new CollidingKey(42)));
+    }
+
+    @Test
+    void testSpliterator() {
+        HashTable<Integer, Integer> table = new HashTable<>(true);
+        long expected = 0;
+        for (int i = 0; i < 10000; i++) {
+            table.put(i, i);
+            expected += i;
+        }
+
+        assertEquals(10000, table.spliterator().getExactSizeIfKnown());
+        assertEquals(10000, StreamSupport.stream(table.spliterator(), true).count());
+        assertEquals(expected, StreamSupport.stream(table.spliterator(), true)
+            .mapToLong(Map.Entry::getValue)
+            .sum());
+
+        Spliterator<Map.Entry<Integer, Integer>> suffix = table.spliterator();
+        Spliterator<Map.Entry<Integer, Integer>> prefix = suffix.trySplit();
+        assertFalse(suffix.hasCharacteristics(Spliterator.SIZED));
+        assertFalse(prefix.hasCharacteristics(Spliterator.SIZED));
+        assertEquals(-1, suffix.getExactSizeIfKnown());
+        long[] counts = new long[2];
+        prefix.forEachRemaining(e -> counts[0]++);
+        suffix.forEachRemaining(e -> counts[1]++);
+        assertEquals(10000, counts[0] + counts[1]);
+        assertEquals(10000, StreamSupport.stream(table.spliterator(), true).toArray().length);
+
+        HashTable<CollidingKey, Integer> colliding = new HashTable<>();
+        for (int i = 0; i < 100; i++) {
+            colliding.put(new CollidingKey(i), i);
+        }
+        assertEquals(4950, StreamSupport.stream(colliding.spliterator(), true)
+            .mapToInt(Map.Entry::getValue)
+            .sum());
+    }
+
+    /**
+     * Ключ, у которого у всех экземпляров одинаковый хеш-код.
+     */
+    private record CollidingKey(int id) implements Comparable<CollidingKey> {
+        @Override
+        public int hashCode() {
+            return 42;
+        }
+
+        @Override
+        public int compareTo(CollidingKey other) {
+            return Integer.compare(id, other.id);
+        }
+    }
+
+    /**
+     * Ключ с одинаковым хеш-кодом, сравнимый с Integer, но не с другими такими ключами.
+     */
+    private record ForeignKey(int id) implements Comparable<Integer> {
+        @Override
+        public int hashCode() {
+            return 42;
+        }
+
+        @Override
+        public int compareTo(Integer other) {
+            return Integer.compare(id, other);
+        }
+    }
+}
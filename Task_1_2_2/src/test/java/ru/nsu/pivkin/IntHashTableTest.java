@@ -0,0 +1,136 @@
+package ru.nsu.pivkin;
+
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для проверки класса IntHashTable.
+ */
+class IntHashTableTest {
+    @Test
+    void testPutAndGet() {
+        IntHashTable table = new IntHashTable();
+        assertEquals(0, table.put(1, 10));
+        assertEquals(10, table.get(1));
+        assertEquals(0, table.get(2));
+        assertEquals(-1, table.getOrDefault(2, -1));
+
+        assertEquals(10, table.put(1, 100));
+        assertEquals(100, table.get(1));
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    void testZeroKey() {
+        IntHashTable table = new IntHashTable();
+        assertFalse(table.containsKey(0));
+
+        table.put(0, 0);
+        assertTrue(table.containsKey(0));
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    void testRemove() {
+        IntHashTable table = new IntHashTable();
+        table.put(1, 1);
+        table.put(2, 2);
+
+        assertEquals(1, table.remove(1));
+        assertFalse(table.containsKey(1));
+        assertEquals(2, table.get(2));
+        assertEquals(0, table.remove(3));
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    void testUpdate() {
+        IntHashTable table = new IntHashTable();
+        table.put(5, 5);
+
+        table.update(5, 50);
+        assertEquals(50, table.get(5));
+
+        assertThrows(NoSuchElementException.class, () -> table.update(6, 100));
+    }
+
+    @Test
+    void testRandomOperationsMatchHashMap() {
+        IntHashTable table = new IntHashTable();
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 100000; i++) {
+            int key = random.nextInt(2000);
+            if (random.nextInt(3) == 0) {
+                Integer old = expected.remove(key);
+                assertEquals(old == null ? 0 : old, table.remove(key));
+            } else {
+                Integer old = expected.put(key, i);
+                assertEquals(old == null ? 0 : old, table.put(key, i));
+            }
+        }
+
+        assertEquals(expected.size(), table.size());
+        for (int key = 0; key < 2000; key++) {
+            assertEquals(expected.containsKey(key), table.containsKey(key));
+        }
+
+        int count = 0;
+        for (Map.Entry<Integer, Integer> entry : table) {
+            assertEquals(expected.get(entry.getKey()), entry.getValue());
+            count++;
+        }
+        assertEquals(expected.size(), count);
+    }
+
+    @Test
+    void testIteratorFailFast() {
+        IntHashTable table = new IntHashTable();
+        table.put(1, 1);
+        table.put(2, 2);
+
+        Iterator<Map.Entry<Integer, Integer>> it = table.iterator();
+        it.next();
+        table.put(3, 3);
+        assertThrows(ConcurrentModificationException.class, it::next);
+    }
+
+    @Test
+    void testEqualsAndHashCode() {
+        IntHashTable table1 = new IntHashTable();
+        IntHashTable table2 = new IntHashTable(100);
+        HashTable<Integer, Integer> boxed = new HashTable<>();
+
+        for (int i = 0; i < 50; i++) {
+            table1.put(i, i * i);
+            table2.put(49 - i, (49 - i) * (49 - i));
+            boxed.put(i, i * i);
+        }
+
+        assertEquals(table1, table2);
+        assertEquals(table1.hashCode(), table2.hashCode());
+        assertEquals(boxed.hashCode(), table1.hashCode());
+
+        table2.update(7, 0);
+        assertNotEquals(table1, table2);
+    }
+
+    @Test
+    void testToString() {
+        IntHashTable table = new IntHashTable();
+        table.put(1, 2);
+        table.put(3, 4);
+
+        String str = table.toString();
+        assertTrue(str.contains("1=2"));
+        assertTrue(str.contains("3=4"));
+    }
+}
@@ -0,0 +1,49 @@
+package ru.nsu.pivkin;
+
+import java.util.Map;
+import java.util.NoSuchElementException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для проверки класса IntLongHashTable.
+ */
+class IntLongHashTableTest {
+    @Test
+    void testOperations() {
+        IntLongHashTable table = new IntLongHashTable();
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(0L, table.put(i, (long) i << 32));
+        }
+
+        assertEquals(1000, table.size());
+        assertEquals(5L << 32, table.get(5));
+        assertEquals(5L << 32, table.remove(5));
+        assertFalse(table.containsKey(5));
+        assertEquals(-1L, table.getOrDefault(5, -1L));
+
+        table.update(6, 1L);
+        assertEquals(1L, table.get(6));
+        assertThrows(NoSuchElementException.class, () -> table.update(5, 1L));
+    }
+
+    @Test
+    void testIteratorAndEquals() {
+        IntLongHashTable table1 = new IntLongHashTable();
+        IntLongHashTable table2 = new IntLongHashTable();
+        table1.put(1, Long.MAX_VALUE);
+        table1.put(2, Long.MIN_VALUE);
+        table2.put(2, Long.MIN_VALUE);
+        table2.put(1, Long.MAX_VALUE);
+
+        assertEquals(table1, table2);
+        assertEquals(table1.hashCode(), table2.hashCode());
+
+        long sum = 0;
+        for (Map.Entry<Integer, Long> entry : table1) {
+            sum += entry.getKey();
+        }
+        assertEquals(3L, sum);
+    }
+}
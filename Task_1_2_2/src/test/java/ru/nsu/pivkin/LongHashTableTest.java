@@ -0,0 +1,62 @@
+package ru.nsu.pivkin;
+
+import java.util.Map;
+import java.util.NoSuchElementException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для проверки класса LongHashTable.
+ */
+class LongHashTableTest {
+    @Test
+    void testOperations() {
+        LongHashTable<String> table = new LongHashTable<>();
+        for (long i = 0; i < 1000; i++) {
+            assertNull(table.put(i * 1_000_000_007L, "val" + i));
+        }
+
+        assertEquals(1000, table.size());
+        assertEquals("val5", table.get(5_000_000_035L));
+        assertEquals("val5", table.remove(5_000_000_035L));
+        assertNull(table.get(5_000_000_035L));
+        assertNull(table.remove(5_000_000_035L));
+
+        table.update(0, "zero");
+        assertEquals("zero", table.get(0));
+        assertThrows(NoSuchElementException.class, () -> table.update(1, "one"));
+    }
+
+    @Test
+    void testNullValue() {
+        LongHashTable<String> table = new LongHashTable<>();
+        table.put(1, null);
+
+        assertTrue(table.containsKey(1));
+        assertNull(table.get(1));
+        assertEquals("default", table.getOrDefault(2, "default"));
+    }
+
+    @Test
+    void testIteratorAndEquals() {
+        LongHashTable<String> table1 = new LongHashTable<>();
+        LongHashTable<String> table2 = new LongHashTable<>();
+        HashTable<Long, String> boxed = new HashTable<>();
+        table1.put(1L << 40, "a");
+        table1.put(2, "b");
+        table2.put(2, "b");
+        table2.put(1L << 40, "a");
+        boxed.put(1L << 40, "a");
+        boxed.put(2L, "b");
+
+        assertEquals(table1, table2);
+        assertEquals(boxed.hashCode(), table1.hashCode());
+
+        StringBuilder values = new StringBuilder();
+        for (Map.Entry<Long, String> entry : table1) {
+            values.append(entry.getValue());
+        }
+        assertEquals(2, values.length());
+    }
+}
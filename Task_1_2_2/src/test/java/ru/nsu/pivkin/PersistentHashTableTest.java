@@ -0,0 +1,122 @@
+package ru.nsu.pivkin;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для проверки класса PersistentHashTable.
+ */
+class PersistentHashTableTest {
+    @TempDir
+    Path tempDir;
+
+    private PersistentHashTable<String, Integer> open() throws Exception {
+        return new PersistentHashTable<>(tempDir, Serializer.STRING, Serializer.INTEGER);
+    }
+
+    @Test
+    void testOperations() throws Exception {
+        try (PersistentHashTable<String, Integer> table = open()) {
+            assertNull(table.put("one", 1));
+            assertEquals(1, table.put("one", 10));
+            assertEquals(10, table.get("one"));
+            assertNull(table.get("two"));
+
+            table.update("one", 100);
+            assertEquals(100, table.get("one"));
+            assertThrows(NoSuchElementException.class, () -> table.update("two", 2));
+
+            assertTrue(table.containsKey("one"));
+            assertEquals(100, table.remove("one"));
+            assertNull(table.remove("one"));
+            assertFalse(table.containsKey("one"));
+            assertEquals(0, table.size());
+        }
+    }
+
+    @Test
+    void testReopenAfterClose() throws Exception {
+        try (PersistentHashTable<String, Integer> table = open()) {
+            for (int i = 0; i < 5000; i++) {
+                table.put("key" + i, i);
+            }
+            for (int i = 0; i < 5000; i += 2) {
+                table.remove("key" + i);
+            }
+        }
+
+        try (PersistentHashTable<String, Integer> table = open()) {
+            assertEquals(2500, table.size());
+            for (int i = 0; i < 5000; i++) {
+                assertEquals(i % 2 == 0 ? null : i, table.get("key" + i));
+            }
+
+            int count = 0;
+            for (Map.Entry<String, Integer> entry : table) {
+                assertEquals("key" + entry.getValue(), entry.getKey());
+                count++;
+            }
+            assertEquals(2500, count);
+        }
+    }
+
+    @Test
+    void testInterleavedPutAndGet() throws Exception {
+        // Каждый get читает только что дописанный хвост журнала.
+        try (PersistentHashTable<String, Integer> table = open()) {
+            for (int i = 0; i < 100_000; i++) {
+                table.put("key" + i, i);
+                assertEquals(i, table.get("key" + i));
+                assertEquals(i / 2, table.get("key" + i / 2));
+            }
+            assertEquals(100_000, table.size());
+        }
+    }
+
+    @Test
+    void testRecoveryWithoutClose() throws Exception {
+        PersistentHashTable<String, Integer> crashed = open();
+        for (int i = 0; i < 100; i++) {
+            crashed.put("key" + i, i);
+        }
+        crashed.remove("key7");
+
+        // Недописанная запись в конце журнала, как после падения посреди put.
+        try (FileChannel log = FileChannel.open(tempDir.resolve(PersistentHashTable.LOG_FILE),
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            log.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 5, 0, 0}));
+        }
+
+        try (PersistentHashTable<String, Integer> table = open()) {
+            assertEquals(99, table.size());
+            assertNull(table.get("key7"));
+            assertEquals(42, table.get("key42"));
+
+            table.put("key7", 7);
+            assertEquals(7, table.get("key7"));
+        }
+    }
+
+    @Test
+    void testIteratorFailFast() throws Exception {
+        try (PersistentHashTable<String, Integer> table = open()) {
+            table.put("a", 1);
+            table.put("b", 2);
+
+            Iterator<Map.Entry<String, Integer>> it = table.iterator();
+            it.next();
+            table.put("c", 3);
+            assertThrows(ConcurrentModificationException.class, it::next);
+        }
+    }
+}
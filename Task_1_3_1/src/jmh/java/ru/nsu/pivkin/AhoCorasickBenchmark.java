@@ -0,0 +1,164 @@
+package ru.nsu.pivkin;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Поиск 1, 100 и 10 000 подстрок в файле размером 1 ГБ: один проход автоматом
+ * Ахо-Корасик против отдельного вызова SubFinder.find на каждую подстроку.
+ * Подстроки - пары случайных слов из словаря файла (часть из них встречается в файле)
+ * и случайные слова, которых в файле нет. Отдельные вызовы замеряются только
+ * для 1 и 100 подстрок: 10 000 проходов по гигабайту заняли бы часы.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class AhoCorasickBenchmark {
+    private static final String[] WORDS = {
+        "error", "warning", "запрос", "ответ", "timeout", "пользователь", "id=", "42",
+        "connection", "сессия", "закрыта", "GET", "/api/v1/items", "200", "мс", "retry"
+    };
+
+    /**
+     * Файл размером sizeMb мегабайт из случайных слов словаря.
+     */
+    @State(Scope.Benchmark)
+    public static class Corpus {
+        @Param({"1024"})
+        int sizeMb;
+
+        Path file;
+
+        /**
+         * Генерирует файл.
+         *
+         * @throws IOException - при ошибке записи
+         */
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            file = Files.createTempFile("aho", ".txt");
+            SplittableRandom random = new SplittableRandom(42);
+
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                long target = (long) sizeMb << 20;
+                long written = 0;
+                while (written < target) {
+                    String word = WORDS[random.nextInt(WORDS.length)];
+                    writer.write(word);
+                    writer.write(' ');
+                    written += word.getBytes(StandardCharsets.UTF_8).length + 1;
+                }
+            }
+        }
+
+        /**
+         * Удаляет файл.
+         *
+         * @throws IOException - при ошибке удаления
+         */
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Набор подстрок и построенный по нему автомат.
+     */
+    @State(Scope.Benchmark)
+    public static class Patterns {
+        @Param({"1", "100", "10000"})
+        int count;
+
+        List<String> patterns;
+        AhoCorasick automaton;
+
+        /**
+         * Генерирует подстроки и строит автомат.
+         */
+        @Setup(Level.Trial)
+        public void setup() {
+            patterns = generate(count);
+            automaton = new AhoCorasick(patterns);
+        }
+    }
+
+    /**
+     * Набор подстрок для отдельных вызовов SubFinder.find.
+     */
+    @State(Scope.Benchmark)
+    public static class SinglePatterns {
+        @Param({"1", "100"})
+        int count;
+
+        List<String> patterns;
+
+        /**
+         * Генерирует подстроки.
+         */
+        @Setup(Level.Trial)
+        public void setup() {
+            patterns = generate(count);
+        }
+    }
+
+    private static List<String> generate(int count) {
+        SplittableRandom random = new SplittableRandom(7);
+        List<String> res = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            if (i % 2 == 0) {
+                res.add(WORDS[random.nextInt(WORDS.length)] + " "
+                        + WORDS[random.nextInt(WORDS.length)]);
+            } else {
+                res.add("w" + Integer.toString(random.nextInt(1 << 30), 36));
+            }
+        }
+
+        return res;
+    }
+
+    @Benchmark
+    public Map<String, List<Integer>> automaton(Corpus corpus, Patterns patterns)
+            throws IOException {
+        return patterns.automaton.find(corpus.file);
+    }
+
+    @Benchmark
+    public Map<String, List<Integer>> buildAndSearch(Corpus corpus, Patterns patterns)
+            throws IOException {
+        return new AhoCorasick(patterns.patterns).find(corpus.file);
+    }
+
+    @Benchmark
+    public int singleSearches(Corpus corpus, SinglePatterns patterns) throws IOException {
+        int found = 0;
+        for (String pattern : patterns.patterns) {
+            found += SubFinder.find(corpus.file, pattern).size();
+        }
+        return found;
+    }
+}
@@ -0,0 +1,136 @@
+package ru.nsu.pivkin;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Скорость RegexFinder в сравнении с поиском подстроки SubFinder.count на том же файле,
+ * что в {@link SubFinderBenchmark}: поиск без учёта регистра, регулярное выражение
+ * и выражение-подстрока (быстрый путь). Вспомогательный счётчик bytes даёт пропускную
+ * способность в байтах в секунду.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class RegexFinderBenchmark {
+    private static final String[] WORDS = {
+        "error", "warning", "запрос", "ответ", "timeout", "пользователь", "id=", "42",
+        "connection", "сессия", "закрыта", "GET", "/api/v1/items", "200", "мс", "retry"
+    };
+
+    /**
+     * Счётчик обработанных байт; JMH выводит его в байтах в секунду.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Bytes {
+        public long bytes;
+
+        /**
+         * Обнуляет счётчик перед итерацией.
+         */
+        @Setup(Level.Iteration)
+        public void clean() {
+            bytes = 0;
+        }
+    }
+
+    @Param({"256"})
+    int sizeMb;
+
+    Path file;
+    long size;
+    Pattern regex;
+    Pattern literal;
+    long[] found;
+
+    /**
+     * Генерирует файл.
+     *
+     * @throws IOException - при ошибке записи
+     */
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        file = Files.createTempFile("regexfinder", ".txt");
+        SplittableRandom random = new SplittableRandom(42);
+
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            long target = (long) sizeMb << 20;
+            long written = 0;
+            while (written < target) {
+                String word = WORDS[random.nextInt(WORDS.length)];
+                writer.write(word);
+                writer.write(random.nextInt(10) == 0 ? '\n' : ' ');
+                written += word.getBytes(StandardCharsets.UTF_8).length + 1;
+            }
+        }
+
+        size = Files.size(file);
+        regex = Pattern.compile("сесси[яи] закрыт[аы]");
+        literal = Pattern.compile("timeout");
+        found = new long[1];
+    }
+
+    /**
+     * Удаляет файл.
+     *
+     * @throws IOException - при ошибке удаления
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.delete(file);
+    }
+
+    @Benchmark
+    public long literal(Bytes counter) throws IOException {
+        counter.bytes += size;
+        return SubFinder.count(file, "timeout");
+    }
+
+    @Benchmark
+    public long ignoreCase(Bytes counter) throws IOException {
+        counter.bytes += size;
+        found[0] = 0;
+        RegexFinder.forEachIgnoreCase(file, "TimeOut", index -> found[0]++);
+        return found[0];
+    }
+
+    @Benchmark
+    public long regex(Bytes counter) throws IOException {
+        counter.bytes += size;
+        found[0] = 0;
+        RegexFinder.forEach(file, regex, 64, index -> found[0]++);
+        return found[0];
+    }
+
+    @Benchmark
+    public long regexLiteral(Bytes counter) throws IOException {
+        counter.bytes += size;
+        found[0] = 0;
+        RegexFinder.forEach(file, literal, 64, index -> found[0]++);
+        return found[0];
+    }
+}
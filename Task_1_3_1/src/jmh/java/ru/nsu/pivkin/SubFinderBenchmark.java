@@ -0,0 +1,131 @@
+package ru.nsu.pivkin;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Скорость поиска по файлу: чтение через BufferedReader (буфер 1 КБ и 64 КБ) против
+ * поиска по отображённому в память файлу. Файл - случайные слова из латиницы и
+ * кириллицы (около 1.5 байта на символ) размером sizeMb мегабайт; вспомогательный
+ * счётчик bytes даёт пропускную способность в байтах в секунду. Файл лежит в кэше
+ * страниц после первой итерации, так что замеряется обработка, а не диск.
+ * Параметр algorithm сравнивает потоковые алгоритмы поиска (KMP, Two-Way, BMH).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class SubFinderBenchmark {
+    private static final String[] WORDS = {
+        "error", "warning", "запрос", "ответ", "timeout", "пользователь", "id=", "42",
+        "connection", "сессия", "закрыта", "GET", "/api/v1/items", "200", "мс", "retry"
+    };
+
+    /**
+     * Счётчик обработанных байт; JMH выводит его в байтах в секунду.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Bytes {
+        public long bytes;
+
+        /**
+         * Обнуляет счётчик перед итерацией.
+         */
+        @Setup(Level.Iteration)
+        public void clean() {
+            bytes = 0;
+        }
+    }
+
+    @Param({"256", "1024"})
+    int sizeMb;
+
+    @Param({"timeout", "пользователь"})
+    String pattern;
+
+    @Param({"KMP", "TWO_WAY", "BMH"})
+    SubFinder.Algorithm algorithm;
+
+    Path file;
+    long size;
+
+    /**
+     * Генерирует файл.
+     *
+     * @throws IOException - при ошибке записи
+     */
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        file = Files.createTempFile("subfinder", ".txt");
+        SplittableRandom random = new SplittableRandom(42);
+
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            long target = (long) sizeMb << 20;
+            long written = 0;
+            while (written < target) {
+                String word = WORDS[random.nextInt(WORDS.length)];
+                writer.write(word);
+                writer.write(random.nextInt(10) == 0 ? '\n' : ' ');
+                written += word.getBytes(StandardCharsets.UTF_8).length + 1;
+            }
+        }
+
+        size = Files.size(file);
+    }
+
+    /**
+     * Удаляет файл.
+     *
+     * @throws IOException - при ошибке удаления
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.delete(file);
+    }
+
+    @Benchmark
+    public List<Integer> reader(Bytes counter) throws IOException {
+        counter.bytes += size;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return SubFinder.find(reader, pattern, SubFinder.DEFAULT_BUFFER_SIZE, algorithm);
+        }
+    }
+
+    @Benchmark
+    public List<Integer> readerLargeBuffer(Bytes counter) throws IOException {
+        counter.bytes += size;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return SubFinder.find(reader, pattern, 64 * 1024, algorithm);
+        }
+    }
+
+    @Benchmark
+    public List<Integer> mapped(Bytes counter) throws IOException {
+        counter.bytes += size;
+        return SubFinder.find(file, pattern, SubFinder.DEFAULT_WINDOW_SIZE, algorithm);
+    }
+}
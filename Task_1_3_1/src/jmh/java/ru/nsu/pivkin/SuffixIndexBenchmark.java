@@ -0,0 +1,181 @@
+package ru.nsu.pivkin;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Замеры SuffixIndex: время построения индекса и его размер (build, режим
+ * SingleShotTime, вспомогательные счётчики indexBytes и textBytes), задержка запроса
+ * count и find для подстрок длины patternLength, взятых из текста, и для сравнения -
+ * задержка полного просмотра файла SubFinder.count той же подстрокой.
+ * Текст того же вида, что в {@link SubFinderBenchmark}; build пишет индекс в отдельный
+ * файл, чтобы не перезаписывать отображённый в память индекс запросов.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+public class SuffixIndexBenchmark {
+    private static final String[] WORDS = {
+        "error", "warning", "запрос", "ответ", "timeout", "пользователь", "id=", "42",
+        "connection", "сессия", "закрыта", "GET", "/api/v1/items", "200", "мс", "retry"
+    };
+
+    /**
+     * Текст размером sizeMb мегабайт и его индекс.
+     */
+    @State(Scope.Benchmark)
+    public static class Corpus {
+        @Param({"16", "64", "256"})
+        int sizeMb;
+
+        Path file;
+        Path indexFile;
+        Path buildFile;
+        String sample;
+        SuffixIndex index;
+
+        /**
+         * Генерирует текст и строит индекс для запросов.
+         *
+         * @throws IOException - при ошибке записи
+         */
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            file = Files.createTempFile("suffix", ".txt");
+            indexFile = Files.createTempFile("suffix", ".sfx");
+            buildFile = Files.createTempFile("suffix", ".sfx");
+            SplittableRandom random = new SplittableRandom(42);
+            StringBuilder head = new StringBuilder();
+
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                long target = (long) sizeMb << 20;
+                long written = 0;
+                while (written < target) {
+                    String word = WORDS[random.nextInt(WORDS.length)];
+                    char separator = random.nextInt(10) == 0 ? '\n' : ' ';
+                    writer.write(word);
+                    writer.write(separator);
+                    if (head.length() < 1 << 16) {
+                        head.append(word).append(separator);
+                    }
+                    written += word.getBytes(StandardCharsets.UTF_8).length + 1;
+                }
+            }
+
+            sample = head.toString();
+            index = SuffixIndex.build(file, indexFile);
+        }
+
+        /**
+         * Удаляет текст и индекс.
+         *
+         * @throws IOException - при ошибке удаления
+         */
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            index = null;
+            Files.delete(file);
+            Files.delete(indexFile);
+            Files.delete(buildFile);
+        }
+    }
+
+    /**
+     * Подстроки длины patternLength из начала текста.
+     */
+    @State(Scope.Thread)
+    public static class Patterns {
+        @Param({"4", "16", "64"})
+        int patternLength;
+
+        String[] patterns;
+        int next;
+
+        /**
+         * Выбирает подстроки.
+         *
+         * @param corpus - текст
+         */
+        @Setup(Level.Trial)
+        public void setup(Corpus corpus) {
+            SplittableRandom random = new SplittableRandom(7);
+            patterns = new String[1024];
+            for (int i = 0; i < patterns.length; i++) {
+                int from = random.nextInt(corpus.sample.length() - patternLength);
+                patterns[i] = corpus.sample.substring(from, from + patternLength);
+            }
+        }
+
+        String next() {
+            return patterns[next++ & (patterns.length - 1)];
+        }
+    }
+
+    /**
+     * Размеры текста и индекса в байтах за итерацию.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Sizes {
+        public long indexBytes;
+        public long textBytes;
+
+        /**
+         * Обнуляет счётчики перед итерацией.
+         */
+        @Setup(Level.Iteration)
+        public void clean() {
+            indexBytes = 0;
+            textBytes = 0;
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public SuffixIndex build(Corpus corpus, Sizes sizes) throws IOException {
+        SuffixIndex index = SuffixIndex.build(corpus.file, corpus.buildFile);
+        sizes.indexBytes += Files.size(corpus.buildFile);
+        sizes.textBytes += Files.size(corpus.file);
+        return index;
+    }
+
+    @Benchmark
+    public long count(Corpus corpus, Patterns patterns) {
+        return corpus.index.count(patterns.next());
+    }
+
+    @Benchmark
+    public long[] find(Corpus corpus, Patterns patterns) {
+        return corpus.index.find(patterns.next());
+    }
+
+    @Benchmark
+    @Measurement(iterations = 3, time = 5)
+    public long scan(Corpus corpus, Patterns patterns) throws IOException {
+        return SubFinder.count(corpus.file, patterns.next());
+    }
+}
@@ -0,0 +1,239 @@
+package ru.nsu.pivkin;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Поиск сразу многих подстрок в файле в кодировке UTF-8 автоматом Ахо-Корасик.
+ * Автомат строится один раз по набору подстрок и затем за один проход по файлу находит
+ * вхождения всех подстрок, так что файл не перечитывается для каждой подстроки.
+ * Автомат работает над байтами UTF-8: переходы хранятся полной таблицей (детерминированный
+ * автомат), а байты, не встречающиеся в подстроках, объединены в один класс, чтобы
+ * таблица оставалась небольшой. В таблице хранится сразу смещение строки следующего
+ * состояния, а состояния, в которых заканчиваются подстроки, помечены знаком, так что
+ * переход по байту - одно чтение из массива без умножения и дополнительных проверок.
+ * Индексы вхождений, как и в {@link SubFinder#find(Path, String)}, считаются в символах
+ * Unicode. Объект неизменяем и может использоваться из нескольких потоков.
+ */
+public final class AhoCorasick {
+    private final String[] patterns;
+    private final int[] codePointLengths;
+    private final int[] byteClass;
+    private final int classes;
+    private final int[] next;
+    private final int[] match;
+    private final int[] output;
+    private final int[] nextOutput;
+
+    /**
+     * Строит автомат по набору подстрок. Повторяющиеся подстроки учитываются один раз,
+     * пустые подстроки допускаются, но никогда не находятся (как в SubFinder.find).
+     *
+     * @param substrings - подстроки.
+     * @throws IllegalArgumentException - если таблица переходов не помещается в массив.
+     */
+    public AhoCorasick(Collection<String> substrings) {
+        Map<String, Integer> ids = new LinkedHashMap<>();
+        for (String substring : substrings) {
+            ids.putIfAbsent(substring, ids.size());
+        }
+
+        patterns = ids.keySet().toArray(new String[0]);
+        codePointLengths = new int[patterns.length];
+        byte[][] encoded = new byte[patterns.length][];
+        boolean[] used = new boolean[256];
+        int totalBytes = 0;
+
+        for (int i = 0; i < patterns.length; i++) {
+            encoded[i] = patterns[i].getBytes(StandardCharsets.UTF_8);
+            codePointLengths[i] = patterns[i].codePointCount(0, patterns[i].length());
+            totalBytes += encoded[i].length;
+            for (byte b : encoded[i]) {
+                used[b & 0xFF] = true;
+            }
+        }
+
+        byteClass = new int[256];
+        int count = 1;
+        for (int b = 0; b < 256; b++) {
+            if (used[b]) {
+                byteClass[b] = count++;
+            }
+        }
+        classes = count;
+
+        if ((long) (totalBytes + 1) * classes > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many substrings for one automaton.");
+        }
+
+        int[] trie = new int[(totalBytes + 1) * classes];
+        int[] ends = new int[totalBytes + 1];
+        Arrays.fill(ends, -1);
+        int nodes = buildTrie(encoded, trie, ends);
+        next = Arrays.copyOf(trie, nodes * classes);
+        match = Arrays.copyOf(ends, nodes);
+
+        output = new int[nodes];
+        nextOutput = new int[nodes];
+        buildLinks(nodes);
+
+        for (int i = 0; i < nodes * classes; i++) {
+            int target = next[i];
+            next[i] = output[target] >= 0 ? ~(target * classes) : target * classes;
+        }
+    }
+
+    /**
+     * Возвращает подстроки автомата без повторов в порядке первого появления.
+     *
+     * @return - подстроки.
+     */
+    public List<String> patterns() {
+        return List.of(patterns);
+    }
+
+    /**
+     * Находит вхождения всех подстрок в файле, отображая его в память окнами
+     * по {@link SubFinder#DEFAULT_WINDOW_SIZE} байт.
+     *
+     * @param file - путь к файлу.
+     * @return - для каждой подстроки (в порядке {@link #patterns()}) список индексов
+     *      (в символах Unicode) её вхождений по возрастанию.
+     * @throws IOException - если возникает ошибка при чтении файла.
+     */
+    public Map<String, List<Integer>> find(Path file) throws IOException {
+        return find(file, SubFinder.DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Находит вхождения всех подстрок в файле, отображая его в память окнами заданного
+     * размера. Состояние автомата переносится из окна в окно, поэтому окна
+     * не перекрываются, а вхождения на границах не теряются.
+     *
+     * @param file - путь к файлу.
+     * @param windowSize - размер окна отображения в байтах.
+     * @return - для каждой подстроки (в порядке {@link #patterns()}) список индексов
+     *      (в символах Unicode) её вхождений по возрастанию.
+     * @throws IllegalArgumentException - если размер окна не положителен.
+     * @throws IOException - если возникает ошибка при чтении файла.
+     */
+    public Map<String, List<Integer>> find(Path file, int windowSize) throws IOException {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("Window size must be positive.");
+        }
+
+        List<List<Integer>> found = new ArrayList<>();
+        for (int i = 0; i < patterns.length; i++) {
+            found.add(new ArrayList<>());
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long posCodePoint = 0;
+            int row = 0;
+
+            for (long start = 0; start < size; start += windowSize) {
+                int length = (int) Math.min(windowSize, size - start);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+
+                for (int i = 0; i < length; i++) {
+                    byte b = window.get(i);
+                    if ((b & 0xC0) != 0x80) {
+                        posCodePoint++;
+                    }
+
+                    row = next[row + byteClass[b & 0xFF]];
+                    if (row < 0) {
+                        row = ~row;
+                        for (int node = output[row / classes]; node >= 0; node = nextOutput[node]) {
+                            int id = match[node];
+                            found.get(id).add(Math.toIntExact(posCodePoint - codePointLengths[id]));
+                        }
+                    }
+                }
+            }
+        }
+
+        Map<String, List<Integer>> res = new LinkedHashMap<>();
+        for (int i = 0; i < patterns.length; i++) {
+            res.put(patterns[i], found.get(i));
+        }
+        return res;
+    }
+
+    /**
+     * Строит бор подстрок; отсутствующий переход обозначается нулём (в корень
+     * ребро никогда не ведёт).
+     *
+     * @param encoded - подстроки в UTF-8.
+     * @param trie - таблица переходов.
+     * @param ends - номер подстроки, заканчивающейся в вершине, или -1.
+     * @return - количество вершин.
+     */
+    private int buildTrie(byte[][] encoded, int[] trie, int[] ends) {
+        int nodes = 1;
+
+        for (int id = 0; id < encoded.length; id++) {
+            if (encoded[id].length == 0) {
+                continue;
+            }
+
+            int node = 0;
+            for (byte b : encoded[id]) {
+                int idx = node * classes + byteClass[b & 0xFF];
+                if (trie[idx] == 0) {
+                    trie[idx] = nodes++;
+                }
+                node = trie[idx];
+            }
+            ends[node] = id;
+        }
+
+        return nodes;
+    }
+
+    /**
+     * Обходом в ширину вычисляет суффиксные ссылки, достраивает таблицу переходов
+     * до полного автомата и связывает вершины с найденными подстроками в цепочки:
+     * output - ближайшая вершина с подстрокой на цепочке суффиксных ссылок (включая саму
+     * вершину), nextOutput - следующая за ней.
+     *
+     * @param nodes - количество вершин бора.
+     */
+    private void buildLinks(int nodes) {
+        int[] fail = new int[nodes];
+        int[] queue = new int[nodes];
+        int head = 0;
+        int tail = 0;
+
+        queue[tail++] = 0;
+        while (head < tail) {
+            int node = queue[head++];
+            output[node] = match[node] >= 0 ? node : (node == 0 ? -1 : output[fail[node]]);
+            nextOutput[node] = node == 0 ? -1 : output[fail[node]];
+
+            for (int c = 0; c < classes; c++) {
+                int idx = node * classes + c;
+                int child = next[idx];
+                int failNext = node == 0 ? 0 : next[fail[node] * classes + c];
+
+                if (child == 0) {
+                    next[idx] = failNext;
+                } else {
+                    fail[child] = failNext;
+                    queue[tail++] = child;
+                }
+            }
+        }
+    }
+}
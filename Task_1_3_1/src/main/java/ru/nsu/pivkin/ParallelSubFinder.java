@@ -0,0 +1,241 @@
+package ru.nsu.pivkin;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.LongConsumer;
+
+/**
+ * Параллельный поиск подстроки в файле в кодировке UTF-8 на {@link ForkJoinPool}.
+ * Файл делится на диапазоны байтов, которые просматриваются одновременно
+ * потоковым поиском {@link SubFinder}. Диапазон [start, end) отвечает за вхождения,
+ * начинающиеся в нём, и потому просматривается до end + m - 1 (m - длина подстроки
+ * в байтах): соседние диапазоны перекрываются на m - 1 байт, но каждое вхождение
+ * находится ровно одним из них.
+ * Номер символа - это количество байтов, не являющихся продолжением символа, перед
+ * вхождением, и эти количества складываются по диапазонам. Поэтому границы диапазонов
+ * не нужно выравнивать по символам: каждый диапазон считает индексы от своего начала
+ * и количество символов в себе, а при слиянии результатов по порядку к индексам
+ * прибавляется число символов во всех предыдущих диапазонах.
+ */
+public final class ParallelSubFinder {
+    /**
+     * Наибольший размер диапазона по умолчанию.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 16 << 20;
+
+    /**
+     * Наименьший размер диапазона по умолчанию: меньшие части не окупают задачу.
+     */
+    private static final int MIN_CHUNK_SIZE = 1 << 20;
+
+    /**
+     * Находит все вхождения подстроки на общем пуле.
+     *
+     * @param file - путь к файлу.
+     * @param substring - подстрока.
+     * @return - список индексов (в символах Unicode) всех вхождений по возрастанию.
+     * @throws IOException - если возникает ошибка при чтении файла.
+     */
+    public static List<Integer> find(Path file, String substring) throws IOException {
+        return find(file, substring, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Находит все вхождения подстроки на заданном пуле. Размер диапазона выбирается так,
+     * чтобы на каждый поток пришлось несколько диапазонов, но не больше
+     * {@link #DEFAULT_CHUNK_SIZE}.
+     *
+     * @param file - путь к файлу.
+     * @param substring - подстрока.
+     * @param pool - пул потоков.
+     * @return - список индексов (в символах Unicode) всех вхождений по возрастанию.
+     * @throws IOException - если возникает ошибка при чтении файла.
+     */
+    public static List<Integer> find(Path file, String substring, ForkJoinPool pool)
+            throws IOException {
+        long tasks = 4L * pool.getParallelism();
+        long perTask = (Files.size(file) + tasks - 1) / tasks;
+        int chunkSize = (int) Math.max(MIN_CHUNK_SIZE, Math.min(DEFAULT_CHUNK_SIZE, perTask));
+        return find(file, substring, chunkSize, SubFinder.DEFAULT_ALGORITHM, pool);
+    }
+
+    /**
+     * Находит все вхождения подстроки заданным алгоритмом на заданном пуле.
+     * Файл, помещающийся в один диапазон, и однопоточный пул обрабатываются
+     * последовательно ({@link SubFinder#find(Path, String, int, SubFinder.Algorithm)}).
+     *
+     * @param file - путь к файлу.
+     * @param substring - подстрока.
+     * @param chunkSize - размер диапазона в байтах.
+     * @param algorithm - алгоритм поиска.
+     * @param pool - пул потоков.
+     * @return - список индексов (в символах Unicode) всех вхождений по возрастанию.
+     * @throws IllegalArgumentException - если размер диапазона не положителен или больше
+     *      {@link SubFinder#DEFAULT_WINDOW_SIZE}.
+     * @throws IOException - если возникает ошибка при чтении файла.
+     */
+    public static List<Integer> find(Path file, String substring, int chunkSize,
+                                     SubFinder.Algorithm algorithm, ForkJoinPool pool)
+            throws IOException {
+        if (chunkSize <= 0 || chunkSize > SubFinder.DEFAULT_WINDOW_SIZE) {
+            throw new IllegalArgumentException("Chunk size must be in (0, 2^30]: " + chunkSize);
+        }
+
+        if (substring.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size <= chunkSize || pool.getParallelism() == 1) {
+                return SubFinder.find(file, substring, SubFinder.DEFAULT_WINDOW_SIZE, algorithm);
+            }
+
+            int chunks = Math.toIntExact((size + chunkSize - 1) / chunkSize);
+            Ranges ranges = new Ranges(channel, size, chunkSize, chunks, substring, algorithm);
+            try {
+                pool.invoke(new SearchTask(ranges, 0, chunks));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            return ranges.merge();
+        }
+    }
+
+    /**
+     * Общие данные задач и результаты по диапазонам.
+     */
+    private static final class Ranges {
+        private final FileChannel channel;
+        private final long size;
+        private final int chunkSize;
+        private final int overlap;
+        private final String substring;
+        private final SubFinder.Algorithm algorithm;
+        private final Found[] found;
+        private final long[] codePoints;
+
+        Ranges(FileChannel channel, long size, int chunkSize, int chunks, String substring,
+               SubFinder.Algorithm algorithm) {
+            this.channel = channel;
+            this.size = size;
+            this.chunkSize = chunkSize;
+            this.overlap = substring.getBytes(StandardCharsets.UTF_8).length - 1;
+            this.substring = substring;
+            this.algorithm = algorithm;
+            this.found = new Found[chunks];
+            this.codePoints = new long[chunks];
+        }
+
+        /**
+         * Просматривает диапазон с номером chunk. Часть [start, end) и перекрытие
+         * подаются поиску отдельно, чтобы между ними запомнить число символов диапазона.
+         * Индексы внутри диапазона меньше 2^30 и хранятся в int[].
+         *
+         * @param chunk - номер диапазона.
+         * @throws IOException - если возникает ошибка при чтении файла.
+         */
+        void scan(int chunk) throws IOException {
+            long start = (long) chunk * chunkSize;
+            int length = (int) Math.min(chunkSize, size - start);
+            int mapped = (int) Math.min((long) length + overlap, size - start);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, start, mapped);
+
+            Found local = new Found();
+            SubFinder.Search search = new SubFinder.Search(algorithm, substring, local);
+
+            search.feed(window.limit(length));
+            codePoints[chunk] = search.codePoints();
+            search.feed(window.limit(mapped).position(length));
+            found[chunk] = local;
+        }
+
+        /**
+         * Сливает результаты диапазонов по порядку.
+         *
+         * @return - индексы всех вхождений.
+         */
+        List<Integer> merge() {
+            int total = 0;
+            for (Found local : found) {
+                total = Math.addExact(total, local.count);
+            }
+
+            List<Integer> res = new ArrayList<>(total);
+            long offset = 0;
+            for (int chunk = 0; chunk < found.length; chunk++) {
+                Found local = found[chunk];
+                for (int i = 0; i < local.count; i++) {
+                    res.add(Math.toIntExact(offset + local.indices[i]));
+                }
+                offset += codePoints[chunk];
+            }
+            return res;
+        }
+    }
+
+    /**
+     * Индексы вхождений, найденных в одном диапазоне, от его начала.
+     */
+    private static final class Found implements LongConsumer {
+        private int[] indices = new int[16];
+        private int count;
+
+        @Override
+        public void accept(long index) {
+            if (count == indices.length) {
+                indices = Arrays.copyOf(indices, count + (count >> 1));
+            }
+            indices[count++] = (int) index;
+        }
+    }
+
+    /**
+     * Просмотр диапазонов [from, to): отрезок делится пополам, пока в нём больше
+     * одного диапазона.
+     */
+    private static final class SearchTask extends RecursiveAction {
+        private final Ranges ranges;
+        private final int from;
+        private final int to;
+
+        SearchTask(Ranges ranges, int from, int to) {
+            this.ranges = ranges;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                try {
+                    ranges.scan(from);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return;
+            }
+
+            int mid = (from + to) >>> 1;
+            invokeAll(new SearchTask(ranges, from, mid), new SearchTask(ranges, mid, to));
+        }
+    }
+
+    /**
+     * Приватный конструктор для предотвращения создания экземпляров класса.
+     */
+    private ParallelSubFinder() {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,501 @@
+package ru.nsu.pivkin;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Поиск по регулярному выражению и поиск подстроки без учёта регистра в тексте, который
+ * не помещается в память. Текст (BufferedReader или файл в кодировке UTF-8, декодируемый
+ * по частям из отображённых в память окон) обрабатывается частями, а индексы вхождений,
+ * как и в {@link SubFinder}, считаются в символах Unicode.
+ * Регулярное выражение ищется в скользящем окне: каждое вхождение вместе с нужным ему
+ * контекстом (просмотром вперёд и назад) должно укладываться в maxMatchLength символов.
+ * Тогда вхождение, начинающееся дальше maxMatchLength от конца прочитанного текста,
+ * уже не изменится при чтении следующих частей, а из прочитанного достаточно хранить
+ * maxMatchLength символов перед текущей позицией поиска. Найденное вхождение, дошедшее
+ * до конца прочитанного текста, принимается только после чтения следующей части, поэтому
+ * вхождение длиннее maxMatchLength находится целиком (буфер растёт до его длины), а не
+ * обрезается. Ограничение остаётся для контекста и для неудачных попыток сопоставления:
+ * совпадение, которое начинается раньше maxMatchLength символов до конца буфера и
+ * выясняется только после него, может быть пропущено.
+ * Результат совпадает с последовательными вызовами {@link Matcher#find()} на всём тексте,
+ * включая пустые вхождения между половинами суррогатной пары (индекс такого вхождения,
+ * как у {@link String#codePointCount}, считает начатую пару целым символом). Якорь \G
+ * не поддерживается: поиск возобновляется с новой области, и \G совпадал бы в её начале.
+ * Без учёта регистра подстрока ищется алгоритмом Кнута-Морриса-Пратта над символами,
+ * приведёнными к одному регистру (toLowerCase(toUpperCase(c)) - простое приведение
+ * Unicode, сохраняющее число символов; "ß" и "SS" при этом различаются); как и в SubFinder,
+ * сообщаются и перекрывающиеся вхождения.
+ * Выражения, которые на самом деле - подстрока (флаг LITERAL или отсутствие
+ * метасимволов), ищутся так же быстро, как в SubFinder: потоковым поиском подстроки
+ * или поиском без учёта регистра при флагах CASE_INSENSITIVE | UNICODE_CASE.
+ */
+public final class RegexFinder {
+    /**
+     * Наибольшая длина вхождения с контекстом по умолчанию.
+     */
+    public static final int DEFAULT_MAX_MATCH_LENGTH = 1024;
+
+    private static final int DECODE_BUFFER = 1 << 16;
+    private static final String METACHARACTERS = "\\^$.|?*+()[]{}";
+    private static final int LITERAL_FLAGS =
+            Pattern.LITERAL | Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE;
+
+    /**
+     * Находит все вхождения регулярного выражения в файле в кодировке UTF-8
+     * с наибольшей длиной вхождения {@link #DEFAULT_MAX_MATCH_LENGTH}.
+     *
+     * @param file - путь к файлу.
+     * @param pattern - регулярное выражение.
+     * @return - список индексов (в символах Unicode) начал вхождений по возрастанию.
+     * @throws IllegalArgumentException - если выражение содержит \G.
+     * @throws IOException - если возникает ошибка при чтении файла.
+     */
+    public static List<Integer> find(Path file, Pattern pattern) throws IOException {
+        List<Integer> res = new ArrayList<>();
+        forEach(file, pattern, DEFAULT_MAX_MATCH_LENGTH, index -> res.add(Math.toIntExact(index)));
+        return res;
+    }
+
+    /**
+     * Передаёт индексы всех вхождений регулярного выражения в файле в кодировке UTF-8
+     * получателю по мере их нахождения.
+     *
+     * @param file - путь к файлу.
+     * @param pattern - регулярное выражение.
+     * @param maxMatchLength - наибольшая длина вхождения вместе с просмотром вперёд и назад.
+     * @param action - получатель индексов (в символах Unicode) начал вхождений.
+     * @throws IllegalArgumentException - если maxMatchLength не положительна
+     *     или выражение содержит \G.
+     * @throws IOException - если возникает ошибка при чтении файла.
+     */
+    public static void forEach(Path file, Pattern pattern, int maxMatchLength,
+                               LongConsumer action) throws IOException {
+        checkMaxMatchLength(maxMatchLength);
+        String literal = literal(pattern);
+        if (literal == null) {
+            scan(file, new RegexScan(pattern, maxMatchLength, action));
+        } else if ((pattern.flags() & Pattern.CASE_INSENSITIVE) == 0) {
+            SubFinder.forEach(file, literal, nonOverlapping(literal, action));
+        } else {
+            forEachIgnoreCase(file, literal, nonOverlapping(literal, action));
+        }
+    }
+
+    /**
+     * Передаёт индексы всех вхождений регулярного выражения в тексте получателю
+     * по мере их нахождения.
+     *
+     * @param reader - buffered reader.
+     * @param pattern - регулярное выражение.
+     * @param maxMatchLength - наибольшая длина вхождения вместе с просмотром вперёд и назад.
+     * @param action - получатель индексов (в символах Unicode) начал вхождений.
+     * @throws IllegalArgumentException - если maxMatchLength не положительна
+     *     или выражение содержит \G.
+     * @throws IOException - если возникает ошибка при чтении.
+     */
+    public static void forEach(BufferedReader reader, Pattern pattern, int maxMatchLength,
+                               LongConsumer action) throws IOException {
+        checkMaxMatchLength(maxMatchLength);
+        String literal = literal(pattern);
+        if (literal == null) {
+            scan(reader, new RegexScan(pattern, maxMatchLength, action));
+        } else if ((pattern.flags() & Pattern.CASE_INSENSITIVE) == 0) {
+            SubFinder.forEach(reader, literal, Math.max(literal.length(), DECODE_BUFFER),
+                    SubFinder.DEFAULT_ALGORITHM, nonOverlapping(literal, action));
+        } else {
+            forEachIgnoreCase(reader, literal, nonOverlapping(literal, action));
+        }
+    }
+
+    /**
+     * Находит все вхождения подстроки без учёта регистра в файле в кодировке UTF-8.
+     *
+     * @param file - путь к файлу.
+     * @param substring - подстрока.
+     * @return - список индексов (в символах Unicode) всех вхождений по возрастанию.
+     * @throws IOException - если возникает ошибка при чтении файла.
+     */
+    public static List<Integer> findIgnoreCase(Path file, String substring) throws IOException {
+        List<Integer> res = new ArrayList<>();
+        forEachIgnoreCase(file, substring, index -> res.add(Math.toIntExact(index)));
+        return res;
+    }
+
+    /**
+     * Передаёт индексы всех вхождений подстроки без учёта регистра в файле в кодировке
+     * UTF-8 получателю по мере их нахождения. Пустая подстрока не находится.
+     *
+     * @param file - путь к файлу.
+     * @param substring - подстрока.
+     * @param action - получатель индексов (в символах Unicode) по возрастанию.
+     * @throws IOException - если возникает ошибка при чтении файла.
+     */
+    public static void forEachIgnoreCase(Path file, String substring, LongConsumer action)
+            throws IOException {
+        if (!substring.isEmpty()) {
+            scan(file, new FoldScan(substring, action));
+        }
+    }
+
+    /**
+     * Передаёт индексы всех вхождений подстроки без учёта регистра в тексте получателю
+     * по мере их нахождения. Пустая подстрока не находится.
+     *
+     * @param reader - buffered reader.
+     * @param substring - подстрока.
+     * @param action - получатель индексов (в символах Unicode) по возрастанию.
+     * @throws IOException - если возникает ошибка при чтении.
+     */
+    public static void forEachIgnoreCase(BufferedReader reader, String substring,
+                                         LongConsumer action) throws IOException {
+        if (!substring.isEmpty()) {
+            scan(reader, new FoldScan(substring, action));
+        }
+    }
+
+    /**
+     * Возвращает подстроку, если выражение ищет только её, иначе null.
+     */
+    private static String literal(Pattern pattern) {
+        int flags = pattern.flags();
+        String source = pattern.pattern();
+        if ((flags & ~LITERAL_FLAGS) != 0 || source.isEmpty()) {
+            return null;
+        }
+        if ((flags & Pattern.CASE_INSENSITIVE) != 0 && (flags & Pattern.UNICODE_CASE) == 0) {
+            return null;
+        }
+        if ((flags & Pattern.LITERAL) != 0) {
+            return source;
+        }
+
+        for (int i = 0; i < source.length(); i++) {
+            if (METACHARACTERS.indexOf(source.charAt(i)) >= 0) {
+                return null;
+            }
+        }
+        return source;
+    }
+
+    /**
+     * Пропускает вхождения подстроки, перекрывающиеся с предыдущим переданным, как это
+     * делает {@link Matcher#find()}; поиск подстроки сообщает и перекрывающиеся.
+     */
+    private static LongConsumer nonOverlapping(String literal, LongConsumer action) {
+        int length = literal.codePointCount(0, literal.length());
+        long[] next = {0};
+        return index -> {
+            if (index >= next[0]) {
+                next[0] = index + length;
+                action.accept(index);
+            }
+        };
+    }
+
+    private static void checkMaxMatchLength(int maxMatchLength) {
+        if (maxMatchLength <= 0) {
+            throw new IllegalArgumentException("Max match length must be positive.");
+        }
+    }
+
+    /**
+     * Проверяет, что выражение не содержит \G вне цитирования \Q...\E.
+     */
+    private static void checkNoPreviousMatchAnchor(Pattern pattern) {
+        String source = pattern.pattern();
+        boolean quoted = false;
+        for (int i = 0; i + 1 < source.length(); i++) {
+            if (source.charAt(i) != '\\') {
+                continue;
+            }
+            char escaped = source.charAt(++i);
+            if (quoted) {
+                quoted = escaped != 'E';
+            } else if (escaped == 'Q') {
+                quoted = true;
+            } else if (escaped == 'G') {
+                throw new IllegalArgumentException("\\G is not supported: " + source);
+            }
+        }
+    }
+
+    private static void scan(BufferedReader reader, Scan scan) throws IOException {
+        CharBuffer chars = CharBuffer.allocate(DECODE_BUFFER);
+        while (reader.read(chars) != -1) {
+            chars.flip();
+            scan.feed(chars);
+            chars.clear();
+        }
+        scan.finish();
+    }
+
+    /**
+     * Декодирует файл окнами; неполный символ в конце окна остаётся в начале следующего.
+     */
+    private static void scan(Path file, Scan scan) throws IOException {
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        CharBuffer chars = CharBuffer.allocate(DECODE_BUFFER);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long start = 0;
+            while (start < size) {
+                int length = (int) Math.min(SubFinder.DEFAULT_WINDOW_SIZE, size - start);
+                boolean last = start + length == size;
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+
+                while (decoder.decode(window, chars, last).isOverflow()) {
+                    chars.flip();
+                    scan.feed(chars);
+                    chars.clear();
+                }
+                chars.flip();
+                scan.feed(chars);
+                chars.clear();
+                start += window.position();
+                if (last) {
+                    break;
+                }
+            }
+        }
+
+        decoder.decode(ByteBuffer.allocate(0), chars, true);
+        decoder.flush(chars);
+        chars.flip();
+        scan.feed(chars);
+        scan.finish();
+    }
+
+    /**
+     * Поиск, получающий текст частями.
+     */
+    private abstract static class Scan {
+        /**
+         * Обрабатывает символы chunk между position и limit.
+         *
+         * @param chunk - очередная часть текста.
+         */
+        abstract void feed(CharBuffer chunk);
+
+        /**
+         * Завершает поиск после последней части.
+         */
+        abstract void finish();
+    }
+
+    /**
+     * Поиск регулярного выражения в буфере, хранящем maxMatchLength символов перед
+     * позицией поиска и ещё не просмотренный текст. Вхождение принимается, только если
+     * оно начинается не ближе maxMatchLength к концу буфера (или текст закончился).
+     */
+    private static final class RegexScan extends Scan {
+        private final Matcher matcher;
+        private final int maxLength;
+        private final LongConsumer action;
+        private char[] buffer;
+        private int length;
+        private int scanFrom;
+        private int counted;
+        private long countedCodePoints;
+
+        RegexScan(Pattern pattern, int maxLength, LongConsumer action) {
+            checkNoPreviousMatchAnchor(pattern);
+            this.matcher = pattern.matcher("").useTransparentBounds(true).useAnchoringBounds(false);
+            this.maxLength = maxLength;
+            this.action = action;
+            this.buffer = new char[Math.max(DECODE_BUFFER, 4 * maxLength)];
+        }
+
+        @Override
+        void feed(CharBuffer chunk) {
+            while (chunk.hasRemaining()) {
+                if (length == buffer.length) {
+                    compact();
+                    if (length == buffer.length) {
+                        buffer = Arrays.copyOf(buffer, 2 * length);
+                    }
+                }
+
+                int n = Math.min(chunk.remaining(), buffer.length - length);
+                chunk.get(buffer, length, n);
+                length += n;
+                search(false);
+            }
+        }
+
+        @Override
+        void finish() {
+            search(true);
+        }
+
+        private void search(boolean end) {
+            int safe = end ? length + 1 : length - maxLength;
+            matcher.reset(CharBuffer.wrap(buffer, 0, length));
+
+            while (scanFrom < safe && scanFrom <= length) {
+                matcher.region(scanFrom, length);
+                if (!matcher.find() || matcher.start() >= safe) {
+                    scanFrom = Math.max(scanFrom, safe);
+                    return;
+                }
+
+                // Пустое вхождение может начинаться между половинами пары: counted остаётся
+                // на границе пары, а начатая пара считается целым символом.
+                int start = matcher.start();
+                if (!end && matcher.hitEnd()) {
+                    // Вхождение дошло до конца прочитанного текста и может продолжиться:
+                    // оно ищется заново, когда придёт следующая часть.
+                    scanFrom = start;
+                    return;
+                }
+
+                boolean split = start > 0 && start < length
+                        && Character.isHighSurrogate(buffer[start - 1])
+                        && Character.isLowSurrogate(buffer[start]);
+                int boundary = split ? start - 1 : start;
+                countedCodePoints += Character.codePointCount(buffer, counted, boundary - counted);
+                counted = boundary;
+                action.accept(split ? countedCodePoints + 1 : countedCodePoints);
+                scanFrom = matcher.end() == start ? start + 1 : matcher.end();
+            }
+        }
+
+        /**
+         * Удаляет из буфера текст, который уже не нужен ни для поиска, ни как контекст.
+         */
+        private void compact() {
+            int drop = Math.max(0, Math.min(scanFrom, length) - maxLength);
+            if (drop > 0 && Character.isLowSurrogate(buffer[drop])
+                    && Character.isHighSurrogate(buffer[drop - 1])) {
+                drop--;
+            }
+            if (drop == 0) {
+                return;
+            }
+
+            if (counted < drop) {
+                countedCodePoints += Character.codePointCount(buffer, counted, drop - counted);
+                counted = drop;
+            }
+            System.arraycopy(buffer, drop, buffer, 0, length - drop);
+            length -= drop;
+            scanFrom -= drop;
+            counted -= drop;
+        }
+    }
+
+    /**
+     * Поиск подстроки без учёта регистра: Кнут-Моррис-Пратт над приведёнными символами
+     * Unicode. Суррогатная пара на границе частей дожидается второй половины.
+     */
+    private static final class FoldScan extends Scan {
+        private final int[] pattern;
+        private final int[] border;
+        private final LongConsumer action;
+        private int matched;
+        private long position;
+        private char high;
+
+        FoldScan(String substring, LongConsumer action) {
+            this.pattern = substring.codePoints().map(RegexFinder::fold).toArray();
+            this.border = new int[pattern.length];
+            this.action = action;
+            for (int i = 1, k = 0; i < pattern.length; i++) {
+                while (k > 0 && pattern[i] != pattern[k]) {
+                    k = border[k - 1];
+                }
+                if (pattern[i] == pattern[k]) {
+                    k++;
+                }
+                border[i] = k;
+            }
+        }
+
+        @Override
+        void feed(CharBuffer chunk) {
+            char[] chars = chunk.array();
+            int to = chunk.arrayOffset() + chunk.limit();
+
+            for (int i = chunk.arrayOffset() + chunk.position(); i < to; i++) {
+                char c = chars[i];
+                if (high != 0) {
+                    char h = high;
+                    high = 0;
+                    if (Character.isLowSurrogate(c)) {
+                        step(Character.toCodePoint(h, c));
+                        continue;
+                    }
+                    step(h);
+                }
+
+                if (Character.isHighSurrogate(c)) {
+                    high = c;
+                } else {
+                    step(c);
+                }
+            }
+            chunk.position(chunk.limit());
+        }
+
+        @Override
+        void finish() {
+            if (high != 0) {
+                step(high);
+                high = 0;
+            }
+        }
+
+        private void step(int codePoint) {
+            position++;
+            int c = fold(codePoint);
+            int q = matched;
+            while (q > 0 && pattern[q] != c) {
+                q = border[q - 1];
+            }
+            if (pattern[q] == c) {
+                q++;
+            }
+            if (q == pattern.length) {
+                action.accept(position - pattern.length);
+                q = border[q - 1];
+            }
+            matched = q;
+        }
+    }
+
+    /**
+     * Приводит символ к одному регистру; латиница без букв вне ASCII - без обращения
+     * к таблицам Unicode.
+     */
+    private static int fold(int codePoint) {
+        if (codePoint < 0x80) {
+            return codePoint >= 'A' && codePoint <= 'Z' ? codePoint + ('a' - 'A') : codePoint;
+        }
+        return Character.toLowerCase(Character.toUpperCase(codePoint));
+    }
+
+    /**
+     * Приватный конструктор для предотвращения создания экземпляров класса.
+     */
+    private RegexFinder() {
+        throw new UnsupportedOperationException();
+    }
+}
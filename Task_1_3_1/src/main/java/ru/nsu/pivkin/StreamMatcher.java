@@ -0,0 +1,274 @@
+package ru.nsu.pivkin;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Потоковый поиск байтовой подстроки: текст подаётся частями, и состояние поиска
+ * переносится из части в часть, так что вхождения на границах находятся без повторного
+ * просмотра текста и без проверки на повторы.
+ * Для каждого вхождения сообщается позиция (в координатах текущей части), следующая
+ * за его последним байтом; вхождение сообщается в той части, где оно заканчивается.
+ * Позиции сообщаются по возрастанию.
+ */
+abstract class StreamMatcher {
+    final byte[] pattern;
+
+    /**
+     * Создаёт поиск подстроки.
+     *
+     * @param pattern - непустая подстрока.
+     */
+    StreamMatcher(byte[] pattern) {
+        this.pattern = pattern;
+    }
+
+    /**
+     * Создаёт поиск подстроки заданным алгоритмом.
+     *
+     * @param algorithm - алгоритм.
+     * @param pattern - непустая подстрока.
+     * @return - поиск.
+     */
+    static StreamMatcher of(SubFinder.Algorithm algorithm, byte[] pattern) {
+        return switch (algorithm) {
+            case KMP -> new Kmp(pattern);
+            case TWO_WAY -> new TwoWay(pattern);
+            case BMH -> new Horspool(pattern);
+        };
+    }
+
+    /**
+     * Обрабатывает очередную часть текста chunk[from, to).
+     *
+     * @param chunk - часть текста.
+     * @param from - начало части.
+     * @param to - конец части.
+     * @param ends - получатель позиций концов вхождений.
+     */
+    abstract void feed(ByteBuffer chunk, int from, int to, IntConsumer ends);
+
+    /**
+     * Алгоритм Кнута-Морриса-Пратта: состояние - длина совпавшего префикса подстроки,
+     * так что границы частей для него ничем не отличаются от остального текста.
+     * O(n) сравнений в худшем случае.
+     */
+    private static final class Kmp extends StreamMatcher {
+        private final int[] border;
+        private int matched;
+
+        Kmp(byte[] pattern) {
+            super(pattern);
+            border = new int[pattern.length];
+            for (int i = 1, k = 0; i < pattern.length; i++) {
+                while (k > 0 && pattern[i] != pattern[k]) {
+                    k = border[k - 1];
+                }
+                if (pattern[i] == pattern[k]) {
+                    k++;
+                }
+                border[i] = k;
+            }
+        }
+
+        @Override
+        void feed(ByteBuffer chunk, int from, int to, IntConsumer ends) {
+            int q = matched;
+
+            for (int i = from; i < to; i++) {
+                byte b = chunk.get(i);
+                while (q > 0 && pattern[q] != b) {
+                    q = border[q - 1];
+                }
+                if (pattern[q] == b) {
+                    q++;
+                }
+                if (q == pattern.length) {
+                    ends.accept(i + 1);
+                    q = border[q - 1];
+                }
+            }
+
+            matched = q;
+        }
+    }
+
+    /**
+     * Поиск блочным алгоритмом, которому нужен весь текст сразу. Между частями хранятся
+     * последние pattern.length - 1 байт; вхождения, пересекающие границу, ищутся
+     * в «мосте» из этих байтов и начала новой части (не длиннее 2·(m - 1)),
+     * а сама часть просматривается целиком. Вхождение длины m не помещается ни в хвост,
+     * ни в начало части длины m - 1, поэтому каждое находится ровно один раз.
+     */
+    private abstract static class Block extends StreamMatcher {
+        private final byte[] bridge;
+        private final ByteBuffer bridgeBuffer;
+        private int tail;
+
+        Block(byte[] pattern) {
+            super(pattern);
+            bridge = new byte[2 * (pattern.length - 1)];
+            bridgeBuffer = ByteBuffer.wrap(bridge);
+        }
+
+        /**
+         * Ищет вхождения, целиком лежащие в text[from, to).
+         */
+        abstract void search(ByteBuffer text, int from, int to, IntConsumer ends);
+
+        @Override
+        void feed(ByteBuffer chunk, int from, int to, IntConsumer ends) {
+            int keep = pattern.length - 1;
+            int head = Math.min(keep, to - from);
+
+            chunk.get(from, bridge, tail, head);
+            if (tail > 0) {
+                search(bridgeBuffer, 0, tail + head, end -> ends.accept(end - tail + from));
+            }
+
+            search(chunk, from, to, ends);
+
+            if (to - from >= keep) {
+                chunk.get(to - keep, bridge, 0, keep);
+                tail = keep;
+            } else {
+                int total = tail + head;
+                int drop = Math.max(0, total - keep);
+                System.arraycopy(bridge, drop, bridge, 0, total - drop);
+                tail = total - drop;
+            }
+        }
+    }
+
+    /**
+     * Алгоритм Бойера-Мура-Хорспула: сравнение с конца окна и сдвиг по последнему байту
+     * окна. В среднем просматривает лишь часть текста, но в худшем случае
+     * (например, "baaa" в "aaaa...") делает O(n·m) сравнений.
+     */
+    private static final class Horspool extends Block {
+        private final int[] shift = new int[256];
+
+        Horspool(byte[] pattern) {
+            super(pattern);
+            int m = pattern.length;
+            Arrays.fill(shift, m);
+            for (int i = 0; i < m - 1; i++) {
+                shift[pattern[i] & 0xFF] = m - 1 - i;
+            }
+        }
+
+        @Override
+        void search(ByteBuffer text, int from, int to, IntConsumer ends) {
+            int m = pattern.length;
+            byte last = pattern[m - 1];
+
+            for (int pos = from; pos <= to - m; ) {
+                byte b = text.get(pos + m - 1);
+                if (b == last) {
+                    int j = m - 2;
+                    while (j >= 0 && text.get(pos + j) == pattern[j]) {
+                        j--;
+                    }
+                    if (j < 0) {
+                        ends.accept(pos + m);
+                    }
+                }
+                pos += shift[b & 0xFF];
+            }
+        }
+    }
+
+    /**
+     * Двусторонний алгоритм Крошмора-Перрена: подстрока делится в критической позиции
+     * на левую и правую части; правая сравнивается слева направо, левая - справа
+     * налево, а периодичность подстроки позволяет не сравнивать повторно уже
+     * совпавшие байты. O(n) сравнений в худшем случае и O(1) дополнительной памяти.
+     */
+    private static final class TwoWay extends Block {
+        private final int critical;
+        private final int period;
+        private final boolean periodic;
+
+        TwoWay(byte[] pattern) {
+            super(pattern);
+            int m = pattern.length;
+            long direct = maximalSuffix(pattern, false);
+            long reversed = maximalSuffix(pattern, true);
+            boolean useDirect = (int) direct > (int) reversed;
+            int ell = (int) (useDirect ? direct : reversed);
+            int per = (int) ((useDirect ? direct : reversed) >>> 32);
+
+            critical = ell;
+            periodic = per + ell + 1 <= m
+                && Arrays.equals(pattern, 0, ell + 1, pattern, per, per + ell + 1);
+            period = periodic ? per : Math.max(ell + 1, m - ell - 1) + 1;
+        }
+
+        /**
+         * Максимальный суффикс подстроки в лексикографическом порядке (или обратном ему).
+         *
+         * @return - период суффикса в старших 32 битах и позиция перед суффиксом в младших.
+         */
+        private static long maximalSuffix(byte[] x, boolean reversed) {
+            int ms = -1;
+            int j = 0;
+            int k = 1;
+            int p = 1;
+
+            while (j + k < x.length) {
+                int a = x[j + k] & 0xFF;
+                int b = x[ms + k] & 0xFF;
+                if (reversed ? a > b : a < b) {
+                    j += k;
+                    k = 1;
+                    p = j - ms;
+                } else if (a == b) {
+                    if (k != p) {
+                        k++;
+                    } else {
+                        j += p;
+                        k = 1;
+                    }
+                } else {
+                    ms = j;
+                    j = ms + 1;
+                    k = 1;
+                    p = 1;
+                }
+            }
+
+            return ((long) p << 32) | (ms & 0xFFFFFFFFL);
+        }
+
+        @Override
+        void search(ByteBuffer text, int from, int to, IntConsumer ends) {
+            int m = pattern.length;
+            int memory = -1;
+
+            for (int j = from; j <= to - m; ) {
+                int i = Math.max(critical, memory) + 1;
+                while (i < m && pattern[i] == text.get(i + j)) {
+                    i++;
+                }
+
+                if (i < m) {
+                    j += i - critical;
+                    memory = -1;
+                    continue;
+                }
+
+                i = critical;
+                while (i > memory && pattern[i] == text.get(i + j)) {
+                    i--;
+                }
+                if (i <= memory) {
+                    ends.accept(j + m);
+                }
+
+                j += period;
+                memory = periodic ? m - period - 1 : -1;
+            }
+        }
+    }
+}
@@ -2,18 +2,76 @@ package ru.nsu.pivkin;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
 
 /**
  * Класс для поиска всех вхождений подстроки в текстовом файле.
  * Поддерживает работу с файлами, размер которых превышает объём оперативной памяти,
  * за счёт чтения файла частями заданного размера.
+ * Поиск идёт по байтам UTF-8: текст из BufferedReader кодируется в UTF-8 по частям,
+ * а файл (find(Path, ...)) отображается в память и просматривается без декодирования
+ * в строки. Части подаются потоковому поиску ({@link Algorithm}), который переносит
+ * состояние через границы частей, так что текст не просматривается повторно,
+ * а найденные индексы не нужно проверять на повторы: время O(n + число вхождений).
+ * UTF-8 самосинхронизируется, поэтому совпадение байтов всегда начинается на границе
+ * символа, а номер символа - это количество байтов, не являющихся продолжением
+ * (10xxxxxx), перед началом вхождения.
+ * Методы find собирают индексы в список; чтобы не хранить все вхождения в памяти,
+ * есть потоковые методы с индексами типа long (файлы длиннее 2^31 символов):
+ * forEach передаёт индексы получателю по мере нахождения, stream возвращает ленивый
+ * LongStream, который читает файл только по мере потребления, count считает вхождения
+ * без их хранения, а first находит первые вхождения и прекращает чтение.
  */
 public final class SubFinder {
 
     public static final int DEFAULT_BUFFER_SIZE = 1024;
 
+    public static final int DEFAULT_WINDOW_SIZE = 1 << 30;
+
+    public static final Algorithm DEFAULT_ALGORITHM = Algorithm.TWO_WAY;
+
+    private static final long MSB = 0x8080808080808080L;
+
+    /**
+     * Алгоритм поиска подстроки.
+     */
+    public enum Algorithm {
+        /**
+         * Кнут-Моррис-Пратт: побайтовый автомат, O(n) в худшем случае.
+         */
+        KMP,
+        /**
+         * Двусторонний алгоритм Крошмора-Перрена: O(n) в худшем случае и O(1) памяти,
+         * на обычных текстах быстрее KMP.
+         */
+        TWO_WAY,
+        /**
+         * Бойер-Мур-Хорспул: пропускает часть текста и быстрее всех на длинных
+         * подстроках, но в худшем случае требует O(n·m) сравнений.
+         */
+        BMH
+    }
+
     /**
      * Находит все вхождения подстроки в файле с использованием фиксированного размера буфера.
      *
@@ -38,48 +96,455 @@ public final class SubFinder {
      * @throws RuntimeException - если возникает ошибка при чтении файла.
      */
     public static List<Integer> find(BufferedReader reader, String substring, Integer bufferSize) throws IOException {
+        return find(reader, substring, bufferSize, DEFAULT_ALGORITHM);
+    }
+
+    /**
+     * Находит все вхождения подстроки заданным алгоритмом с использованием указанного
+     * размера буфера. Прочитанные символы кодируются в UTF-8 (неправильные суррогатные
+     * пары заменяются одним символом), суррогатная пара на границе буфера
+     * дожидается своей второй половины.
+     *
+     * @param reader - buffered reader.
+     * @param substring - подстрока.
+     * @param bufferSize - размер буфера для чтения файла (в символах).
+     * @param algorithm - алгоритм поиска.
+     * @return - список индексов (в символах Unicode) всех вхождений.
+     * @throws IllegalArgumentException - если размер буфера меньше длины подстроки.
+     * @throws IOException - если возникает ошибка при чтении файла.
+     */
+    public static List<Integer> find(BufferedReader reader, String substring, int bufferSize,
+                                     Algorithm algorithm) throws IOException {
         List<Integer> res = new ArrayList<>();
+        forEach(reader, substring, bufferSize, algorithm, index -> res.add(Math.toIntExact(index)));
+        return res;
+    }
 
+    /**
+     * Передаёт индексы всех вхождений подстроки получателю по мере их нахождения,
+     * не накапливая их; в остальном работает как find(BufferedReader, String, int, Algorithm).
+     *
+     * @param reader - buffered reader.
+     * @param substring - подстрока.
+     * @param bufferSize - размер буфера для чтения файла (в символах).
+     * @param algorithm - алгоритм поиска.
+     * @param action - получатель индексов (в символах Unicode) по возрастанию.
+     * @throws IllegalArgumentException - если размер буфера меньше длины подстроки.
+     * @throws IOException - если возникает ошибка при чтении файла.
+     */
+    public static void forEach(BufferedReader reader, String substring, int bufferSize,
+                               Algorithm algorithm, LongConsumer action) throws IOException {
         if (bufferSize < substring.length()) {
             throw new IllegalArgumentException("Buffer size can't be less than substring size.");
         }
 
         if (substring.isEmpty()) {
-            return res;
+            return;
+        }
+
+        Search search = new Search(algorithm, substring, action);
+        CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        CharBuffer chars = CharBuffer.allocate(Math.max(bufferSize, 2));
+        ByteBuffer bytes = ByteBuffer.allocate(chars.capacity() * 3);
+
+        while (reader.read(chars) != -1) {
+            chars.flip();
+            encoder.encode(chars, bytes, false);
+            chars.compact();
+            search.feed(bytes.flip());
+            bytes.clear();
+        }
+
+        chars.flip();
+        encoder.encode(chars, bytes, true);
+        encoder.flush(bytes);
+        search.feed(bytes.flip());
+    }
+
+    /**
+     * Находит все вхождения подстроки в файле в кодировке UTF-8, отображая его в память
+     * окнами по {@link #DEFAULT_WINDOW_SIZE} байт.
+     *
+     * @param file - путь к файлу.
+     * @param substring - подстрока.
+     * @return - список индексов (в символах Unicode) всех вхождений.
+     * @throws IOException - если возникает ошибка при чтении файла.
+     */
+    public static List<Integer> find(Path file, String substring) throws IOException {
+        return find(file, substring, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Находит все вхождения подстроки в файле в кодировке UTF-8, отображая его в память
+     * окнами заданного размера.
+     *
+     * @param file - путь к файлу.
+     * @param substring - подстрока.
+     * @param windowSize - размер окна отображения в байтах.
+     * @return - список индексов (в символах Unicode) всех вхождений.
+     * @throws IllegalArgumentException - если окно меньше длины подстроки в UTF-8.
+     * @throws IOException - если возникает ошибка при чтении файла.
+     */
+    public static List<Integer> find(Path file, String substring, int windowSize)
+            throws IOException {
+        return find(file, substring, windowSize, DEFAULT_ALGORITHM);
+    }
+
+    /**
+     * Находит все вхождения подстроки в файле в кодировке UTF-8 заданным алгоритмом,
+     * отображая его в память окнами заданного размера. Окна не перекрываются: вхождения
+     * на границах находит потоковый поиск. Индексы совпадают с find(BufferedReader, ...)
+     * для корректного UTF-8.
+     *
+     * @param file - путь к файлу.
+     * @param substring - подстрока.
+     * @param windowSize - размер окна отображения в байтах.
+     * @param algorithm - алгоритм поиска.
+     * @return - список индексов (в символах Unicode) всех вхождений.
+     * @throws IllegalArgumentException - если окно меньше длины подстроки в UTF-8.
+     * @throws IOException - если возникает ошибка при чтении файла.
+     */
+    public static List<Integer> find(Path file, String substring, int windowSize,
+                                     Algorithm algorithm) throws IOException {
+        List<Integer> res = new ArrayList<>();
+        forEach(file, substring, windowSize, algorithm, index -> res.add(Math.toIntExact(index)));
+        return res;
+    }
+
+    /**
+     * Передаёт индексы всех вхождений подстроки в файле в кодировке UTF-8 получателю
+     * по мере их нахождения, не накапливая их.
+     *
+     * @param file - путь к файлу.
+     * @param substring - подстрока.
+     * @param action - получатель индексов (в символах Unicode) по возрастанию.
+     * @throws IOException - если возникает ошибка при чтении файла.
+     */
+    public static void forEach(Path file, String substring, LongConsumer action)
+            throws IOException {
+        forEach(file, substring, DEFAULT_WINDOW_SIZE, DEFAULT_ALGORITHM, action);
+    }
+
+    /**
+     * Передаёт индексы всех вхождений подстроки в файле в кодировке UTF-8 получателю
+     * по мере их нахождения, не накапливая их; в остальном работает
+     * как find(Path, String, int, Algorithm).
+     *
+     * @param file - путь к файлу.
+     * @param substring - подстрока.
+     * @param windowSize - размер окна отображения в байтах.
+     * @param algorithm - алгоритм поиска.
+     * @param action - получатель индексов (в символах Unicode) по возрастанию.
+     * @throws IllegalArgumentException - если окно меньше длины подстроки в UTF-8.
+     * @throws IOException - если возникает ошибка при чтении файла.
+     */
+    public static void forEach(Path file, String substring, int windowSize, Algorithm algorithm,
+                               LongConsumer action) throws IOException {
+        if (windowSize < substring.getBytes(StandardCharsets.UTF_8).length) {
+            throw new IllegalArgumentException("Window size can't be less than substring size.");
+        }
+
+        if (substring.isEmpty()) {
+            return;
         }
 
-        StringBuilder buffer = new StringBuilder();
-        char[] charBuffer = new char[bufferSize];
-        int posCodePoint = 0;
-        int charsRead;
+        Search search = new Search(algorithm, substring, action);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long start = 0; start < size; start += windowSize) {
+                int length = (int) Math.min(windowSize, size - start);
+                search.feed(channel.map(FileChannel.MapMode.READ_ONLY, start, length));
+            }
+        }
+    }
 
-        while ((charsRead = reader.read(charBuffer)) != -1) {
-            buffer.append(charBuffer, 0, charsRead);
-            String text = buffer.toString();
-            int fromIndex = 0;
+    /**
+     * Возвращает ленивый поток индексов всех вхождений подстроки в файле в кодировке UTF-8.
+     * Файл читается частями по мере потребления потока, так что короткозамкнутые
+     * операции (limit, findFirst, anyMatch) прекращают чтение. Поток держит файл
+     * открытым до исчерпания или закрытия, поэтому его следует закрывать
+     * (try-with-resources). Ошибки чтения бросаются как {@link UncheckedIOException}.
+     *
+     * @param file - путь к файлу.
+     * @param substring - подстрока.
+     * @return - последовательный поток индексов (в символах Unicode) по возрастанию.
+     * @throws IOException - если файл не удаётся открыть.
+     */
+    public static LongStream stream(Path file, String substring) throws IOException {
+        return stream(file, substring, DEFAULT_ALGORITHM);
+    }
 
-            while (true) {
-                int charIndex = text.indexOf(substring, fromIndex);
-                if (charIndex == -1) {
-                    break;
+    /**
+     * Возвращает ленивый поток индексов всех вхождений подстроки, найденных заданным
+     * алгоритмом; см. {@link #stream(Path, String)}.
+     *
+     * @param file - путь к файлу.
+     * @param substring - подстрока.
+     * @param algorithm - алгоритм поиска.
+     * @return - последовательный поток индексов (в символах Unicode) по возрастанию.
+     * @throws IOException - если файл не удаётся открыть.
+     */
+    public static LongStream stream(Path file, String substring, Algorithm algorithm)
+            throws IOException {
+        if (substring.isEmpty()) {
+            return LongStream.empty();
+        }
+
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        MatchSpliterator spliterator;
+        try {
+            spliterator = new MatchSpliterator(channel, substring, algorithm);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return StreamSupport.longStream(spliterator, false).onClose(spliterator::close);
+    }
+
+    /**
+     * Считает вхождения подстроки в файле в кодировке UTF-8, не сохраняя их индексы.
+     *
+     * @param file - путь к файлу.
+     * @param substring - подстрока.
+     * @return - количество вхождений.
+     * @throws IOException - если возникает ошибка при чтении файла.
+     */
+    public static long count(Path file, String substring) throws IOException {
+        long[] count = {0};
+        forEach(file, substring, index -> count[0]++);
+        return count[0];
+    }
+
+    /**
+     * Находит не больше limit первых вхождений подстроки в файле в кодировке UTF-8;
+     * чтение файла прекращается, как только они найдены.
+     *
+     * @param file - путь к файлу.
+     * @param substring - подстрока.
+     * @param limit - наибольшее количество вхождений.
+     * @return - индексы (в символах Unicode) первых вхождений по возрастанию.
+     * @throws IllegalArgumentException - если limit отрицателен.
+     * @throws IOException - если возникает ошибка при чтении файла.
+     */
+    public static long[] first(Path file, String substring, long limit) throws IOException {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit can't be negative.");
+        }
+
+        try (LongStream matches = stream(file, substring)) {
+            return matches.limit(limit).toArray();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Находит вхождения сразу многих подстрок за один проход по файлу в кодировке UTF-8.
+     * Для повторных поисков тех же подстрок выгоднее один раз построить {@link AhoCorasick}.
+     *
+     * @param file - путь к файлу.
+     * @param substrings - подстроки.
+     * @return - для каждой подстроки список индексов (в символах Unicode) её вхождений.
+     * @throws IOException - если возникает ошибка при чтении файла.
+     */
+    public static Map<String, List<Integer>> find(Path file, Collection<String> substrings)
+            throws IOException {
+        return new AhoCorasick(substrings).find(file);
+    }
+
+    /**
+     * Считает символы UTF-8 в [from, to): байты, не являющиеся продолжением символа.
+     * Байт продолжения имеет вид 10xxxxxx, так что по 8 байт за раз их отмечает
+     * выражение {@code w & ~(w << 1) & 0x80..80}.
+     *
+     * @param window - часть текста.
+     * @param from - начало диапазона.
+     * @param to - конец диапазона.
+     * @return - количество символов.
+     */
+    private static int countCodePoints(ByteBuffer window, int from, int to) {
+        int count = to - from;
+        int i = from;
+
+        for (; i + Long.BYTES <= to; i += Long.BYTES) {
+            long w = window.getLong(i);
+            count -= Long.bitCount(w & ~(w << 1) & MSB);
+        }
+
+        for (; i < to; i++) {
+            if ((window.get(i) & 0xC0) == 0x80) {
+                count--;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Потоковый поиск одной подстроки с переводом позиций байтов в индексы символов.
+     * Поиск сообщает конец вхождения в текущей части, поэтому символы досчитываются
+     * до конца вхождения, а его индекс - это номер символа за концом минус длина подстроки
+     * в символах (начало вхождения может лежать в предыдущей части).
+     */
+    static final class Search {
+        private final StreamMatcher matcher;
+        private final int patternCodePoints;
+        private final LongConsumer sink;
+        private final IntConsumer onEnd = this::onEnd;
+        private long posCodePoint;
+        private ByteBuffer chunk;
+        private int counted;
+
+        /**
+         * Создаёт поиск.
+         *
+         * @param algorithm - алгоритм поиска.
+         * @param substring - непустая подстрока.
+         * @param sink - получатель индексов (в символах Unicode от начала поиска).
+         */
+        Search(Algorithm algorithm, String substring, LongConsumer sink) {
+            this.matcher = StreamMatcher.of(algorithm, substring.getBytes(StandardCharsets.UTF_8));
+            this.patternCodePoints = substring.codePointCount(0, substring.length());
+            this.sink = sink;
+        }
+
+        /**
+         * Обрабатывает байты chunk между position и limit.
+         *
+         * @param chunk - очередная часть текста.
+         */
+        void feed(ByteBuffer chunk) {
+            this.chunk = chunk;
+            counted = chunk.position();
+            matcher.feed(chunk, chunk.position(), chunk.limit(), onEnd);
+            posCodePoint += countCodePoints(chunk, counted, chunk.limit());
+        }
+
+        /**
+         * Возвращает количество символов во всех обработанных частях.
+         *
+         * @return - количество символов.
+         */
+        long codePoints() {
+            return posCodePoint;
+        }
+
+        private void onEnd(int end) {
+            posCodePoint += countCodePoints(chunk, counted, end);
+            counted = end;
+            sink.accept(posCodePoint - patternCodePoints);
+        }
+    }
+
+    /**
+     * Источник ленивого потока вхождений: файл отображается в память окнами
+     * по {@link #DEFAULT_WINDOW_SIZE} байт, а поиску подаются части окна
+     * по STREAM_SLICE байт, так что буфер ещё не отданных индексов не превышает
+     * числа вхождений в одной части.
+     */
+    private static final class MatchSpliterator implements Spliterator.OfLong, LongConsumer {
+        private static final int STREAM_SLICE = 64 * 1024;
+
+        private final FileChannel channel;
+        private final long size;
+        private final Search search;
+        private long[] pending = new long[64];
+        private int head;
+        private int count;
+        private MappedByteBuffer window;
+        private long windowStart;
+        private long position;
+
+        MatchSpliterator(FileChannel channel, String substring, Algorithm algorithm)
+                throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+            this.search = new Search(algorithm, substring, this);
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            while (head == count) {
+                if (!fill()) {
+                    return false;
                 }
+            }
+            action.accept(pending[head++]);
+            return true;
+        }
 
-                int indexCodePoint = posCodePoint + text.codePointCount(0, charIndex);
-                if (!res.contains(indexCodePoint)) {
-                    res.add(indexCodePoint);
+        /**
+         * Подаёт поиску следующую часть файла.
+         *
+         * @return - false, если файл закончился.
+         */
+        private boolean fill() {
+            head = 0;
+            count = 0;
+
+            if (position >= size) {
+                close();
+                return false;
+            }
+
+            if (window == null || position == windowStart + window.capacity()) {
+                windowStart = position;
+                int length = (int) Math.min(DEFAULT_WINDOW_SIZE, size - position);
+                try {
+                    window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
                 }
+            }
+
+            int from = (int) (position - windowStart);
+            int to = Math.min(from + STREAM_SLICE, window.capacity());
+            search.feed(window.limit(to).position(from));
+            position = windowStart + to;
+            return true;
+        }
 
-                fromIndex = charIndex + 1;
+        @Override
+        public void accept(long index) {
+            if (count == pending.length) {
+                pending = Arrays.copyOf(pending, count * 2);
             }
+            pending[count++] = index;
+        }
 
-            int keepChars = Math.max(0, buffer.length() - substring.length());
-            int readedCodePoint = buffer.substring(0, keepChars).codePointCount(0, keepChars);
+        @Override
+        public Spliterator.OfLong trySplit() {
+            return null;
+        }
 
-            buffer.delete(0, keepChars);
-            posCodePoint += readedCodePoint;
+        @Override
+        public long estimateSize() {
+            return Long.MAX_VALUE;
         }
 
-        return res;
+        @Override
+        public int characteristics() {
+            return ORDERED | DISTINCT | SORTED | NONNULL | IMMUTABLE;
+        }
+
+        @Override
+        public Comparator<? super Long> getComparator() {
+            return null;
+        }
+
+        /**
+         * Закрывает файл; повторные вызовы ничего не делают.
+         */
+        void close() {
+            window = null;
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
     }
 
     private SubFinder() {
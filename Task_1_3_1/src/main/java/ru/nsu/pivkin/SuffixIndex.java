@@ -0,0 +1,436 @@
+package ru.nsu.pivkin;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Суффиксный массив файла в кодировке UTF-8, сохранённый на диске, для многократного
+ * поиска подстрок в одном и том же неизменном тексте без его повторного просмотра.
+ * Массив строится над байтами текста алгоритмом SA-IS за O(n), но хранятся лишь
+ * суффиксы, начинающиеся на границе символа (вхождение подстроки в UTF-8 всегда
+ * начинается на ней), и для каждого - номер символа. Файл индекса:
+ * заголовок, затем n смещений суффиксов в байтах в лексикографическом порядке
+ * и n номеров символов тех же суффиксов (int, little-endian), где n - число
+ * символов текста; размер индекса - HEADER_SIZE + 8n байт.
+ * Индекс и текст отображаются в память, а запрос - два двоичных поиска границ
+ * диапазона суффиксов, начинающихся с подстроки: O(m log n) сравнений байтов.
+ * Построение держит текст в памяти и требует около 13 байт на байт текста;
+ * текст ограничен 2^31 - 1 байтами и 2^29 символами.
+ * Объект неизменяем и может использоваться из нескольких потоков.
+ */
+public final class SuffixIndex {
+    /**
+     * Размер заголовка файла индекса в байтах.
+     */
+    public static final int HEADER_SIZE = 32;
+
+    private static final int MAGIC = 0x58464653; // "SFFX"
+    private static final int VERSION = 1;
+    private static final int MAX_SUFFIXES = Integer.MAX_VALUE / Integer.BYTES;
+    private static final int WRITE_BUFFER = 1 << 16;
+
+    private final MappedByteBuffer text;
+    private final int textSize;
+    private final IntBuffer offsets;
+    private final IntBuffer codePoints;
+    private final int size;
+
+    private SuffixIndex(MappedByteBuffer text, IntBuffer offsets, IntBuffer codePoints) {
+        this.text = text;
+        this.textSize = text.capacity();
+        this.offsets = offsets;
+        this.codePoints = codePoints;
+        this.size = offsets.capacity();
+    }
+
+    /**
+     * Строит индекс текста, записывает его в файл и открывает.
+     *
+     * @param file - путь к тексту в кодировке UTF-8.
+     * @param index - путь к файлу индекса (перезаписывается).
+     * @return - открытый индекс.
+     * @throws IllegalArgumentException - если текст слишком велик для индекса.
+     * @throws IOException - если возникает ошибка при чтении или записи.
+     */
+    public static SuffixIndex build(Path file, Path index) throws IOException {
+        long fileSize = Files.size(file);
+        if (fileSize >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Text is too large for the index: " + fileSize);
+        }
+        long modified = Files.getLastModifiedTime(file).toMillis();
+        byte[] bytes = Files.readAllBytes(file);
+
+        int n = 0;
+        for (byte b : bytes) {
+            if ((b & 0xC0) != 0x80) {
+                n++;
+            }
+        }
+        if (n > MAX_SUFFIXES) {
+            throw new IllegalArgumentException("Text is too large for the index: " + n);
+        }
+
+        int[] sa = suffixArray(bytes);
+        int[] cp = new int[bytes.length];
+        for (int p = 0, count = 0; p < bytes.length; p++) {
+            cp[p] = count;
+            if ((bytes[p] & 0xC0) != 0x80) {
+                count++;
+            }
+        }
+
+        int kept = 0;
+        for (int i = 1; i < sa.length; i++) {
+            int p = sa[i];
+            if ((bytes[p] & 0xC0) != 0x80) {
+                sa[kept++] = p;
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(index, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(bytes.length).putLong(modified)
+                    .putInt(n).putInt(0);
+
+            for (int i = 0; i < n; i++) {
+                writeInt(channel, buffer, sa[i]);
+            }
+            for (int i = 0; i < n; i++) {
+                writeInt(channel, buffer, cp[sa[i]]);
+            }
+            flush(channel, buffer);
+        }
+
+        return open(file, index);
+    }
+
+    /**
+     * Открывает ранее построенный индекс текста.
+     *
+     * @param file - путь к тексту, по которому строился индекс.
+     * @param index - путь к файлу индекса.
+     * @return - открытый индекс.
+     * @throws IOException - если индекс повреждён или текст изменился после построения.
+     */
+    public static SuffixIndex open(Path file, Path index) throws IOException {
+        try (FileChannel indexChannel = FileChannel.open(index, StandardOpenOption.READ);
+             FileChannel textChannel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (indexChannel.size() < HEADER_SIZE) {
+                throw new IOException("Not a suffix index: " + index);
+            }
+
+            ByteBuffer header = indexChannel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new IOException("Not a suffix index: " + index);
+            }
+
+            long textSize = header.getLong(8);
+            long modified = header.getLong(16);
+            int n = header.getInt(24);
+            if (textSize != textChannel.size()
+                    || modified != Files.getLastModifiedTime(file).toMillis()) {
+                throw new IOException("Index is out of date: " + index);
+            }
+            if (indexChannel.size() != HEADER_SIZE + 8L * n) {
+                throw new IOException("Index is truncated: " + index);
+            }
+
+            long arrayBytes = 4L * n;
+            MappedByteBuffer text = textChannel.map(FileChannel.MapMode.READ_ONLY, 0, textSize);
+            IntBuffer offsets = indexChannel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE,
+                    arrayBytes).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            IntBuffer codePoints = indexChannel.map(FileChannel.MapMode.READ_ONLY,
+                    HEADER_SIZE + arrayBytes, arrayBytes).order(ByteOrder.LITTLE_ENDIAN)
+                    .asIntBuffer();
+            return new SuffixIndex(text, offsets, codePoints);
+        }
+    }
+
+    /**
+     * Возвращает количество суффиксов в индексе (символов в тексте).
+     *
+     * @return - количество суффиксов.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Считает вхождения подстроки за O(m log n), не перечисляя их.
+     *
+     * @param substring - подстрока.
+     * @return - количество вхождений.
+     */
+    public long count(String substring) {
+        if (substring.isEmpty()) {
+            return 0;
+        }
+
+        byte[] pattern = substring.getBytes(StandardCharsets.UTF_8);
+        return upperBound(pattern) - lowerBound(pattern);
+    }
+
+    /**
+     * Находит все вхождения подстроки: O(m log n) на поиск диапазона и O(k log k)
+     * на упорядочивание k найденных индексов.
+     *
+     * @param substring - подстрока.
+     * @return - индексы (в символах Unicode) всех вхождений по возрастанию.
+     */
+    public long[] find(String substring) {
+        if (substring.isEmpty()) {
+            return new long[0];
+        }
+
+        byte[] pattern = substring.getBytes(StandardCharsets.UTF_8);
+        int from = lowerBound(pattern);
+        int to = upperBound(pattern);
+
+        long[] res = new long[to - from];
+        for (int i = from; i < to; i++) {
+            res[i - from] = codePoints.get(i);
+        }
+        Arrays.sort(res);
+        return res;
+    }
+
+    /**
+     * Первый суффикс, не меньший подстроки.
+     */
+    private int lowerBound(byte[] pattern) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compare(offsets.get(mid), pattern) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Первый суффикс, больший подстроки и не начинающийся с неё.
+     */
+    private int upperBound(byte[] pattern) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compare(offsets.get(mid), pattern) <= 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Сравнивает начало суффикса с подстрокой.
+     *
+     * @return - 0, если суффикс начинается с подстроки, иначе знак их сравнения.
+     */
+    private int compare(int offset, byte[] pattern) {
+        int length = Math.min(pattern.length, textSize - offset);
+        for (int j = 0; j < length; j++) {
+            int diff = (text.get(offset + j) & 0xFF) - (pattern[j] & 0xFF);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return length == pattern.length ? 0 : -1;
+    }
+
+    private static void writeInt(FileChannel channel, ByteBuffer buffer, int value)
+            throws IOException {
+        if (buffer.remaining() < Integer.BYTES) {
+            flush(channel, buffer);
+        }
+        buffer.putInt(value);
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Суффиксный массив байтов с добавленным в конец наименьшим символом.
+     *
+     * @param bytes - текст.
+     * @return - массив длины bytes.length + 1; нулевой элемент - пустой суффикс.
+     */
+    static int[] suffixArray(byte[] bytes) {
+        if (bytes.length == 0) {
+            return new int[] {0};
+        }
+
+        int n = bytes.length + 1;
+        int[] text = new int[n];
+        for (int i = 0; i < bytes.length; i++) {
+            text[i] = (bytes[i] & 0xFF) + 1;
+        }
+
+        int[] sa = new int[n];
+        sais(text, sa, n, 257);
+        return sa;
+    }
+
+    /**
+     * Алгоритм SA-IS (Nong, Zhang, Chan): суффиксы делятся на S- и L-типы, LMS-подстроки
+     * сортируются индуцированием, получают имена, и если имена не уникальны, задача
+     * рекурсивно решается для строки из имён вдвое меньшей длины; затем порядок
+     * LMS-суффиксов индуцирует порядок остальных.
+     *
+     * @param text - строка, последний символ которой 0 и встречается один раз.
+     * @param sa - результат.
+     * @param n - длина строки.
+     * @param alphabet - размер алфавита.
+     */
+    private static void sais(int[] text, int[] sa, int n, int alphabet) {
+        boolean[] stype = new boolean[n];
+        stype[n - 1] = true;
+        for (int i = n - 2; i >= 0; i--) {
+            stype[i] = text[i] < text[i + 1] || (text[i] == text[i + 1] && stype[i + 1]);
+        }
+
+        int[] bucket = new int[alphabet];
+        Arrays.fill(sa, -1);
+        bucketEnds(text, bucket, n, alphabet);
+        for (int i = 1; i < n; i++) {
+            if (isLms(stype, i)) {
+                sa[--bucket[text[i]]] = i;
+            }
+        }
+        induce(text, sa, stype, bucket, n, alphabet);
+
+        int lmsCount = 0;
+        for (int i = 0; i < n; i++) {
+            if (isLms(stype, sa[i])) {
+                sa[lmsCount++] = sa[i];
+            }
+        }
+
+        Arrays.fill(sa, lmsCount, n, -1);
+        int names = 0;
+        int prev = -1;
+        for (int i = 0; i < lmsCount; i++) {
+            int pos = sa[i];
+            boolean diff = false;
+            for (int d = 0; d < n; d++) {
+                if (prev == -1 || text[pos + d] != text[prev + d]
+                        || stype[pos + d] != stype[prev + d]) {
+                    diff = true;
+                    break;
+                } else if (d > 0 && (isLms(stype, pos + d) || isLms(stype, prev + d))) {
+                    break;
+                }
+            }
+            if (diff) {
+                names++;
+                prev = pos;
+            }
+            sa[lmsCount + pos / 2] = names - 1;
+        }
+
+        int[] reduced = new int[lmsCount];
+        for (int i = n - 1, j = lmsCount - 1; i >= lmsCount; i--) {
+            if (sa[i] >= 0) {
+                reduced[j--] = sa[i];
+            }
+        }
+
+        int[] reducedSa = new int[lmsCount];
+        if (names < lmsCount) {
+            sais(reduced, reducedSa, lmsCount, names);
+        } else {
+            for (int i = 0; i < lmsCount; i++) {
+                reducedSa[reduced[i]] = i;
+            }
+        }
+
+        for (int i = 1, j = 0; i < n; i++) {
+            if (isLms(stype, i)) {
+                reduced[j++] = i;
+            }
+        }
+        for (int i = 0; i < lmsCount; i++) {
+            reducedSa[i] = reduced[reducedSa[i]];
+        }
+
+        Arrays.fill(sa, -1);
+        bucketEnds(text, bucket, n, alphabet);
+        for (int i = lmsCount - 1; i >= 0; i--) {
+            int j = reducedSa[i];
+            sa[--bucket[text[j]]] = j;
+        }
+        induce(text, sa, stype, bucket, n, alphabet);
+    }
+
+    /**
+     * Индуцирует L-суффиксы проходом слева направо, затем S-суффиксы справа налево.
+     */
+    private static void induce(int[] text, int[] sa, boolean[] stype, int[] bucket, int n,
+                               int alphabet) {
+        bucketStarts(text, bucket, n, alphabet);
+        for (int i = 0; i < n; i++) {
+            int j = sa[i] - 1;
+            if (j >= 0 && !stype[j]) {
+                sa[bucket[text[j]]++] = j;
+            }
+        }
+
+        bucketEnds(text, bucket, n, alphabet);
+        for (int i = n - 1; i >= 0; i--) {
+            int j = sa[i] - 1;
+            if (j >= 0 && stype[j]) {
+                sa[--bucket[text[j]]] = j;
+            }
+        }
+    }
+
+    private static boolean isLms(boolean[] stype, int i) {
+        return i > 0 && stype[i] && !stype[i - 1];
+    }
+
+    private static void bucketStarts(int[] text, int[] bucket, int n, int alphabet) {
+        countSymbols(text, bucket, n, alphabet);
+        for (int c = 0, sum = 0; c < alphabet; c++) {
+            int count = bucket[c];
+            bucket[c] = sum;
+            sum += count;
+        }
+    }
+
+    private static void bucketEnds(int[] text, int[] bucket, int n, int alphabet) {
+        countSymbols(text, bucket, n, alphabet);
+        for (int c = 0, sum = 0; c < alphabet; c++) {
+            sum += bucket[c];
+            bucket[c] = sum;
+        }
+    }
+
+    private static void countSymbols(int[] text, int[] bucket, int n, int alphabet) {
+        Arrays.fill(bucket, 0, alphabet, 0);
+        for (int i = 0; i < n; i++) {
+            bucket[text[i]]++;
+        }
+    }
+}
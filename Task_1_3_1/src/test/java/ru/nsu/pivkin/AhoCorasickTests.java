@@ -0,0 +1,87 @@
+package ru.nsu.pivkin;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Тесты для проверки класса AhoCorasick.
+ */
+public class AhoCorasickTests {
+    @TempDir
+    Path tempDir;
+
+    private static List<Integer> indicesOf(String text, String substring) {
+        List<Integer> res = new ArrayList<>();
+        for (int i = text.indexOf(substring); i >= 0; i = text.indexOf(substring, i + 1)) {
+            res.add(text.codePointCount(0, i));
+        }
+        return res;
+    }
+
+    @Test
+    void testOverlappingPatterns() throws Exception {
+        Path file = Files.writeString(tempDir.resolve("ushers.txt"), "ushers и his hers");
+        List<String> patterns = List.of("he", "she", "his", "hers", "s", "she", "");
+
+        for (int windowSize : new int[] {1, 2, 3, 1024}) {
+            Map<String, List<Integer>> result = new AhoCorasick(patterns).find(file, windowSize);
+
+            assertEquals(List.of("he", "she", "his", "hers", "s", ""),
+                    new ArrayList<>(result.keySet()));
+            assertEquals(List.of(2, 13), result.get("he"));
+            assertEquals(List.of(1), result.get("she"));
+            assertEquals(List.of(9), result.get("his"));
+            assertEquals(List.of(2, 13), result.get("hers"));
+            assertEquals(List.of(1, 5, 11, 16), result.get("s"));
+            assertTrue(result.get("").isEmpty());
+        }
+    }
+
+    @Test
+    void testMatchesSingleSearch() throws Exception {
+        Random random = new Random(20);
+        String[] alphabet = {"а", "б", "р", "a", "b", "😀", " "};
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            text.append(alphabet[random.nextInt(alphabet.length)]);
+        }
+        Path file = Files.writeString(tempDir.resolve("random.txt"), text, StandardCharsets.UTF_8);
+
+        List<String> patterns = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            StringBuilder pattern = new StringBuilder();
+            for (int j = 0; j <= i % 5; j++) {
+                pattern.append(alphabet[random.nextInt(alphabet.length)]);
+            }
+            patterns.add(pattern.toString());
+        }
+
+        Map<String, List<Integer>> result = SubFinder.find(file, patterns);
+        Map<String, List<Integer>> windowed = new AhoCorasick(patterns).find(file, 5);
+        for (String pattern : patterns) {
+            assertEquals(indicesOf(text.toString(), pattern), result.get(pattern));
+            assertEquals(result.get(pattern), windowed.get(pattern));
+        }
+    }
+
+    @Test
+    void testEdgeCases() throws Exception {
+        Path empty = Files.writeString(tempDir.resolve("empty.txt"), "");
+        AhoCorasick automaton = new AhoCorasick(List.of("a"));
+
+        assertEquals(Map.of("a", List.of()), automaton.find(empty));
+        assertTrue(new AhoCorasick(List.of()).find(empty).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> automaton.find(empty, 0));
+    }
+}
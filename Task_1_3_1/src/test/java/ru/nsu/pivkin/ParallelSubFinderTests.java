@@ -0,0 +1,77 @@
+package ru.nsu.pivkin;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Тесты для проверки класса ParallelSubFinder.
+ */
+public class ParallelSubFinderTests {
+    @TempDir
+    Path tempDir;
+
+    private static List<Integer> indicesOf(String text, String substring) {
+        List<Integer> res = new ArrayList<>();
+        for (int i = text.indexOf(substring); i >= 0; i = text.indexOf(substring, i + 1)) {
+            res.add(text.codePointCount(0, i));
+        }
+        return res;
+    }
+
+    @Test
+    void testChunkBoundaries() throws Exception {
+        Random random = new Random(7);
+        StringBuilder text = new StringBuilder();
+        String[] parts = {"a", "b", "я", "😀", "ab"};
+        for (int i = 0; i < 500; i++) {
+            text.append(parts[random.nextInt(parts.length)]);
+        }
+        Path file = Files.writeString(tempDir.resolve("text.txt"), text, StandardCharsets.UTF_8);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (String substring : new String[] {"a", "ab", "aba", "я😀", "😀a"}) {
+                List<Integer> expected = indicesOf(text.toString(), substring);
+                for (int chunkSize = 1; chunkSize <= 17; chunkSize++) {
+                    for (SubFinder.Algorithm algorithm : SubFinder.Algorithm.values()) {
+                        assertEquals(expected, ParallelSubFinder.find(
+                                file, substring, chunkSize, algorithm, pool));
+                    }
+                }
+                assertEquals(expected, ParallelSubFinder.find(file, substring, pool));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testEdgeCases() throws Exception {
+        Path empty = Files.writeString(tempDir.resolve("empty.txt"), "");
+        Path aaaa = Files.writeString(tempDir.resolve("aaaa.txt"), "aaaa");
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            assertTrue(ParallelSubFinder.find(empty, "a").isEmpty());
+            assertTrue(ParallelSubFinder.find(aaaa, "").isEmpty());
+            assertEquals(List.of(0, 1, 2), ParallelSubFinder.find(
+                    aaaa, "aa", 1, SubFinder.DEFAULT_ALGORITHM, pool));
+            assertTrue(ParallelSubFinder.find(
+                    aaaa, "aaaaa", 2, SubFinder.DEFAULT_ALGORITHM, pool).isEmpty());
+            assertThrows(IllegalArgumentException.class, () -> ParallelSubFinder.find(
+                    aaaa, "aa", 0, SubFinder.DEFAULT_ALGORITHM, pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package ru.nsu.pivkin;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Тесты для проверки класса RegexFinder.
+ */
+public class RegexFinderTests {
+    @TempDir
+    Path tempDir;
+
+    private static List<Long> matchesOf(String text, Pattern pattern) {
+        List<Long> res = new ArrayList<>();
+        Matcher matcher = pattern.matcher(text);
+        while (matcher.find()) {
+            res.add((long) text.codePointCount(0, matcher.start()));
+        }
+        return res;
+    }
+
+    private static List<Long> overlappingMatchesOf(String text, Pattern pattern) {
+        List<Long> res = new ArrayList<>();
+        Matcher matcher = pattern.matcher(text);
+        int from = 0;
+        while (from <= text.length() && matcher.find(from)) {
+            res.add((long) text.codePointCount(0, matcher.start()));
+            from = matcher.start() + 1;
+        }
+        return res;
+    }
+
+    private static String randomText(int words) {
+        Random random = new Random(11);
+        String[] parts = {
+            "абра", "кадабра", "БРА", "a12", "b345", "😀", " ", "\n", "Σας", "σΑς"
+        };
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            text.append(parts[random.nextInt(parts.length)]);
+        }
+        return text.toString();
+    }
+
+    @Test
+    void testRegex() throws Exception {
+        String text = randomText(40000);
+        Path file = Files.writeString(tempDir.resolve("text.txt"), text, StandardCharsets.UTF_8);
+
+        for (String regex : new String[] {"б[рa]+", "(?<=a)\\d", "[ab]\\d{2,3}", "\\bкад\\w+",
+                "😀\\s", "a\\d+(?=b)", "(?i)бра", "^b", "бра|кад", "x?a", "x*", "\\d*"}) {
+            Pattern pattern = Pattern.compile(regex, Pattern.MULTILINE);
+            List<Long> expected = matchesOf(text, pattern);
+            for (int maxMatchLength : new int[] {16, 1000}) {
+                List<Long> fromFile = new ArrayList<>();
+                RegexFinder.forEach(file, pattern, maxMatchLength, fromFile::add);
+                assertEquals(expected, fromFile, regex);
+
+                List<Long> fromReader = new ArrayList<>();
+                RegexFinder.forEach(new BufferedReader(new StringReader(text)), pattern,
+                        maxMatchLength, fromReader::add);
+                assertEquals(expected, fromReader, regex);
+            }
+        }
+
+        Pattern empty = Pattern.compile("a*");
+        List<Long> found = new ArrayList<>();
+        RegexFinder.forEach(new BufferedReader(new StringReader("baab")), empty, 4, found::add);
+        assertEquals(List.of(0L, 1L, 3L, 4L), found);
+
+        // Пустые вхождения между половинами суррогатной пары, как у Matcher.find().
+        String emoji = "a😀b😀c";
+        List<Long> fromEmoji = new ArrayList<>();
+        RegexFinder.forEach(new BufferedReader(new StringReader(emoji)), Pattern.compile("x*"), 4,
+                fromEmoji::add);
+        assertEquals(List.of(0L, 1L, 2L, 2L, 3L, 4L, 4L, 5L), fromEmoji);
+        assertEquals(matchesOf(emoji, Pattern.compile("x*")), fromEmoji);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> RegexFinder.find(file, Pattern.compile("\\Gab")));
+        Pattern quoted = Pattern.compile("\\Q\\G\\E|a1");
+        assertEquals(matchesOf(text, quoted).stream().map(Long::intValue).toList(),
+                RegexFinder.find(file, quoted));
+        assertThrows(IllegalArgumentException.class,
+                () -> RegexFinder.forEach(file, empty, 0, index -> { }));
+    }
+
+    @Test
+    void testMatchLongerThanMaxMatchLength() throws Exception {
+        // Одно вхождение пересекает буфер декодирования в 64K символов.
+        String text = "x" + "a".repeat(100_000) + "y12" + "3".repeat(70_000) + "z";
+        Path file = Files.writeString(tempDir.resolve("long.txt"), text, StandardCharsets.UTF_8);
+
+        for (String regex : new String[] {"a+", "\\d+"}) {
+            Pattern pattern = Pattern.compile(regex);
+            List<Long> expected = matchesOf(text, pattern);
+            List<Long> fromFile = new ArrayList<>();
+            RegexFinder.forEach(file, pattern, 16, fromFile::add);
+            assertEquals(expected, fromFile, regex);
+
+            List<Long> fromReader = new ArrayList<>();
+            RegexFinder.forEach(new BufferedReader(new StringReader(text)), pattern, 16,
+                    fromReader::add);
+            assertEquals(expected, fromReader, regex);
+        }
+    }
+
+    @Test
+    void testLiteralPatterns() throws Exception {
+        String text = randomText(5000);
+        Path file = Files.writeString(tempDir.resolve("text.txt"), text, StandardCharsets.UTF_8);
+
+        for (Pattern pattern : new Pattern[] {
+            Pattern.compile("бра"),
+            Pattern.compile("a1.", Pattern.LITERAL),
+            Pattern.compile("σας", Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE),
+            Pattern.compile("бра", Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE),
+            Pattern.compile("абра", Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE)
+        }) {
+            List<Integer> expected = matchesOf(text, pattern).stream()
+                    .map(Long::intValue).toList();
+            assertEquals(expected, RegexFinder.find(file, pattern));
+        }
+    }
+
+    @Test
+    void testIgnoreCase() throws Exception {
+        String text = randomText(20000) + "Straße STRASSE";
+        Path file = Files.writeString(tempDir.resolve("text.txt"), text, StandardCharsets.UTF_8);
+
+        for (String substring : new String[] {"бра", "АБРА", "σας", "ΣΑΣ", "😀σ", "A12", "s"}) {
+            Pattern pattern = Pattern.compile(Pattern.quote(substring),
+                    Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+            List<Long> expected = overlappingMatchesOf(text, pattern);
+
+            assertEquals(expected.stream().map(Long::intValue).toList(),
+                    RegexFinder.findIgnoreCase(file, substring));
+            List<Long> fromReader = new ArrayList<>();
+            RegexFinder.forEachIgnoreCase(new BufferedReader(new StringReader(text)), substring,
+                    fromReader::add);
+            assertEquals(expected, fromReader);
+        }
+
+        assertTrue(RegexFinder.findIgnoreCase(file, "").isEmpty());
+        assertEquals(1, RegexFinder.findIgnoreCase(file, "strasse").size());
+
+        List<Long> found = new ArrayList<>();
+        RegexFinder.forEachIgnoreCase(new BufferedReader(new StringReader("Ab\uD83DaB")), "ab",
+                found::add);
+        assertEquals(List.of(0L, 3L), found);
+    }
+}
@@ -5,12 +5,17 @@ import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.StringReader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
+import java.util.stream.LongStream;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -22,6 +27,14 @@ public class SubFinderTests {
     @TempDir
     Path tempDir;
 
+    private static List<Integer> indicesOf(String text, String substring) {
+        List<Integer> res = new ArrayList<>();
+        for (int i = text.indexOf(substring); i >= 0; i = text.indexOf(substring, i + 1)) {
+            res.add(text.codePointCount(0, i));
+        }
+        return res;
+    }
+
     @Test
     void testBasicExample() throws Exception {
         List<Integer> result = SubFinder.find(
@@ -89,4 +102,105 @@ public class SubFinderTests {
         assertEquals(List.of(0, 1, 2), result);
     }
 
+    @Test
+    void testMappedFile() throws Exception {
+        Path file = tempDir.resolve("mapped.txt");
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            text.append(i % 7 == 0 ? "\uD83D\uDE00абра" : "кадабра a");
+        }
+        Files.writeString(file, text, StandardCharsets.UTF_8);
+
+        List<Integer> expected = indicesOf(text.toString(), "бра");
+        assertEquals(1000, expected.size());
+        assertEquals(expected, SubFinder.find(file, "бра"));
+        for (int windowSize : new int[] {6, 7, 8, 13, 1024}) {
+            assertEquals(expected, SubFinder.find(file, "бра", windowSize));
+        }
+
+        assertEquals(indicesOf(text.toString(), "\uD83D\uDE00а"),
+                SubFinder.find(file, "\uD83D\uDE00а", 6));
+        assertTrue(SubFinder.find(file, "").isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> SubFinder.find(file, "бра", 5));
+    }
+
+    @Test
+    void testMappedEmptyFile() throws Exception {
+        Path file = tempDir.resolve("empty.txt");
+        Files.writeString(file, "");
+
+        assertTrue(SubFinder.find(file, "test").isEmpty());
+        assertEquals(List.of(0, 1, 2), SubFinder.find(
+                Files.writeString(tempDir.resolve("aaaa.txt"), "aaaa"), "aa", 2));
+    }
+
+    @Test
+    void testAlgorithms() throws Exception {
+        Random random = new Random(42);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            text.append("abя".charAt(random.nextInt(3)));
+        }
+        for (int i = 0; i < 300; i++) {
+            text.append('a');
+        }
+        Path file = Files.writeString(tempDir.resolve("random.txt"), text, StandardCharsets.UTF_8);
+
+        for (String substring : new String[] {"a", "aa", "aaaa", "ab", "abab", "aab", "aba",
+                "baaa", "яa", "abяab", "bяbяbя"}) {
+            List<Integer> expected = indicesOf(text.toString(), substring);
+            int bytes = substring.getBytes(StandardCharsets.UTF_8).length;
+            for (SubFinder.Algorithm algorithm : SubFinder.Algorithm.values()) {
+                for (int size : new int[] {bytes, bytes + 1, 2 * bytes + 3, 64, 4096}) {
+                    assertEquals(expected, SubFinder.find(new BufferedReader(
+                            new StringReader(text.toString())), substring, size, algorithm));
+                }
+                for (int windowSize : new int[] {64, 4096}) {
+                    assertEquals(expected, SubFinder.find(file, substring, windowSize, algorithm));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testSurrogatePairOnBufferBoundary() throws Exception {
+        String text = "a\uD83D\uDE00b\uD83D\uDE00\uD83D\uDE00b";
+        for (int size = 2; size <= text.length(); size++) {
+            for (String substring : new String[] {"b", "\uD83D\uDE00", "\uD83D\uDE00b"}) {
+                if (substring.length() <= size) {
+                    assertEquals(indicesOf(text, substring), SubFinder.find(
+                            new BufferedReader(new StringReader(text)), substring, size));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testStreaming() throws Exception {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 40000; i++) {
+            text.append(i % 3 == 0 ? "\uD83D\uDE00бра" : "кадабра a");
+        }
+        Path file = Files.writeString(tempDir.resolve("stream.txt"), text, StandardCharsets.UTF_8);
+        long[] expected = indicesOf(text.toString(), "бра").stream()
+                .mapToLong(Integer::longValue).toArray();
+
+        List<Long> pushed = new ArrayList<>();
+        SubFinder.forEach(file, "бра", pushed::add);
+        assertArrayEquals(expected, pushed.stream().mapToLong(Long::longValue).toArray());
+        try (LongStream matches = SubFinder.stream(file, "бра")) {
+            assertArrayEquals(expected, matches.toArray());
+        }
+        try (LongStream matches = SubFinder.stream(file, "бра", SubFinder.Algorithm.KMP)) {
+            assertEquals(expected[1], matches.skip(1).findFirst().getAsLong());
+        }
+
+        assertEquals(expected.length, SubFinder.count(file, "бра"));
+        assertEquals(0, SubFinder.count(file, "абв"));
+        assertArrayEquals(Arrays.copyOf(expected, 3), SubFinder.first(file, "бра", 3));
+        assertArrayEquals(expected, SubFinder.first(file, "бра", Long.MAX_VALUE));
+        assertEquals(0, SubFinder.first(file, "бра", 0).length);
+        assertEquals(0, SubFinder.first(file, "", 5).length);
+        assertThrows(IllegalArgumentException.class, () -> SubFinder.first(file, "бра", -1));
+    }
 }
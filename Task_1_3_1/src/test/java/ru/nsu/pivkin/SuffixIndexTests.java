@@ -0,0 +1,94 @@
+package ru.nsu.pivkin;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Тесты для проверки класса SuffixIndex.
+ */
+public class SuffixIndexTests {
+    @TempDir
+    Path tempDir;
+
+    private static long[] indicesOf(String text, String substring) {
+        return IntStream.iterate(text.indexOf(substring), i -> i >= 0,
+                i -> text.indexOf(substring, i + 1))
+                .mapToLong(i -> text.codePointCount(0, i)).toArray();
+    }
+
+    @Test
+    void testSuffixArray() {
+        Random random = new Random(3);
+        for (int length = 0; length < 200; length++) {
+            byte[] bytes = new byte[length];
+            for (int i = 0; i < length; i++) {
+                bytes[i] = (byte) (random.nextInt(length % 4 + 1) * 100);
+            }
+
+            Integer[] expected = IntStream.rangeClosed(0, length).boxed().toArray(Integer[]::new);
+            Arrays.sort(expected, Comparator.comparing((Integer i) ->
+                    Arrays.copyOfRange(bytes, i, bytes.length), Arrays::compareUnsigned));
+            assertArrayEquals(Arrays.stream(expected).mapToInt(Integer::intValue).toArray(),
+                    SuffixIndex.suffixArray(bytes));
+        }
+    }
+
+    @Test
+    void testQueries() throws Exception {
+        Random random = new Random(5);
+        String[] parts = {"a", "b", "я", "😀", "ab", "бра"};
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            text.append(parts[random.nextInt(parts.length)]);
+        }
+        Path file = Files.writeString(tempDir.resolve("text.txt"), text, StandardCharsets.UTF_8);
+        Path indexFile = tempDir.resolve("text.sfx");
+
+        SuffixIndex index = SuffixIndex.build(file, indexFile);
+        assertEquals(text.codePointCount(0, text.length()), index.size());
+        assertEquals(SuffixIndex.HEADER_SIZE + 8 * index.size(), Files.size(indexFile));
+
+        SuffixIndex reopened = SuffixIndex.open(file, indexFile);
+        for (String substring : new String[] {"a", "ab", "aba", "бра", "я😀", "😀a", "бб", "abab",
+                "q", text.substring(100, 140)}) {
+            long[] expected = indicesOf(text.toString(), substring);
+            assertArrayEquals(expected, index.find(substring));
+            assertArrayEquals(expected, reopened.find(substring));
+            assertEquals(expected.length, reopened.count(substring));
+        }
+        assertEquals(0, index.find("").length);
+        assertEquals(0, index.count(""));
+    }
+
+    @Test
+    void testEmptyAndStale() throws Exception {
+        Path empty = Files.writeString(tempDir.resolve("empty.txt"), "");
+        SuffixIndex index = SuffixIndex.build(empty, tempDir.resolve("empty.sfx"));
+        assertEquals(0, index.size());
+        assertEquals(0, index.find("a").length);
+
+        Path file = Files.writeString(tempDir.resolve("text.txt"), "abracadabra");
+        Path indexFile = tempDir.resolve("text.sfx");
+        assertArrayEquals(new long[] {0, 7}, SuffixIndex.build(file, indexFile).find("abra"));
+
+        Files.writeString(file, "abracadabr");
+        assertThrows(IOException.class, () -> SuffixIndex.open(file, indexFile));
+        Files.writeString(file, "abracadabra");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(0));
+        assertThrows(IOException.class, () -> SuffixIndex.open(file, indexFile));
+        assertThrows(IOException.class, () -> SuffixIndex.open(file, file));
+    }
+}